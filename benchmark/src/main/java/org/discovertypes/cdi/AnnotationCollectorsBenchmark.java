@@ -0,0 +1,66 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.discovertypes.cdi.synthetic.SyntheticTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link AnnotationCollectors#collectAllAnnotationsOf(Class, Collection)}
+ * for classes with a varying number of annotated members.
+ * <p>
+ * Located inside the package of {@link AnnotationCollectors}, since it is not
+ * public.
+ * 
+ * @author Johannes Troppacher
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotationCollectorsBenchmark {
+
+	@Param({ "0", "4", "16", "64" })
+	private int members;
+
+	private Class<?> type;
+
+	@Setup
+	public void setUp() {
+		type = SyntheticTypes.ofCount(1).withMembers(members).compile().getTypes().get(0);
+	}
+
+	@Benchmark
+	public Collection<DiscoveredAnnotation> collectAllAnnotationsOf() {
+		Collection<DiscoveredAnnotation> annotations = new ArrayList<>();
+		AnnotationCollectors.collectAllAnnotationsOf(type, annotations);
+		return annotations;
+	}
+}
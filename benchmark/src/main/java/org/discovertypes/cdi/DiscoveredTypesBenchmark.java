@@ -0,0 +1,64 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.discovertypes.cdi.synthetic.SyntheticTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link DiscoveredTypes#of(java.util.Collection)} over thousands of
+ * classes, including the reflective discovery of each of them.
+ * 
+ * @author Johannes Troppacher
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiscoveredTypesBenchmark {
+
+	@Param({ "1000", "5000", "15000" })
+	private int count;
+
+	@Param({ "2" })
+	private int members;
+
+	private List<Class<?>> types;
+
+	@Setup
+	public void setUp() {
+		types = new ArrayList<>(SyntheticTypes.ofCount(count).withMembers(members).compile().getTypes());
+	}
+
+	@Benchmark
+	public DiscoveredTypes discoveredTypesOf() {
+		return DiscoveredTypes.of(types);
+	}
+}
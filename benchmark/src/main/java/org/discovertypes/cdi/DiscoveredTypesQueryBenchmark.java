@@ -0,0 +1,99 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.discovertypes.cdi.synthetic.SyntheticTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the queries of an initialized {@link DiscoveredTypes} index:
+ * {@link DiscoveredTypes#annotatedWith(Class)},
+ * {@link DiscoveredTypes#annotatedWithAnyOf(Iterable)},
+ * {@link DiscoveredTypes#iterator()} and {@link DiscoveredTypes#stream()}.
+ * 
+ * @author Johannes Troppacher
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscoveredTypesQueryBenchmark {
+
+	@Param({ "1000", "15000" })
+	private int count;
+
+	@Param({ "8", "64" })
+	private int annotationTypes;
+
+	private DiscoveredTypes discoveredTypes;
+	private Class<? extends Annotation> annotationType;
+	private List<Class<? extends Annotation>> anyOfAnnotationTypes;
+
+	@Setup
+	public void setUp() {
+		SyntheticTypes.Result result = SyntheticTypes.ofCount(count).withAnnotationTypes(annotationTypes)
+				.compile();
+		discoveredTypes = DiscoveredTypes.of(new ArrayList<>(result.getTypes()));
+		annotationType = result.getAnnotationTypes().get(0);
+		anyOfAnnotationTypes = result.getAnnotationTypes().subList(0, 3);
+	}
+
+	@Benchmark
+	public Collection<DiscoveredType> annotatedWith() {
+		return discoveredTypes.annotatedWith(annotationType);
+	}
+
+	@Benchmark
+	public Collection<DiscoveredType> annotatedWithAnyOf() {
+		return discoveredTypes.annotatedWithAnyOf(anyOfAnnotationTypes);
+	}
+
+	@Benchmark
+	public void iterator(Blackhole blackhole) {
+		for (DiscoveredType discoveredType : discoveredTypes) {
+			blackhole.consume(discoveredType);
+		}
+	}
+
+	@Benchmark
+	public void forEach(Blackhole blackhole) {
+		discoveredTypes.forEach(blackhole::consume);
+	}
+
+	@Benchmark
+	public long parallelStream() {
+		return discoveredTypes.stream().parallel()
+				.mapToLong(discoveredType -> discoveredType.getAnnotationTypes().size())
+				.sum();
+	}
+}
@@ -0,0 +1,138 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.discovertypes.cdi.synthetic.SyntheticTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the compact serialized form of {@link DiscoveredTypes} with the
+ * default java serialization, that is used when
+ * {@link DiscoveredTypes#COMPACT_SERIALIZATION_PROPERTY} is "false".
+ * 
+ * @author Johannes Troppacher
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param({ "1000", "5000" })
+	private int count;
+
+	@Param({ "2" })
+	private int members;
+
+	@Param({ "true", "false" })
+	private String compactSerialization;
+
+	private ClassLoader classLoader;
+	private DiscoveredTypes discoveredTypes;
+	private byte[] serialized;
+
+	@Setup
+	public void setUp() throws IOException {
+		List<Class<?>> types = SyntheticTypes.ofCount(count).withMembers(members).compile().getTypes();
+		classLoader = types.get(0).getClassLoader();
+		discoveredTypes = new DiscoveredTypes();
+		discoveredTypes.initializeWith(types.stream().map(DiscoveredType::of).collect(Collectors.toList()));
+		System.setProperty(DiscoveredTypes.COMPACT_SERIALIZATION_PROPERTY, compactSerialization);
+		serialized = serialize();
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.clearProperty(DiscoveredTypes.COMPACT_SERIALIZATION_PROPERTY);
+	}
+
+	@Benchmark
+	public byte[] serialize() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(discoveredTypes);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Benchmark
+	public Object deserialize() throws IOException, ClassNotFoundException {
+		Thread thread = Thread.currentThread();
+		ClassLoader contextClassLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(classLoader);
+		try (ObjectInputStream in = new SyntheticTypesInputStream(serialized, classLoader)) {
+			return in.readObject();
+		} finally {
+			thread.setContextClassLoader(contextClassLoader);
+		}
+	}
+
+	/**
+	 * Resolves the in memory compiled synthetic types and proxies of their
+	 * annotations, that are not visible to the default class resolution of
+	 * {@link ObjectInputStream}.
+	 */
+	private static final class SyntheticTypesInputStream extends ObjectInputStream {
+
+		private final ClassLoader classLoader;
+
+		SyntheticTypesInputStream(byte[] bytes, ClassLoader classLoader) throws IOException {
+			super(new ByteArrayInputStream(bytes));
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			try {
+				return Class.forName(desc.getName(), false, classLoader);
+			} catch (ClassNotFoundException e) {
+				return super.resolveClass(desc);
+			}
+		}
+
+		@Override
+		@SuppressWarnings("deprecation")
+		protected Class<?> resolveProxyClass(String[] interfaceNames) throws IOException, ClassNotFoundException {
+			Class<?>[] interfaces = new Class<?>[interfaceNames.length];
+			for (int i = 0; i < interfaceNames.length; i++) {
+				interfaces[i] = Class.forName(interfaceNames[i], false, classLoader);
+			}
+			return Proxy.getProxyClass(classLoader, interfaces);
+		}
+	}
+}
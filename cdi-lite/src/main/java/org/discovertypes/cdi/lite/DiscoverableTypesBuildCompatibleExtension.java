@@ -0,0 +1,259 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.lite;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Vetoed;
+import jakarta.enterprise.inject.build.compatible.spi.BeanInfo;
+import jakarta.enterprise.inject.build.compatible.spi.BuildCompatibleExtension;
+import jakarta.enterprise.inject.build.compatible.spi.ClassConfig;
+import jakarta.enterprise.inject.build.compatible.spi.Discovery;
+import jakarta.enterprise.inject.build.compatible.spi.Enhancement;
+import jakarta.enterprise.inject.build.compatible.spi.Messages;
+import jakarta.enterprise.inject.build.compatible.spi.Registration;
+import jakarta.enterprise.inject.build.compatible.spi.Synthesis;
+import jakarta.enterprise.inject.build.compatible.spi.SyntheticComponents;
+import jakarta.enterprise.inject.build.compatible.spi.Validation;
+import jakarta.enterprise.lang.model.AnnotationInfo;
+import jakarta.enterprise.lang.model.AnnotationMember;
+import jakarta.enterprise.lang.model.AnnotationTarget;
+import jakarta.enterprise.lang.model.declarations.ClassInfo;
+import jakarta.enterprise.lang.model.declarations.MethodInfo;
+
+import org.discovertypes.cdi.AnnotationLocation;
+import org.discovertypes.cdi.Discoverable;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.internal.CollectedLocations;
+
+/**
+ * CDI Lite variant of the portable extension <code>DiscoverableTypesCdiExtension</code>, that
+ * discovers all types directly or indirectly annotated with
+ * {@link Discoverable} at build time.
+ * <p>
+ * Their annotations are collected using the CDI language model during
+ * {@link Enhancement} and handed over to a synthetic {@link DiscoveredTypes}
+ * bean during {@link Synthesis}, that can be injected like before using
+ * <code>@Inject DiscoveredTypes discoveredTypes;</code>. Types, that are
+ * annotated with <code>@Discoverable(ignoreBean = true)</code>, are marked as
+ * {@link Vetoed}. Since CDI Lite has no veto of its own, this only takes effect
+ * in containers, that evaluate {@link Vetoed} after {@link Enhancement} (e.g.
+ * not in Weld). If such a type is registered as bean nevertheless, a warning
+ * is reported during {@link Validation}.
+ * 
+ * @author Johannes Troppacher
+ */
+public class DiscoverableTypesBuildCompatibleExtension implements BuildCompatibleExtension {
+
+	private static final Logger LOGGER = Logger.getLogger(DiscoverableTypesBuildCompatibleExtension.class.getName());
+
+	private final List<DiscoveredTypeInfo> discoveredTypes = new ArrayList<>();
+	private final Set<String> ignoredTypeNames = new HashSet<>();
+	private final List<BeanInfo> ignoredBeans = new ArrayList<>();
+
+	/**
+	 * Reads the globally collected {@link AnnotationLocation}s once per
+	 * deployment.
+	 */
+	@Discovery
+	public void readCollectedLocations() {
+		CollectedLocations.reconfigure();
+	}
+
+	/**
+	 * Discovers the given type, if it is directly or indirectly annotated with
+	 * {@link Discoverable}.
+	 * <p>
+	 * <code>withAnnotations</code> of {@link Enhancement} is not used here, since
+	 * not every container considers meta-annotations for it.
+	 * 
+	 * @param type - {@link ClassConfig}
+	 */
+	@Enhancement(types = Object.class, withSubtypes = true)
+	public void discover(ClassConfig type) {
+		ClassInfo classInfo = type.info();
+		if (!isDiscoverable(classInfo)) {
+			return;
+		}
+		List<AnnotationInfo> discoverables = typeLevelDiscoverablesOf(classInfo);
+		if (isIgnoredBean(discoverables)) {
+			type.addAnnotation(Vetoed.class);
+			ignoredTypeNames.add(classInfo.name());
+			LOGGER.finer("ignored type (veto): " + classInfo.name());
+		}
+		DiscoveredTypeInfo discovered = new DiscoveredTypeInfo(classInfo);
+		LanguageModelCollectors.collectAllAnnotationsOf(classInfo, locationsOf(discoverables), discovered);
+		discoveredTypes.add(discovered);
+		LOGGER.finer("discovered: " + classInfo.name());
+	}
+
+	@Synthesis
+	public void registerDiscoveredTypes(SyntheticComponents components) {
+		ClassInfo[] types = new ClassInfo[discoveredTypes.size()];
+		int[] annotationCounts = new int[discoveredTypes.size()];
+		List<AnnotationInfo> annotations = new ArrayList<>();
+		List<String> locations = new ArrayList<>();
+		for (int i = 0; i < types.length; i++) {
+			DiscoveredTypeInfo discovered = discoveredTypes.get(i);
+			types[i] = discovered.getType();
+			annotationCounts[i] = discovered.getAnnotations().size();
+			annotations.addAll(discovered.getAnnotations());
+			locations.addAll(discovered.getLocations());
+		}
+		components.addBean(DiscoveredTypes.class)
+				.type(DiscoveredTypes.class)
+				.scope(ApplicationScoped.class)
+				.withParam(DiscoveredTypesCreator.TYPES, types)
+				.withParam(DiscoveredTypesCreator.ANNOTATION_COUNTS, annotationCounts)
+				.withParam(DiscoveredTypesCreator.ANNOTATIONS,
+						annotations.toArray(new AnnotationInfo[annotations.size()]))
+				.withParam(DiscoveredTypesCreator.LOCATIONS, locations.toArray(new String[locations.size()]))
+				.createWith(DiscoveredTypesCreator.class);
+		LOGGER.finer("registered synthetic DiscoveredTypes bean with " + types.length + " types");
+		discoveredTypes.clear();
+	}
+
+	/**
+	 * Remembers the beans of types, that are annotated with
+	 * <code>@Discoverable(ignoreBean = true)</code>, but had been registered
+	 * nevertheless, since the container ignored the added {@link Vetoed}.
+	 * 
+	 * @param bean - {@link BeanInfo}
+	 */
+	@Registration(types = Object.class)
+	public void detectIgnoredBeans(BeanInfo bean) {
+		if (bean.isClassBean() && ignoredTypeNames.contains(bean.declaringClass().name())) {
+			ignoredBeans.add(bean);
+		}
+	}
+
+	@Validation
+	public void warnAboutIgnoredBeans(Messages messages) {
+		for (BeanInfo bean : ignoredBeans) {
+			messages.warn("@Discoverable(ignoreBean = true) has no effect, since the container does not evaluate "
+					+ "@Vetoed added during @Enhancement. The type is registered as bean", bean);
+		}
+		ignoredBeans.clear();
+		ignoredTypeNames.clear();
+	}
+
+	/**
+	 * Gets all {@link Discoverable} annotations of the type itself, either directly
+	 * or as meta-annotation, in the order they are applied.
+	 */
+	private static List<AnnotationInfo> typeLevelDiscoverablesOf(ClassInfo type) {
+		List<AnnotationInfo> discoverables = new ArrayList<>();
+		for (AnnotationInfo annotation : type.annotations()) {
+			if (Discoverable.class.getName().equals(annotation.name())) {
+				discoverables.add(annotation);
+			}
+			AnnotationInfo metaAnnotation = annotation.declaration().annotation(Discoverable.class);
+			if (metaAnnotation != null) {
+				discoverables.add(metaAnnotation);
+			}
+		}
+		return discoverables;
+	}
+
+	/**
+	 * Returns <code>true</code>, if {@link Discoverable} is present on the type,
+	 * its super types, fields, constructors, methods or parameters, either
+	 * directly or as meta-annotation.
+	 */
+	private static boolean isDiscoverable(ClassInfo type) {
+		if (isAnyDiscoverableAnnotated(type.fields()) || isAnyDiscoverableAnnotated(type.constructors())) {
+			return true;
+		}
+		for (MethodInfo constructor : type.constructors()) {
+			if (isAnyDiscoverableAnnotated(constructor.parameters())) {
+				return true;
+			}
+		}
+		for (MethodInfo method : type.methods()) {
+			if (isDeclaredBy(type, method.declaringClass())
+					&& (isDiscoverableAnnotated(method) || isAnyDiscoverableAnnotated(method.parameters()))) {
+				return true;
+			}
+		}
+		for (ClassInfo current = type; current != null; current = current.superClassDeclaration()) {
+			if (isDiscoverableAnnotated(current)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isDeclaredBy(ClassInfo type, ClassInfo declaringClass) {
+		return type.name().equals(declaringClass.name());
+	}
+
+	private static boolean isAnyDiscoverableAnnotated(Collection<? extends AnnotationTarget> annotated) {
+		for (AnnotationTarget annotationTarget : annotated) {
+			if (isDiscoverableAnnotated(annotationTarget)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isDiscoverableAnnotated(AnnotationTarget annotated) {
+		if (annotated.hasAnnotation(Discoverable.class)) {
+			return true;
+		}
+		for (AnnotationInfo annotation : annotated.annotations()) {
+			if (annotation.declaration().hasAnnotation(Discoverable.class)) {
+				return true;
+			}
+			for (AnnotationInfo repeated : LanguageModelCollectors.repeatedIn(annotation)) {
+				if (repeated.declaration().hasAnnotation(Discoverable.class)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean isIgnoredBean(List<AnnotationInfo> discoverables) {
+		if (discoverables.isEmpty()) {
+			return false;
+		}
+		AnnotationInfo effective = discoverables.get(discoverables.size() - 1);
+		return effective.hasMember("ignoreBean") && effective.member("ignoreBean").asBoolean();
+	}
+
+	private static Set<AnnotationLocation> locationsOf(List<AnnotationInfo> discoverables) {
+		List<AnnotationLocation[]> declaredLocations = new ArrayList<>();
+		for (AnnotationInfo discoverable : discoverables) {
+			List<AnnotationLocation> locations = new ArrayList<>();
+			if (discoverable.hasMember("locations")) {
+				for (AnnotationMember location : discoverable.member("locations").asArray()) {
+					locations.add(location.asEnum(AnnotationLocation.class));
+				}
+			}
+			declaredLocations.add(locations.toArray(new AnnotationLocation[locations.size()]));
+		}
+		return CollectedLocations.resolve(declaredLocations);
+	}
+
+	@Override
+	public String toString() {
+		return "DiscoverableTypesBuildCompatibleExtension [discoveredTypes=" + discoveredTypes + "]";
+	}
+}
@@ -0,0 +1,69 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.lite;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.enterprise.lang.model.AnnotationInfo;
+import jakarta.enterprise.lang.model.declarations.ClassInfo;
+
+import org.discovertypes.cdi.AnnotationLocation;
+
+/**
+ * Type and its annotations, that had been collected at build time, before they
+ * are handed over as parameters of the synthetic <code>DiscoveredTypes</code>
+ * bean.
+ * 
+ * @author Johannes Troppacher
+ */
+final class DiscoveredTypeInfo {
+
+	private final ClassInfo type;
+	private final List<AnnotationInfo> annotations = new ArrayList<>();
+	private final List<String> locations = new ArrayList<>();
+
+	DiscoveredTypeInfo(ClassInfo type) {
+		this.type = type;
+	}
+
+	void add(AnnotationInfo annotation, AnnotationLocation location) {
+		annotations.add(annotation);
+		locations.add(location.name());
+	}
+
+	ClassInfo getType() {
+		return type;
+	}
+
+	List<AnnotationInfo> getAnnotations() {
+		return annotations;
+	}
+
+	/**
+	 * Gets the {@link AnnotationLocation} names in the same order as
+	 * {@link #getAnnotations()}.
+	 * 
+	 * @return {@link List} of {@link AnnotationLocation#name()}s
+	 */
+	List<String> getLocations() {
+		return locations;
+	}
+
+	@Override
+	public String toString() {
+		return "DiscoveredTypeInfo [type=" + type.name() + ", annotations=" + annotations + ", locations="
+				+ locations + "]";
+	}
+}
@@ -0,0 +1,72 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.lite;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.build.compatible.spi.Parameters;
+import jakarta.enterprise.inject.build.compatible.spi.SyntheticBeanCreator;
+
+import org.discovertypes.cdi.AnnotationLocation;
+import org.discovertypes.cdi.DiscoveredAnnotation;
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+
+/**
+ * Creates the synthetic {@link DiscoveredTypes} bean out of the types and
+ * annotations, that had been collected at build time by
+ * {@link DiscoverableTypesBuildCompatibleExtension}. No annotations are
+ * collected at runtime.
+ * 
+ * @author Johannes Troppacher
+ */
+public class DiscoveredTypesCreator implements SyntheticBeanCreator<DiscoveredTypes> {
+
+	static final String TYPES = "types";
+	static final String ANNOTATION_COUNTS = "annotationCounts";
+	static final String ANNOTATIONS = "annotations";
+	static final String LOCATIONS = "locations";
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public DiscoveredTypes create(Instance<Object> lookup, Parameters params) {
+		Class<?>[] types = params.get(TYPES, Class[].class);
+		int[] annotationCounts = params.get(ANNOTATION_COUNTS, int[].class);
+		Annotation[] annotations = params.get(ANNOTATIONS, Annotation[].class);
+		String[] locations = params.get(LOCATIONS, String[].class);
+		List<DiscoveredType> discoveredTypes = new ArrayList<>(types.length);
+		int annotationIndex = 0;
+		for (int typeIndex = 0; typeIndex < types.length; typeIndex++) {
+			List<DiscoveredAnnotation> typeAnnotations = new ArrayList<>(annotationCounts[typeIndex]);
+			for (int i = 0; i < annotationCounts[typeIndex]; i++, annotationIndex++) {
+				typeAnnotations.add(new DiscoveredAnnotation(annotations[annotationIndex],
+						AnnotationLocation.valueOf(locations[annotationIndex])));
+			}
+			discoveredTypes.add(DiscoveredType.ofCollected(types[typeIndex], typeAnnotations));
+		}
+		DiscoveredTypes discovered = new DiscoveredTypes();
+		discovered.initializeWith(discoveredTypes);
+		return discovered;
+	}
+
+	@Override
+	public String toString() {
+		return "DiscoveredTypesCreator []";
+	}
+}
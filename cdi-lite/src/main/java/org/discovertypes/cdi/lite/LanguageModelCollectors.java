@@ -0,0 +1,209 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.lite;
+
+import static java.util.Arrays.asList;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.enterprise.inject.Stereotype;
+import jakarta.enterprise.lang.model.AnnotationInfo;
+import jakarta.enterprise.lang.model.AnnotationMember;
+import jakarta.enterprise.lang.model.AnnotationTarget;
+import jakarta.enterprise.lang.model.declarations.ClassInfo;
+import jakarta.enterprise.lang.model.declarations.FieldInfo;
+import jakarta.enterprise.lang.model.declarations.MethodInfo;
+
+import org.discovertypes.cdi.AnnotationLocation;
+
+/**
+ * Strategies to collect the annotations of a {@link ClassInfo} at build time.
+ * <p>
+ * These are the counterparts of the reflection based collectors of
+ * <code>DiscoveredType</code>, that use the CDI language model instead.
+ * 
+ * @author Johannes Troppacher
+ */
+enum LanguageModelCollectors {
+
+	TYPE(AnnotationLocation.TYPE) {
+		@Override
+		void collectAnnotationsOf(ClassInfo type, DiscoveredTypeInfo discovered) {
+			addAnnotated(type, discovered);
+		}
+	},
+	SUPER_TYPES(AnnotationLocation.SUPER_TYPE) {
+		@Override
+		void collectAnnotationsOf(ClassInfo type, DiscoveredTypeInfo discovered) {
+			ClassInfo superclass = type.superClassDeclaration();
+			while (superclass != null && !Object.class.getName().equals(superclass.name())) {
+				addAnnotated(superclass, discovered);
+				superclass = superclass.superClassDeclaration();
+			}
+		}
+	},
+	FIELDS(AnnotationLocation.FIELD) {
+		@Override
+		void collectAnnotationsOf(ClassInfo type, DiscoveredTypeInfo discovered) {
+			for (FieldInfo field : type.fields()) {
+				if (isDeclaredBy(type, field.declaringClass())) {
+					addAnnotated(field, discovered);
+				}
+			}
+		}
+	},
+	CONSTRUCTORS(AnnotationLocation.CONSTRUCTOR) {
+		@Override
+		void collectAnnotationsOf(ClassInfo type, DiscoveredTypeInfo discovered) {
+			addAllAnnotated(type.constructors(), discovered);
+		}
+	},
+	CONSTRUCTOR_PARAMETERS(AnnotationLocation.CONSTRUCTOR_PARAMETER) {
+		@Override
+		void collectAnnotationsOf(ClassInfo type, DiscoveredTypeInfo discovered) {
+			for (MethodInfo constructor : type.constructors()) {
+				addAllAnnotated(constructor.parameters(), discovered);
+			}
+		}
+	},
+	METHODS(AnnotationLocation.METHOD) {
+		@Override
+		void collectAnnotationsOf(ClassInfo type, DiscoveredTypeInfo discovered) {
+			for (MethodInfo method : type.methods()) {
+				if (isDeclaredBy(type, method.declaringClass())) {
+					addAnnotated(method, discovered);
+				}
+			}
+		}
+	},
+	METHOD_PARAMETERS(AnnotationLocation.METHOD_PARAMETER) {
+		@Override
+		void collectAnnotationsOf(ClassInfo type, DiscoveredTypeInfo discovered) {
+			for (MethodInfo method : type.methods()) {
+				if (isDeclaredBy(type, method.declaringClass())) {
+					addAllAnnotated(method.parameters(), discovered);
+				}
+			}
+		}
+	},
+
+	;
+
+	private static final int MAX_RECUSIVE_DEPTH = 1;
+	private static final List<String> IGNORED_ANNOTATIONS = asList(Target.class.getName(),
+			Retention.class.getName(), Stereotype.class.getName(), Documented.class.getName(),
+			Repeatable.class.getName());
+
+	private final AnnotationLocation location;
+
+	private LanguageModelCollectors(AnnotationLocation location) {
+		this.location = location;
+	}
+
+	/**
+	 * Adds the selected kind of annotations of the given type to the
+	 * {@link DiscoveredTypeInfo}.
+	 * 
+	 * @param type       - {@link ClassInfo}
+	 * @param discovered - {@link DiscoveredTypeInfo}
+	 */
+	abstract void collectAnnotationsOf(ClassInfo type, DiscoveredTypeInfo discovered);
+
+	/**
+	 * Adds all annotations of the given type of the given
+	 * {@link AnnotationLocation}s to the {@link DiscoveredTypeInfo}.
+	 * 
+	 * @param type       - {@link ClassInfo}
+	 * @param locations  - {@link Set} of {@link AnnotationLocation}s to collect
+	 * @param discovered - {@link DiscoveredTypeInfo}
+	 */
+	static void collectAllAnnotationsOf(ClassInfo type, Set<AnnotationLocation> locations,
+			DiscoveredTypeInfo discovered) {
+		for (LanguageModelCollectors collector : values()) {
+			if (locations.contains(collector.location)) {
+				collector.collectAnnotationsOf(type, discovered);
+			}
+		}
+	}
+
+	private static boolean isDeclaredBy(ClassInfo type, ClassInfo declaringClass) {
+		return type.name().equals(declaringClass.name());
+	}
+
+	void addAllAnnotated(Collection<? extends AnnotationTarget> annotated, DiscoveredTypeInfo discovered) {
+		for (AnnotationTarget annotationTarget : annotated) {
+			addAnnotated(annotationTarget, discovered);
+		}
+	}
+
+	void addAnnotated(AnnotationTarget annotated, DiscoveredTypeInfo discovered) {
+		addAnnotated(annotated, discovered, 0);
+	}
+
+	private void addAnnotated(AnnotationTarget annotated, DiscoveredTypeInfo discovered, int recursiveDepth) {
+		for (AnnotationInfo annotation : annotated.annotations()) {
+			if (IGNORED_ANNOTATIONS.contains(annotation.name())) {
+				continue;
+			}
+			discovered.add(annotation, location);
+			if (recursiveDepth < MAX_RECUSIVE_DEPTH) {
+				addAnnotated(annotation.declaration(), discovered, recursiveDepth + 1);
+			}
+			addRepeated(annotation, discovered, recursiveDepth);
+		}
+	}
+
+	/**
+	 * Adds the annotations of a container of {@link Repeatable} annotations as if
+	 * they were present directly.
+	 */
+	private void addRepeated(AnnotationInfo annotation, DiscoveredTypeInfo discovered, int recursiveDepth) {
+		List<AnnotationInfo> repeated = repeatedIn(annotation);
+		for (AnnotationInfo repeatedAnnotation : repeated) {
+			discovered.add(repeatedAnnotation, location);
+		}
+		if (!repeated.isEmpty() && recursiveDepth < MAX_RECUSIVE_DEPTH) {
+			addAnnotated(repeated.get(0).declaration(), discovered, recursiveDepth + 1);
+		}
+	}
+
+	/**
+	 * Gets the {@link Repeatable} annotations contained in the given annotation,
+	 * if it is their container. Otherwise, the result is empty.
+	 * 
+	 * @param annotation - {@link AnnotationInfo}
+	 * @return {@link List} of the contained {@link AnnotationInfo}s
+	 */
+	static List<AnnotationInfo> repeatedIn(AnnotationInfo annotation) {
+		if (!annotation.hasValue() || !annotation.value().isArray()) {
+			return Collections.emptyList();
+		}
+		List<AnnotationInfo> repeated = new ArrayList<>();
+		for (AnnotationMember element : annotation.value().asArray()) {
+			if (!element.isNestedAnnotation() || !element.asNestedAnnotation().isRepeatable()) {
+				return Collections.emptyList();
+			}
+			repeated.add(element.asNestedAnnotation());
+		}
+		return repeated;
+	}
+}
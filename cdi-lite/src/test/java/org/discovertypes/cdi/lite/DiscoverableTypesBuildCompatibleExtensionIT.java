@@ -0,0 +1,121 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.lite;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.discovertypes.cdi.AnnotationLocation;
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.lite.example.MetaAnnotatedMethodBean;
+import org.discovertypes.cdi.lite.example.MetaAnnotatedType;
+import org.discovertypes.cdi.lite.example.MetaMethodAnnotation;
+import org.discovertypes.cdi.lite.example.MetaTypeAnnotation;
+import org.discovertypes.cdi.lite.example.RepeatedAnnotatedMethodBean;
+import org.discovertypes.cdi.lite.example.RepeatedMethodAnnotation;
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.environment.se.WeldContainer;
+import org.junit.Test;
+
+/**
+ * "Unit-Integration-Test" using a embedded CDI Lite container to test the
+ * build time discovery of meta-annotated types.
+ * 
+ * @author Johannes Troppacher
+ */
+public class DiscoverableTypesBuildCompatibleExtensionIT {
+
+	@Test
+	public void discoveredTypesProvidedAsSyntheticBean() {
+		try (WeldContainer container = new Weld().initialize()) {
+			DiscoveredTypes discoveredTypes = container.select(DiscoveredTypes.class).get();
+			assertThat(typesOf(discoveredTypes.annotatedWith(MetaTypeAnnotation.class)),
+					hasItem(MetaAnnotatedType.class));
+			assertThat(typesOf(discoveredTypes.annotatedWith(MetaMethodAnnotation.class)),
+					hasItem(MetaAnnotatedMethodBean.class));
+		}
+	}
+
+	@Test
+	public void locationOfDiscoveredAnnotationCollectedAtBuildTime() {
+		try (WeldContainer container = new Weld().initialize()) {
+			DiscoveredTypes discoveredTypes = container.select(DiscoveredTypes.class).get();
+			DiscoveredType discovered = discoveredTypes.annotatedWith(MetaMethodAnnotation.class).iterator().next();
+			assertThat(discovered.getAnnotationLocation(MetaMethodAnnotation.class),
+					is(equalTo(AnnotationLocation.METHOD)));
+		}
+	}
+
+	@Test
+	public void repeatedAnnotationsUnwrappedAtBuildTime() {
+		try (WeldContainer container = new Weld().initialize()) {
+			DiscoveredTypes discoveredTypes = container.select(DiscoveredTypes.class).get();
+			Collection<DiscoveredType> repeated = discoveredTypes.annotatedWith(RepeatedMethodAnnotation.class);
+			assertThat(typesOf(repeated), hasItem(RepeatedAnnotatedMethodBean.class));
+			assertThat(repeated.iterator().next().getAnnotations(RepeatedMethodAnnotation.class).size(), is(2));
+		}
+	}
+
+	@Test
+	public void warnsAboutIgnoredTypesRegisteredAsBeans() {
+		List<String> warnings = new ArrayList<>();
+		Handler handler = new Handler() {
+			@Override
+			public void publish(LogRecord record) {
+				if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+					warnings.add(String.valueOf(record.getMessage()));
+				}
+			}
+
+			@Override
+			public void flush() {
+				// Nothing buffered
+			}
+
+			@Override
+			public void close() {
+				// Nothing to release
+			}
+		};
+		Logger logger = Logger.getLogger("");
+		logger.addHandler(handler);
+		try (WeldContainer container = new Weld().initialize()) {
+			assertThat(container.select(MetaAnnotatedType.class).isResolvable(), is(true));
+			String typeName = MetaAnnotatedType.class.getName();
+			assertThat(warnings.toString(), warnings.stream()
+					.anyMatch(warning -> warning.contains("ignoreBean") && warning.contains(typeName)), is(true));
+		} finally {
+			logger.removeHandler(handler);
+		}
+	}
+
+	private static List<Class<?>> typesOf(Collection<DiscoveredType> discoveredTypes) {
+		List<Class<?>> types = new ArrayList<>();
+		for (DiscoveredType discoveredType : discoveredTypes) {
+			types.add(discoveredType.getAnnotatedClass());
+		}
+		return types;
+	}
+}
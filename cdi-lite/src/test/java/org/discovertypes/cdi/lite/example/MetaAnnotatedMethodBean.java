@@ -0,0 +1,31 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.lite.example;
+
+import jakarta.enterprise.context.Dependent;
+
+@Dependent
+public class MetaAnnotatedMethodBean {
+
+	// private Methods with annotations are registered too.
+	@MetaMethodAnnotation
+	private void doSomething(String id) {
+		// Implementation empty
+	}
+
+	@Override
+	public String toString() {
+		return "MetaAnnotatedMethodBean []";
+	}
+}
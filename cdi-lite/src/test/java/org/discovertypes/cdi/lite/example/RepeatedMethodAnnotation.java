@@ -0,0 +1,43 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.lite.example;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.discovertypes.cdi.Discoverable;
+
+/**
+ * Example custom {@link Repeatable} annotation for methods, whose container
+ * {@link List} isn't marked as {@link Discoverable}.
+ * 
+ * @author Johannes Troppacher
+ */
+@Target({ ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(RepeatedMethodAnnotation.List.class)
+@Discoverable
+public @interface RepeatedMethodAnnotation {
+
+	String value();
+
+	@Target({ ElementType.METHOD })
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface List {
+		RepeatedMethodAnnotation[] value();
+	}
+}
@@ -17,6 +17,7 @@ import static java.util.Arrays.asList;
 
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Documented;
+import java.lang.annotation.Repeatable;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 import java.lang.reflect.AnnotatedElement;
@@ -25,9 +26,12 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import javax.enterprise.inject.Stereotype;
 
+import org.discovertypes.cdi.internal.CollectedLocations;
+
 /**
  * Strategies to collect {@link Annotation}s of a {@link Class}.
  * <p>
@@ -98,7 +102,7 @@ enum AnnotationCollectors {
 
 	private static final int MAX_RECUSIVE_DEPTH = 1;
 	private static final List<Class<? extends Annotation>> IGNORED_ANNOTATIONS = asList(
-			Target.class, Retention.class, Stereotype.class, Documented.class);
+			Target.class, Retention.class, Stereotype.class, Documented.class, Repeatable.class);
 
 	private final AnnotationLocation location;
 
@@ -134,13 +138,39 @@ enum AnnotationCollectors {
 	/**
 	 * Adds all annotations of the given type to the {@link Collection} of
 	 * {@link Annotation}.
+	 * <p>
+	 * Only the collectors of the {@link AnnotationLocation}s resolved by
+	 * {@link CollectedLocations#of(Class)} are used.
 	 * 
 	 * @param type       - {@link Class}
 	 * @param collection - {@link Collection} of {@link Annotation}.
 	 */
 	public static final void collectAllAnnotationsOf(Class<?> type, final Collection<DiscoveredAnnotation> collection) {
+		collectAllAnnotationsOf(type, collection, CollectorTimings.NONE);
+	}
+
+	/**
+	 * Adds all annotations of the given type to the {@link Collection} of
+	 * {@link Annotation} and adds the time spent by each collector to the given
+	 * {@link CollectorTimings}.
+	 * <p>
+	 * Only the collectors of the {@link AnnotationLocation}s resolved by
+	 * {@link CollectedLocations#of(Class)} are used.
+	 * 
+	 * @param type       - {@link Class}
+	 * @param collection - {@link Collection} of {@link Annotation}.
+	 * @param timings    - {@link CollectorTimings}
+	 */
+	public static final void collectAllAnnotationsOf(Class<?> type, final Collection<DiscoveredAnnotation> collection,
+			CollectorTimings timings) {
+		Set<AnnotationLocation> locations = CollectedLocations.of(type);
 		for (AnnotationCollectors collector : values()) {
+			if (!locations.contains(collector.getLocation())) {
+				continue;
+			}
+			long start = System.nanoTime();
 			collector.collectAnnotationsOf(type, collection);
+			timings.add(collector.getLocation(), System.nanoTime() - start);
 		}
 	}
 
@@ -168,6 +198,22 @@ enum AnnotationCollectors {
 			if (recursiveDepth < MAX_RECUSIVE_DEPTH) {
 				addAnnotatedElement(annotationType, annotations, recursiveDepth + 1);
 			}
+			addRepeatedAnnotations(annotation, annotations, recursiveDepth);
+		}
+	}
+
+	/**
+	 * Adds the annotations of a container of {@link Repeatable} annotations (e.g.
+	 * <code>@Handles.List</code>) as if they were present directly.
+	 */
+	private void addRepeatedAnnotations(Annotation annotation, final Collection<DiscoveredAnnotation> annotations,
+			int recursiveDepth) {
+		Annotation[] repeated = RepeatableContainers.repeatedIn(annotation);
+		for (Annotation repeatedAnnotation : repeated) {
+			annotations.add(new DiscoveredAnnotation(repeatedAnnotation, getLocation()));
+		}
+		if (repeated.length > 0 && recursiveDepth < MAX_RECUSIVE_DEPTH) {
+			addAnnotatedElement(repeated[0].annotationType(), annotations, recursiveDepth + 1);
 		}
 	}
 }
@@ -29,4 +29,46 @@ public enum AnnotationLocation {
 	METHOD_PARAMETER,
 
 	;
+
+	/**
+	 * Bitmask of all {@link AnnotationLocation}s, that fits into a byte.
+	 */
+	static final int ALL = (1 << values().length) - 1;
+
+	private static final AnnotationLocation[] LOCATIONS = values();
+
+	/**
+	 * Gets the bit of this {@link AnnotationLocation} within a bitmask of
+	 * locations.
+	 * 
+	 * @return bit
+	 */
+	int mask() {
+		return 1 << ordinal();
+	}
+
+	/**
+	 * Gets the bitmask of the given {@link AnnotationLocation}s.
+	 * 
+	 * @param locations - {@link AnnotationLocation}s
+	 * @return bitmask
+	 */
+	static int maskOf(Iterable<AnnotationLocation> locations) {
+		int mask = 0;
+		for (AnnotationLocation location : locations) {
+			mask |= location.mask();
+		}
+		return mask;
+	}
+
+	/**
+	 * Gets the {@link AnnotationLocation} of the lowest bit of the given (not
+	 * empty) bitmask, which is the most significant one.
+	 * 
+	 * @param mask - bitmask
+	 * @return {@link AnnotationLocation}
+	 */
+	static AnnotationLocation lowestOf(int mask) {
+		return LOCATIONS[Integer.numberOfTrailingZeros(mask)];
+	}
 }
@@ -0,0 +1,67 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import static java.util.Objects.requireNonNull;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+
+/**
+ * CDI event, that is fired once per discovered annotation type after
+ * {@link DiscoveredTypes} had been initialized during startup. It carries all
+ * {@link DiscoveredType}s, that are annotated with that annotation type.
+ * <p>
+ * The event is qualified with {@link DiscoveredWith}, so that it can be
+ * observed for a single annotation type using e.g.
+ * <code>void init(@Observes @DiscoveredWith(MyAnnotation.class) AnnotationTypeDiscovered event)</code>.
+ * Independent observers of different annotation types may be notified
+ * concurrently (see <code>DiscoverableTypesCdiExtension</code>). They are then
+ * notified on threads of the extension, that have no active request context.
+ * Such observers must not use <code>@RequestScoped</code> beans or other
+ * contexts bound to the startup thread.
+ * 
+ * @author Johannes Troppacher
+ */
+public class AnnotationTypeDiscovered {
+
+	private final Class<? extends Annotation> annotationType;
+	private final Collection<DiscoveredType> discoveredTypes;
+
+	public AnnotationTypeDiscovered(Class<? extends Annotation> annotationType,
+			Collection<DiscoveredType> discoveredTypes) {
+		this.annotationType = requireNonNull(annotationType, "annotationType");
+		this.discoveredTypes = requireNonNull(discoveredTypes, "discoveredTypes");
+	}
+
+	public Class<? extends Annotation> getAnnotationType() {
+		return annotationType;
+	}
+
+	/**
+	 * Gets the {@link DiscoveredType}s, that are annotated with
+	 * {@link #getAnnotationType()}.
+	 * 
+	 * @return {@link Collection} of {@link DiscoveredType}s
+	 */
+	public Collection<DiscoveredType> getDiscoveredTypes() {
+		return discoveredTypes;
+	}
+
+	@Override
+	public String toString() {
+		return "AnnotationTypeDiscovered [annotationType=" + annotationType + ", discoveredTypes=" + discoveredTypes
+				+ "]";
+	}
+}
@@ -0,0 +1,170 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+/**
+ * {@link InvocationHandler} of an {@link Annotation}, that had been rebuilt out
+ * of its annotation type and member values, e.g. after deserialization.
+ * <p>
+ * Implements {@link Annotation#equals(Object)}, {@link Annotation#hashCode()}
+ * as specified, so that rebuilt annotations are equal to the ones provided by
+ * reflection.
+ * 
+ * @author Johannes Troppacher
+ */
+final class AnnotationValues implements InvocationHandler, Serializable {
+
+	private static final long serialVersionUID = -4104406436591806591L;
+
+	private final Class<? extends Annotation> annotationType;
+	private final Map<String, Object> values;
+
+	private AnnotationValues(Class<? extends Annotation> annotationType, Map<String, Object> values) {
+		this.annotationType = annotationType;
+		this.values = values;
+	}
+
+	/**
+	 * Creates an {@link Annotation} of the given type with the given member values.
+	 * 
+	 * @param annotationType - {@link Class} of the {@link Annotation}
+	 * @param values         - member values by member name, including defaults
+	 * @return {@link Annotation}
+	 */
+	static Annotation annotationOf(Class<? extends Annotation> annotationType, Map<String, Object> values) {
+		return (Annotation) Proxy.newProxyInstance(annotationType.getClassLoader(), new Class<?>[] { annotationType },
+				new AnnotationValues(annotationType, new LinkedHashMap<>(values)));
+	}
+
+	/**
+	 * Gets the member values of the given {@link Annotation} by member name.
+	 * 
+	 * @param annotation - {@link Annotation}
+	 * @return {@link Map} of member values
+	 */
+	static Map<String, Object> valuesOf(Annotation annotation) {
+		Map<String, Object> values = new LinkedHashMap<>();
+		for (Method member : annotation.annotationType().getDeclaredMethods()) {
+			if (member.getParameterCount() == 0 && !member.isSynthetic()) {
+				values.put(member.getName(), memberValueOf(annotation, member));
+			}
+		}
+		return values;
+	}
+
+	private static Object memberValueOf(Annotation annotation, Method member) {
+		try {
+			member.setAccessible(true);
+			return member.invoke(annotation);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Member " + member.getName() + " of " + annotation + " not readable", e);
+		}
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) {
+		String name = method.getName();
+		if (args != null && args.length == 1 && "equals".equals(name)) {
+			return Boolean.valueOf(equalTo(args[0]));
+		}
+		if (args != null && args.length > 0) {
+			throw new UnsupportedOperationException(method.toString());
+		}
+		switch (name) {
+		case "annotationType":
+			return annotationType;
+		case "hashCode":
+			return Integer.valueOf(annotationHashCode());
+		case "toString":
+			return annotationToString();
+		default:
+			return cloneArray(values.get(name));
+		}
+	}
+
+	private boolean equalTo(Object other) {
+		if (!annotationType.isInstance(other)) {
+			return false;
+		}
+		Map<String, Object> otherValues = valuesOf((Annotation) other);
+		for (Entry<String, Object> value : values.entrySet()) {
+			if (!Objects.deepEquals(value.getValue(), otherValues.get(value.getKey()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int annotationHashCode() {
+		int hashCode = 0;
+		for (Entry<String, Object> value : values.entrySet()) {
+			hashCode += (127 * value.getKey().hashCode()) ^ valueHashCode(value.getValue());
+		}
+		return hashCode;
+	}
+
+	private static int valueHashCode(Object value) {
+		if (!value.getClass().isArray()) {
+			return value.hashCode();
+		}
+		// wraps the array, so that deepHashCode gets its content hash code and adds it to 31
+		return Arrays.deepHashCode(new Object[] { value }) - 31;
+	}
+
+	private String annotationToString() {
+		StringBuilder builder = new StringBuilder("@").append(annotationType.getName()).append('(');
+		String separator = "";
+		for (Entry<String, Object> value : values.entrySet()) {
+			builder.append(separator).append(value.getKey()).append('=').append(valueToString(value.getValue()));
+			separator = ", ";
+		}
+		return builder.append(')').toString();
+	}
+
+	private static String valueToString(Object value) {
+		if (!value.getClass().isArray()) {
+			return String.valueOf(value);
+		}
+		String wrapped = Arrays.deepToString(new Object[] { value });
+		return wrapped.substring(1, wrapped.length() - 1);
+	}
+
+	private static Object cloneArray(Object value) {
+		if (value == null || !value.getClass().isArray() || Array.getLength(value) == 0) {
+			return value;
+		}
+		int length = Array.getLength(value);
+		Object clone = Array.newInstance(value.getClass().getComponentType(), length);
+		System.arraycopy(value, 0, clone, 0, length);
+		return clone;
+	}
+
+	@Override
+	public String toString() {
+		return "AnnotationValues [annotationType=" + annotationType + ", values=" + values + "]";
+	}
+}
@@ -0,0 +1,76 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+/**
+ * Contains the time spent to collect the annotations of each
+ * {@link AnnotationLocation} during the creation of {@link DiscoveredType}s.
+ * <p>
+ * Use {@link DiscoveredType#of(Class, CollectorTimings)} to measure the
+ * collection. The timings of more than one {@link DiscoveredType} are summed
+ * up, if the same {@link CollectorTimings} are used. Not thread-safe.
+ * 
+ * @author Johannes Troppacher
+ */
+public final class CollectorTimings {
+
+	/**
+	 * {@link CollectorTimings}, that ignore the added times.
+	 */
+	static final CollectorTimings NONE = new CollectorTimings();
+
+	private final long[] nanosPerLocation = new long[AnnotationLocation.values().length];
+
+	/**
+	 * Gets the time spent to collect the annotations of the given
+	 * {@link AnnotationLocation}.
+	 * 
+	 * @param location - {@link AnnotationLocation}
+	 * @return duration in nanoseconds
+	 */
+	public long nanosOf(AnnotationLocation location) {
+		return nanosPerLocation[location.ordinal()];
+	}
+
+	/**
+	 * Gets the time spent to collect the annotations of all
+	 * {@link AnnotationLocation}s.
+	 * 
+	 * @return duration in nanoseconds
+	 */
+	public long totalNanos() {
+		long total = 0;
+		for (long nanos : nanosPerLocation) {
+			total += nanos;
+		}
+		return total;
+	}
+
+	void add(AnnotationLocation location, long nanos) {
+		if (this != NONE) {
+			nanosPerLocation[location.ordinal()] += nanos;
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder timings = new StringBuilder("CollectorTimings [");
+		for (AnnotationLocation location : AnnotationLocation.values()) {
+			if (nanosOf(location) > 0) {
+				timings.append(location).append("=").append(nanosOf(location)).append("ns, ");
+			}
+		}
+		return timings.append("total=").append(totalNanos()).append("ns]").toString();
+	}
+}
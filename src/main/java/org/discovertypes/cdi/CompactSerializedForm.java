@@ -0,0 +1,449 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Compact serialized form of {@link DiscoveredTypes}, {@link DiscoveredType}
+ * and {@link DiscoveredAnnotation}, that replaces them on serialization.
+ * <p>
+ * All class names, member names, enum constants and strings are written once
+ * into a shared string table and referenced by their index. Equal annotations
+ * are written once into a shared annotation table, that is referenced by all
+ * {@link DiscoveredType}s using them. On deserialization annotations are
+ * rebuilt as proxies of their annotation type (see {@link AnnotationValues}).
+ * <p>
+ * Classes are resolved using the context class loader of the current thread,
+ * falling back to the class loader of this library.
+ * 
+ * @author Johannes Troppacher
+ */
+final class CompactSerializedForm implements Externalizable {
+
+	private static final long serialVersionUID = 1L;
+	private static final byte VERSION = 2;
+
+	private static final byte DISCOVERED_TYPES = 1;
+	private static final byte DISCOVERED_TYPE = 2;
+	private static final byte DISCOVERED_ANNOTATION = 3;
+
+	private static final AnnotationLocation[] LOCATIONS = AnnotationLocation.values();
+	private static final Map<String, Class<?>> PRIMITIVE_TYPES = primitiveTypes();
+
+	private byte kind;
+	private boolean discovered;
+	private List<DiscoveredType> types;
+	private DiscoveredAnnotation annotation;
+
+	/**
+	 * Only used by deserialization.
+	 */
+	public CompactSerializedForm() {
+		super();
+	}
+
+	/**
+	 * Tells, if instances are replaced by their compact serialized form, which
+	 * applies unless {@link DiscoveredTypes#COMPACT_SERIALIZATION_PROPERTY} is
+	 * "false".
+	 */
+	static boolean isEnabled() {
+		return Boolean.parseBoolean(System.getProperty(DiscoveredTypes.COMPACT_SERIALIZATION_PROPERTY, "true"));
+	}
+
+	static CompactSerializedForm of(DiscoveredTypes discoveredTypes, boolean discovered) {
+		CompactSerializedForm form = new CompactSerializedForm();
+		form.kind = DISCOVERED_TYPES;
+		form.discovered = discovered;
+		form.types = new ArrayList<>();
+		for (DiscoveredType type : discoveredTypes) {
+			form.types.add(type);
+		}
+		return form;
+	}
+
+	static CompactSerializedForm of(DiscoveredType discoveredType) {
+		CompactSerializedForm form = new CompactSerializedForm();
+		form.kind = DISCOVERED_TYPE;
+		form.types = Collections.singletonList(discoveredType);
+		return form;
+	}
+
+	static CompactSerializedForm of(DiscoveredAnnotation discoveredAnnotation) {
+		CompactSerializedForm form = new CompactSerializedForm();
+		form.kind = DISCOVERED_ANNOTATION;
+		form.types = Collections.emptyList();
+		form.annotation = discoveredAnnotation;
+		return form;
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		Writer writer = new Writer();
+		List<DiscoveredAnnotation> annotations = (annotation != null) ? Collections.singletonList(annotation)
+				: allAnnotationsOf(types);
+		for (DiscoveredAnnotation discoveredAnnotation : annotations) {
+			writer.annotationIndexOf(discoveredAnnotation.getAnnotation());
+		}
+		for (DiscoveredType type : types) {
+			writer.stringIndexOf(type.getAnnotatedClass().getName());
+		}
+		out.writeByte(VERSION);
+		out.writeByte(kind);
+		out.writeBoolean(discovered);
+		writer.writeStrings(out);
+		writer.writeAnnotations(out);
+		out.writeInt(types.size());
+		for (DiscoveredType type : types) {
+			out.writeInt(writer.stringIndexOf(type.getAnnotatedClass().getName()));
+			out.writeInt(type.getAnnotations().size());
+			for (DiscoveredAnnotation discoveredAnnotation : type.getAnnotations()) {
+				writer.writeDiscoveredAnnotation(out, discoveredAnnotation);
+			}
+		}
+		if (annotation != null) {
+			writer.writeDiscoveredAnnotation(out, annotation);
+		}
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		byte version = in.readByte();
+		if (version != VERSION) {
+			throw new InvalidObjectException("Unsupported version " + version);
+		}
+		kind = in.readByte();
+		discovered = in.readBoolean();
+		Reader reader = new Reader(in);
+		int typeCount = in.readInt();
+		types = new ArrayList<>(typeCount);
+		for (int i = 0; i < typeCount; i++) {
+			Class<?> annotatedClass = reader.readClass();
+			int annotationCount = in.readInt();
+			List<DiscoveredAnnotation> annotations = new ArrayList<>(annotationCount);
+			for (int a = 0; a < annotationCount; a++) {
+				annotations.add(reader.readDiscoveredAnnotation());
+			}
+			types.add(DiscoveredType.ofCollected(annotatedClass, annotations));
+		}
+		if (kind == DISCOVERED_ANNOTATION) {
+			annotation = reader.readDiscoveredAnnotation();
+		}
+	}
+
+	private Object readResolve() throws ObjectStreamException {
+		switch (kind) {
+		case DISCOVERED_TYPES:
+			DiscoveredTypes discoveredTypes = new DiscoveredTypes();
+			if (discovered) {
+				discoveredTypes.initializeWith(types);
+			}
+			return discoveredTypes;
+		case DISCOVERED_TYPE:
+			return types.get(0);
+		case DISCOVERED_ANNOTATION:
+			return annotation;
+		default:
+			throw new InvalidObjectException("Unsupported kind " + kind);
+		}
+	}
+
+	private static List<DiscoveredAnnotation> allAnnotationsOf(List<DiscoveredType> types) {
+		List<DiscoveredAnnotation> annotations = new ArrayList<>();
+		for (DiscoveredType type : types) {
+			annotations.addAll(type.getAnnotations());
+		}
+		return annotations;
+	}
+
+	private static Map<String, Class<?>> primitiveTypes() {
+		Map<String, Class<?>> types = new HashMap<>();
+		for (Class<?> type : new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class,
+				long.class, float.class, double.class, void.class }) {
+			types.put(type.getName(), type);
+		}
+		return types;
+	}
+
+	/**
+	 * Collects the string and annotation tables and writes them.
+	 */
+	private static final class Writer {
+
+		private final Map<String, Integer> strings = new LinkedHashMap<>();
+		private final Map<Annotation, Integer> annotations = new LinkedHashMap<>();
+		private final Map<Annotation, Map<String, Object>> annotationValues = new HashMap<>();
+
+		int stringIndexOf(String value) {
+			Integer index = strings.get(value);
+			if (index == null) {
+				index = Integer.valueOf(strings.size());
+				strings.put(value, index);
+			}
+			return index.intValue();
+		}
+
+		int annotationIndexOf(Annotation annotation) {
+			Integer index = annotations.get(annotation);
+			if (index == null) {
+				collectStrings(annotation);
+				index = Integer.valueOf(annotations.size());
+				annotations.put(annotation, index);
+			}
+			return index.intValue();
+		}
+
+		void writeStrings(ObjectOutput out) throws IOException {
+			out.writeInt(strings.size());
+			for (String value : strings.keySet()) {
+				// not writeUTF, that is limited to 65535 encoded bytes
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+		}
+
+		void writeAnnotations(ObjectOutput out) throws IOException {
+			out.writeInt(annotations.size());
+			for (Annotation annotation : annotations.keySet()) {
+				writeAnnotation(out, annotation);
+			}
+		}
+
+		void writeDiscoveredAnnotation(ObjectOutput out, DiscoveredAnnotation discoveredAnnotation) throws IOException {
+			out.writeInt(annotationIndexOf(discoveredAnnotation.getAnnotation()));
+			out.writeByte(discoveredAnnotation.getLocation().ordinal());
+		}
+
+		private Map<String, Object> valuesOf(Annotation annotation) {
+			return annotationValues.computeIfAbsent(annotation, AnnotationValues::valuesOf);
+		}
+
+		private void collectStrings(Annotation annotation) {
+			stringIndexOf(annotation.annotationType().getName());
+			for (Entry<String, Object> value : valuesOf(annotation).entrySet()) {
+				stringIndexOf(value.getKey());
+				collectStringsOfValue(value.getValue());
+			}
+		}
+
+		private void collectStringsOfValue(Object value) {
+			if (value instanceof String) {
+				stringIndexOf((String) value);
+			} else if (value instanceof Class) {
+				stringIndexOf(((Class<?>) value).getName());
+			} else if (value instanceof Enum) {
+				stringIndexOf(((Enum<?>) value).getDeclaringClass().getName());
+				stringIndexOf(((Enum<?>) value).name());
+			} else if (value instanceof Annotation) {
+				collectStrings((Annotation) value);
+			} else if (value.getClass().isArray()) {
+				stringIndexOf(value.getClass().getComponentType().getName());
+				for (int i = 0; i < Array.getLength(value); i++) {
+					collectStringsOfValue(Array.get(value, i));
+				}
+			}
+		}
+
+		private void writeAnnotation(ObjectOutput out, Annotation annotation) throws IOException {
+			Map<String, Object> values = valuesOf(annotation);
+			out.writeInt(stringIndexOf(annotation.annotationType().getName()));
+			out.writeShort(values.size());
+			for (Entry<String, Object> value : values.entrySet()) {
+				out.writeInt(stringIndexOf(value.getKey()));
+				writeValue(out, value.getValue());
+			}
+		}
+
+		private void writeValue(ObjectOutput out, Object value) throws IOException {
+			if (value instanceof String) {
+				out.writeByte('s');
+				out.writeInt(stringIndexOf((String) value));
+			} else if (value instanceof Class) {
+				out.writeByte('c');
+				out.writeInt(stringIndexOf(((Class<?>) value).getName()));
+			} else if (value instanceof Enum) {
+				out.writeByte('e');
+				out.writeInt(stringIndexOf(((Enum<?>) value).getDeclaringClass().getName()));
+				out.writeInt(stringIndexOf(((Enum<?>) value).name()));
+			} else if (value instanceof Annotation) {
+				out.writeByte('@');
+				writeAnnotation(out, (Annotation) value);
+			} else if (value.getClass().isArray()) {
+				out.writeByte('[');
+				out.writeInt(stringIndexOf(value.getClass().getComponentType().getName()));
+				out.writeInt(Array.getLength(value));
+				for (int i = 0; i < Array.getLength(value); i++) {
+					writeValue(out, Array.get(value, i));
+				}
+			} else {
+				writePrimitive(out, value);
+			}
+		}
+
+		private static void writePrimitive(ObjectOutput out, Object value) throws IOException {
+			if (value instanceof Boolean) {
+				out.writeByte('Z');
+				out.writeBoolean(((Boolean) value).booleanValue());
+			} else if (value instanceof Byte) {
+				out.writeByte('B');
+				out.writeByte(((Byte) value).byteValue());
+			} else if (value instanceof Character) {
+				out.writeByte('C');
+				out.writeChar(((Character) value).charValue());
+			} else if (value instanceof Short) {
+				out.writeByte('S');
+				out.writeShort(((Short) value).shortValue());
+			} else if (value instanceof Integer) {
+				out.writeByte('I');
+				out.writeInt(((Integer) value).intValue());
+			} else if (value instanceof Long) {
+				out.writeByte('J');
+				out.writeLong(((Long) value).longValue());
+			} else if (value instanceof Float) {
+				out.writeByte('F');
+				out.writeFloat(((Float) value).floatValue());
+			} else if (value instanceof Double) {
+				out.writeByte('D');
+				out.writeDouble(((Double) value).doubleValue());
+			} else {
+				throw new IllegalArgumentException("Unsupported annotation member value " + value);
+			}
+		}
+	}
+
+	/**
+	 * Reads the string and annotation tables and resolves their references.
+	 */
+	private static final class Reader {
+
+		private final ObjectInput in;
+		private final String[] strings;
+		private final Map<String, Class<?>> classes = new HashMap<>();
+		private final Annotation[] annotations;
+
+		Reader(ObjectInput in) throws IOException, ClassNotFoundException {
+			this.in = in;
+			this.strings = new String[in.readInt()];
+			for (int i = 0; i < strings.length; i++) {
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+			this.annotations = new Annotation[in.readInt()];
+			for (int i = 0; i < annotations.length; i++) {
+				annotations[i] = readAnnotation();
+			}
+		}
+
+		Class<?> readClass() throws IOException, ClassNotFoundException {
+			String name = strings[in.readInt()];
+			Class<?> type = classes.get(name);
+			if (type == null) {
+				type = classOf(name);
+				classes.put(name, type);
+			}
+			return type;
+		}
+
+		DiscoveredAnnotation readDiscoveredAnnotation() throws IOException {
+			Annotation discoveredAnnotation = annotations[in.readInt()];
+			return new DiscoveredAnnotation(discoveredAnnotation, LOCATIONS[in.readUnsignedByte()]);
+		}
+
+		private Annotation readAnnotation() throws IOException, ClassNotFoundException {
+			Class<? extends Annotation> annotationType = readClass().asSubclass(Annotation.class);
+			int memberCount = in.readShort();
+			Map<String, Object> values = new LinkedHashMap<>();
+			for (int i = 0; i < memberCount; i++) {
+				String name = strings[in.readInt()];
+				values.put(name, readValue());
+			}
+			return AnnotationValues.annotationOf(annotationType, values);
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private Object readValue() throws IOException, ClassNotFoundException {
+			byte tag = in.readByte();
+			switch (tag) {
+			case 's':
+				return strings[in.readInt()];
+			case 'c':
+				return readClass();
+			case 'e':
+				Class enumType = readClass();
+				return Enum.valueOf(enumType, strings[in.readInt()]);
+			case '@':
+				return readAnnotation();
+			case '[':
+				Class<?> componentType = readClass();
+				Object array = Array.newInstance(componentType, in.readInt());
+				for (int i = 0; i < Array.getLength(array); i++) {
+					Array.set(array, i, readValue());
+				}
+				return array;
+			case 'Z':
+				return Boolean.valueOf(in.readBoolean());
+			case 'B':
+				return Byte.valueOf(in.readByte());
+			case 'C':
+				return Character.valueOf(in.readChar());
+			case 'S':
+				return Short.valueOf(in.readShort());
+			case 'I':
+				return Integer.valueOf(in.readInt());
+			case 'J':
+				return Long.valueOf(in.readLong());
+			case 'F':
+				return Float.valueOf(in.readFloat());
+			case 'D':
+				return Double.valueOf(in.readDouble());
+			default:
+				throw new InvalidObjectException("Unsupported annotation member value tag " + tag);
+			}
+		}
+
+		private static Class<?> classOf(String name) throws ClassNotFoundException {
+			Class<?> primitiveType = PRIMITIVE_TYPES.get(name);
+			if (primitiveType != null) {
+				return primitiveType;
+			}
+			ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+			if (contextClassLoader != null) {
+				try {
+					return Class.forName(name, false, contextClassLoader);
+				} catch (ClassNotFoundException e) {
+					// falls back to the class loader of this library
+				}
+			}
+			return Class.forName(name, false, CompactSerializedForm.class.getClassLoader());
+		}
+	}
+}
@@ -0,0 +1,115 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link DiscoveryQuery}, that had been compiled against {@link DiscoveredTypes}
+ * using {@link DiscoveredTypes#compile(DiscoveryQuery)}.
+ * <p>
+ * Since the discovered types don't change after startup, the results are
+ * resolved once during compilation. Getting them again doesn't allocate,
+ * hash or filter anything.
+ * 
+ * @author Johannes Troppacher
+ */
+public final class CompiledDiscoveryQuery implements Iterable<DiscoveredType> {
+
+	private final DiscoveryQuery query;
+	private final DiscoveredType[] results;
+	private final List<DiscoveredType> resultList;
+
+	CompiledDiscoveryQuery(DiscoveryQuery query, List<DiscoveredType> results) {
+		this.query = query;
+		this.results = results.toArray(new DiscoveredType[results.size()]);
+		this.resultList = Collections.unmodifiableList(results);
+	}
+
+	/**
+	 * Gets all {@link DiscoveredType}s, that fulfill the query.
+	 * 
+	 * @return unmodifiable {@link List} of {@link DiscoveredType}s
+	 */
+	public List<DiscoveredType> getResults() {
+		return resultList;
+	}
+
+	/**
+	 * Gets the number of {@link DiscoveredType}s, that fulfill the query.
+	 * 
+	 * @return number of results
+	 */
+	public int size() {
+		return results.length;
+	}
+
+	/**
+	 * Gets the {@link DiscoveredType} at the given index, e.g. to iterate the
+	 * results without an {@link Iterator}.
+	 * 
+	 * @param index - index between 0 (inclusive) and {@link #size()} (exclusive)
+	 * @return {@link DiscoveredType}
+	 */
+	public DiscoveredType get(int index) {
+		return results[index];
+	}
+
+	/**
+	 * Gets the compiled {@link DiscoveryQuery}.
+	 * 
+	 * @return {@link DiscoveryQuery}
+	 */
+	public DiscoveryQuery getQuery() {
+		return query;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<DiscoveredType> iterator() {
+		return resultList.iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Spliterator<DiscoveredType> spliterator() {
+		return Spliterators.spliterator(results,
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+	}
+
+	/**
+	 * Creates a {@link Stream} of all {@link DiscoveredType}s, that fulfill the
+	 * query.
+	 * 
+	 * @return {@link Stream} of {@link DiscoveredType}s
+	 */
+	public Stream<DiscoveredType> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	@Override
+	public String toString() {
+		return "CompiledDiscoveryQuery [query=" + query + ", results=" + results.length + "]";
+	}
+}
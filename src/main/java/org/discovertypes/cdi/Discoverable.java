@@ -47,8 +47,27 @@ public @interface Discoverable {
 	 * If the annotations is not meant to mark a cdi-bean, {@link #ignoreBean()}
 	 * should be set to <code>false</code>. Default is <code>true</code>, so
 	 * {@link Discoverable}-Beans get registered.
+	 * <p>
+	 * Only applies to {@link Discoverable} annotations of the type itself
+	 * (directly or as meta-annotation), so that the CDI extension can decide
+	 * about the veto without collecting all annotations.
 	 * 
 	 * @return <code>true</code> if the bean should not be registered.
 	 */
 	boolean ignoreBean() default false;
+
+	/**
+	 * Restricts the {@link AnnotationLocation}s, whose annotations are collected
+	 * for the annotated type, e.g. to skip the reflection of parameters, if only
+	 * method annotations are of interest. {@link AnnotationLocation#TYPE} is always
+	 * collected.
+	 * <p>
+	 * Default is empty, which collects the locations configured by the system
+	 * property {@value DiscoveredType#COLLECTED_LOCATIONS_PROPERTY} (all, if not
+	 * set). Only applies to {@link Discoverable} annotations of the type itself
+	 * (directly or as meta-annotation).
+	 * 
+	 * @return {@link AnnotationLocation}s to collect
+	 */
+	AnnotationLocation[] locations() default {};
 }
@@ -16,6 +16,7 @@ package org.discovertypes.cdi;
 import static java.util.Objects.requireNonNull;
 
 import java.beans.ConstructorProperties;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.util.Objects;
@@ -68,6 +69,16 @@ public class DiscoveredAnnotation implements Serializable {
 		return Objects.hash(annotation, location);
 	}
 
+	/**
+	 * Replaces this instance by its {@link CompactSerializedForm} on
+	 * serialization. Subclasses keep the default serialization, as well as all
+	 * instances, if {@link DiscoveredTypes#COMPACT_SERIALIZATION_PROPERTY} is
+	 * "false".
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return CompactSerializedForm.isEnabled() ? CompactSerializedForm.of(this) : this;
+	}
+
 	@Override
 	public String toString() {
 		return "DiscoveredAnnotation [annotation=" + annotation + ", location=" + location + "]";
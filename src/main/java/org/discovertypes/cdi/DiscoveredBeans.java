@@ -0,0 +1,183 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import static java.util.Objects.requireNonNull;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.Typed;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.util.AnnotationLiteral;
+import javax.inject.Inject;
+
+/**
+ * Companion of {@link DiscoveredTypes}, that provides the {@link Bean}s and
+ * contextual references of the discovered types by annotation type.
+ * <p>
+ * The {@link Bean} of every discovered type, that is not ignored (see
+ * {@link Discoverable#ignoreBean()}), is resolved once on first use. The
+ * results are cached per annotation type, so that repeated lookups don't go
+ * through the {@link BeanManager} or {@link Instance} again.
+ * <p>
+ * Contextual references are only provided for normal scoped beans (e.g.
+ * <code>@ApplicationScoped</code>), since their client proxies can be shared.
+ * Instances of other (e.g. <code>@Dependent</code>) beans can be created using
+ * the {@link Bean}s of {@link #beansAnnotatedWith(Class)}.
+ * <p>
+ * This bean can be injected using: <code>@Inject DiscoveredBeans
+ * discoveredBeans;</code>
+ * 
+ * @author Johannes Troppacher
+ */
+@ApplicationScoped
+@Typed({ DiscoveredBeans.class })
+public class DiscoveredBeans {
+
+	@SuppressWarnings("serial")
+	private static final Annotation ANY = new AnnotationLiteral<Any>() {
+	};
+
+	private final BeanManager beanManager;
+	private final DiscoveredTypes discoveredTypes;
+
+	private final ConcurrentMap<Class<? extends Annotation>, Collection<Bean<?>>> beansByAnnotation =
+			new ConcurrentHashMap<>();
+	private final ConcurrentMap<Class<? extends Annotation>, Collection<Object>> referencesByAnnotation =
+			new ConcurrentHashMap<>();
+	private volatile Map<Class<?>, Bean<?>> beansByType;
+
+	/**
+	 * Needed for the client proxy of the container.
+	 */
+	protected DiscoveredBeans() {
+		this.beanManager = null;
+		this.discoveredTypes = null;
+	}
+
+	@Inject
+	public DiscoveredBeans(BeanManager beanManager, DiscoveredTypes discoveredTypes) {
+		this.beanManager = requireNonNull(beanManager, "beanManager");
+		this.discoveredTypes = requireNonNull(discoveredTypes, "discoveredTypes");
+	}
+
+	/**
+	 * Gets the {@link Bean}s of the discovered types, that are annotated with the
+	 * given annotation type.
+	 * 
+	 * @param annotationType - {@link Class} of the {@link Annotation}
+	 * @return unmodifiable {@link Collection} of {@link Bean}s
+	 */
+	public Collection<Bean<?>> beansAnnotatedWith(Class<? extends Annotation> annotationType) {
+		Collection<Bean<?>> beans = beansByAnnotation.get(annotationType);
+		if (beans == null) {
+			beans = beansByAnnotation.computeIfAbsent(annotationType, this::resolveBeansAnnotatedWith);
+		}
+		return beans;
+	}
+
+	/**
+	 * Gets the contextual references of the normal scoped beans of the discovered
+	 * types, that are annotated with the given annotation type.
+	 * 
+	 * @param annotationType - {@link Class} of the {@link Annotation}
+	 * @return unmodifiable {@link Collection} of contextual references
+	 */
+	public Collection<Object> referencesAnnotatedWith(Class<? extends Annotation> annotationType) {
+		Collection<Object> references = referencesByAnnotation.get(annotationType);
+		if (references == null) {
+			references = referencesByAnnotation.computeIfAbsent(annotationType, this::createReferencesAnnotatedWith);
+		}
+		return references;
+	}
+
+	private Collection<Bean<?>> resolveBeansAnnotatedWith(Class<? extends Annotation> annotationType) {
+		Map<Class<?>, Bean<?>> beans = beansByType();
+		List<Bean<?>> annotatedBeans = new ArrayList<>();
+		for (DiscoveredType discoveredType : discoveredTypes.annotatedWith(annotationType)) {
+			Bean<?> bean = beans.get(discoveredType.getAnnotatedClass());
+			if (bean != null) {
+				annotatedBeans.add(bean);
+			}
+		}
+		return Collections.unmodifiableList(Arrays.asList(annotatedBeans.toArray(new Bean<?>[annotatedBeans.size()])));
+	}
+
+	private Collection<Object> createReferencesAnnotatedWith(Class<? extends Annotation> annotationType) {
+		List<Object> references = new ArrayList<>();
+		for (Bean<?> bean : beansAnnotatedWith(annotationType)) {
+			if (beanManager.isNormalScope(bean.getScope())) {
+				references.add(referenceOf(bean));
+			}
+		}
+		return Collections.unmodifiableList(Arrays.asList(references.toArray()));
+	}
+
+	private Object referenceOf(Bean<?> bean) {
+		CreationalContext<?> creationalContext = beanManager.createCreationalContext(bean);
+		Class<?> type = bean.getTypes().contains(bean.getBeanClass()) ? bean.getBeanClass() : Object.class;
+		return beanManager.getReference(bean, type, creationalContext);
+	}
+
+	private Map<Class<?>, Bean<?>> beansByType() {
+		Map<Class<?>, Bean<?>> beans = beansByType;
+		if (beans == null) {
+			synchronized (this) {
+				beans = beansByType;
+				if (beans == null) {
+					beans = resolveBeansByType();
+					beansByType = beans;
+				}
+			}
+		}
+		return beans;
+	}
+
+	private Map<Class<?>, Bean<?>> resolveBeansByType() {
+		Map<Class<?>, Bean<?>> beans = new HashMap<>();
+		for (DiscoveredType discoveredType : discoveredTypes) {
+			if (discoveredType.isIgnoredBean()) {
+				continue;
+			}
+			Class<?> type = discoveredType.getAnnotatedClass();
+			for (Bean<?> bean : beanManager.getBeans(type, ANY)) {
+				if (bean.getBeanClass().equals(type)) {
+					beans.put(type, bean);
+					break;
+				}
+			}
+		}
+		return beans;
+	}
+
+	@Override
+	public String toString() {
+		return "DiscoveredBeans [beansByAnnotation=" + beansByAnnotation.keySet() + ", referencesByAnnotation="
+				+ referencesByAnnotation.keySet() + "]";
+	}
+}
@@ -14,14 +14,24 @@
 package org.discovertypes.cdi;
 
 import static java.util.Arrays.asList;
+import static java.util.Objects.requireNonNull;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 
@@ -42,11 +52,60 @@ import javax.inject.Qualifier;
 @Discoverable(ignoreBean = true)
 public class DiscoveredType implements Serializable {
 
+	/**
+	 * System property, that restricts the {@link AnnotationLocation}s, whose
+	 * annotations are collected (comma separated, e.g.
+	 * <code>TYPE,METHOD</code>). All locations are collected if not set.
+	 * 
+	 * @see Discoverable#locations()
+	 */
+	public static final String COLLECTED_LOCATIONS_PROPERTY = "org.discovertypes.cdi.collectedLocations";
+
 	private static final long serialVersionUID = 200834838543847822L;
+	private static final Annotation[] NO_QUALIFIERS = new Annotation[0];
+	private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+	private static final byte[] NO_LOCATIONS = new byte[0];
+	private static final int[] NO_HASHES = new int[0];
+	/**
+	 * Names of the <code>Priority</code> annotations, which are read by name,
+	 * since neither of them is a dependency.
+	 */
+	private static final Set<String> PRIORITY_ANNOTATIONS = new HashSet<>(
+			asList("javax.annotation.Priority", "jakarta.annotation.Priority"));
+
+	/**
+	 * Priority of types, that are not annotated with <code>Priority</code>, so
+	 * that they are ordered after all others.
+	 */
+	static final int NO_PRIORITY = Integer.MAX_VALUE;
+
+	/**
+	 * Orders {@link DiscoveredType}s by their ascending {@link #getPriority()} and
+	 * then by the name of their class.
+	 */
+	static final Comparator<DiscoveredType> ORDER = Comparator.comparingInt((DiscoveredType type) -> type.priority)
+			.thenComparing(type -> type.annotatedClass.getName());
 
 	private final Class<?> annotatedClass;
-	private final Collection<Annotation> qualifiers = new ArrayList<>();
-	private final Map<Class<? extends Annotation>, DiscoveredAnnotation> annotationTypes = new HashMap<>();
+	private final Annotation[] qualifiers;
+	private final int priority;
+	/**
+	 * Distinct annotations sorted by the identity hash code of their annotation
+	 * type, which is kept in {@link #annotationTypeHashes} at the same index, and
+	 * then by their most significant {@link AnnotationLocation}. The annotations
+	 * of one annotation type are therefore grouped together. Every occurrence of
+	 * an equal annotation is represented by a bit of the bitmask (see
+	 * {@link AnnotationLocation#mask()}) in {@link #locationMasks} at the same
+	 * index.
+	 */
+	private Annotation[] annotations = NO_ANNOTATIONS;
+	private byte[] locationMasks = NO_LOCATIONS;
+	private transient int[] annotationTypeHashes = NO_HASHES;
+	/**
+	 * Bitmask of all {@link AnnotationLocation}s of the {@link #annotations}.
+	 */
+	private transient int locationMask;
+	private transient int annotationTypeCount;
 
 	/**
 	 * Creates a new {@link DiscoveredType} of the given {@link Class}.
@@ -58,6 +117,30 @@ public class DiscoveredType implements Serializable {
 		return new DiscoveredType(annotatedType);
 	}
 
+	/**
+	 * Creates a new {@link DiscoveredType} of the given {@link Class} and adds the
+	 * time spent to collect its annotations to the given {@link CollectorTimings}.
+	 * 
+	 * @param annotatedType - {@link Class}
+	 * @param timings       - {@link CollectorTimings}
+	 * @return {@link DiscoveredType}
+	 */
+	public static <T> DiscoveredType of(Class<T> annotatedType, CollectorTimings timings) {
+		return new DiscoveredType(annotatedType, requireNonNull(timings, "timings"));
+	}
+
+	/**
+	 * Creates a new {@link DiscoveredType} of the given {@link Class} with
+	 * annotations, that had already been collected, e.g. at build time.
+	 * 
+	 * @param annotatedType - {@link Class}
+	 * @param annotations   - {@link Collection} of {@link DiscoveredAnnotation}s
+	 * @return {@link DiscoveredType}
+	 */
+	public static <T> DiscoveredType ofCollected(Class<T> annotatedType, Collection<DiscoveredAnnotation> annotations) {
+		return new DiscoveredType(annotatedType, requireNonNull(annotations, "annotations"));
+	}
+
 	/**
 	 * Creates a new {@link DiscoveredType} of the given {@link AnnotatedType}.
 	 * 
@@ -85,18 +168,173 @@ public class DiscoveredType implements Serializable {
 	}
 
 	protected DiscoveredType(Class<?> javaClass) {
+		this(javaClass, AnnotationCollectors.allAnnotationsOf(javaClass));
+	}
+
+	private DiscoveredType(Class<?> javaClass, CollectorTimings timings) {
+		this(javaClass, allAnnotationsOf(javaClass, timings));
+	}
+
+	private DiscoveredType(Class<?> javaClass, Collection<DiscoveredAnnotation> annotations) {
+		Annotation[] typeAnnotations = javaClass.getAnnotations();
 		this.annotatedClass = javaClass;
-		getAllQualifiers(this.qualifiers, asList(javaClass.getAnnotations()));
-		for (DiscoveredAnnotation annotation : AnnotationCollectors.allAnnotationsOf(javaClass)) {
-			withAdditionalAnnotation(annotation);
-		}
+		this.qualifiers = qualifiersOf(asList(typeAnnotations));
+		this.priority = priorityOf(typeAnnotations);
+		putAll(annotations);
 	}
 
+	private static Collection<DiscoveredAnnotation> allAnnotationsOf(Class<?> javaClass, CollectorTimings timings) {
+		Collection<DiscoveredAnnotation> annotations = new ArrayList<>();
+		AnnotationCollectors.collectAllAnnotationsOf(javaClass, annotations, timings);
+		return annotations;
+	}
+
+	/**
+	 * Adds the given {@link DiscoveredAnnotation} as a further occurrence of its
+	 * annotation type. Occurrences, that are equal to an existing one, are kept
+	 * only once.
+	 */
 	protected DiscoveredType withAdditionalAnnotation(DiscoveredAnnotation annotation) {
-		annotationTypes.put(annotation.annotationType(), annotation);
+		List<DiscoveredAnnotation> all = new ArrayList<>(occurrencesOf(0, annotations.length));
+		all.add(requireNonNull(annotation, "annotation"));
+		putAll(all);
 		return this;
 	}
 
+	/**
+	 * Sorts the given annotations into the (empty) arrays at once. The locations
+	 * of equal annotations are merged into one bitmask.
+	 */
+	private void putAll(Collection<DiscoveredAnnotation> discoveredAnnotations) {
+		DiscoveredAnnotation[] sorted = discoveredAnnotations.toArray(new DiscoveredAnnotation[discoveredAnnotations.size()]);
+		// stable, so that the original order of annotations with the same hash and location is kept
+		Arrays.sort(sorted, DiscoveredType::compareByTypeHashAndLocation);
+		Annotation[] distinct = new Annotation[sorted.length];
+		byte[] masks = new byte[sorted.length];
+		int[] hashes = new int[sorted.length];
+		int size = 0;
+		int typeCount = 0;
+		int mask = 0;
+		for (DiscoveredAnnotation occurrence : sorted) {
+			Annotation annotation = occurrence.getAnnotation();
+			int hash = System.identityHashCode(annotation.annotationType());
+			int index = indexOfEqual(distinct, hashes, size, annotation, hash);
+			if (index < 0) {
+				if (!isTypeOfPrevious(distinct, hashes, size, annotation.annotationType(), hash)) {
+					typeCount++;
+				}
+				index = size++;
+				distinct[index] = annotation;
+				hashes[index] = hash;
+			}
+			masks[index] |= occurrence.getLocation().mask();
+			mask |= occurrence.getLocation().mask();
+		}
+		annotations = (size == 0) ? NO_ANNOTATIONS : Arrays.copyOf(distinct, size);
+		locationMasks = (size == 0) ? NO_LOCATIONS : Arrays.copyOf(masks, size);
+		annotationTypeHashes = (size == 0) ? NO_HASHES : Arrays.copyOf(hashes, size);
+		annotationTypeCount = typeCount;
+		locationMask = mask;
+	}
+
+	private static int compareByTypeHashAndLocation(DiscoveredAnnotation first, DiscoveredAnnotation second) {
+		int byTypeHash = Integer.compare(System.identityHashCode(first.annotationType()),
+				System.identityHashCode(second.annotationType()));
+		return (byTypeHash != 0) ? byTypeHash : first.getLocation().compareTo(second.getLocation());
+	}
+
+	/**
+	 * Gets the index of an equal annotation among the first <code>size</code>
+	 * ones, which only needs to look at those with the same hash, or
+	 * <code>-1</code>, if there is none.
+	 */
+	private static int indexOfEqual(Annotation[] sorted, int[] hashes, int size, Annotation annotation, int hash) {
+		for (int i = size - 1; i >= 0 && hashes[i] == hash; i--) {
+			if (sorted[i].equals(annotation)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isTypeOfPrevious(Annotation[] sorted, int[] hashes, int size,
+			Class<? extends Annotation> annotationType, int hash) {
+		for (int i = size - 1; i >= 0 && hashes[i] == hash; i--) {
+			if (sorted[i].annotationType() == annotationType) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Creates the {@link DiscoveredAnnotation}s of all locations of the annotations
+	 * between the given indices.
+	 */
+	private List<DiscoveredAnnotation> occurrencesOf(int fromIndex, int toIndex) {
+		List<DiscoveredAnnotation> occurrences = new ArrayList<>(toIndex - fromIndex);
+		for (int index = fromIndex; index < toIndex; index++) {
+			addOccurrencesOf(index, occurrences);
+		}
+		return occurrences;
+	}
+
+	private void addOccurrencesOf(int index, List<DiscoveredAnnotation> occurrences) {
+		for (int mask = locationMasks[index] & AnnotationLocation.ALL; mask != 0; mask &= mask - 1) {
+			occurrences.add(new DiscoveredAnnotation(annotations[index], AnnotationLocation.lowestOf(mask)));
+		}
+	}
+
+	/**
+	 * Gets the index of the first (most significant) annotation of the given
+	 * annotation type using a binary search of its identity hash code, or
+	 * <code>-1</code>, if there is none.
+	 */
+	private int indexOf(Class<?> annotationType) {
+		int index = firstIndexOfHash(System.identityHashCode(annotationType));
+		if (index < 0) {
+			return -1;
+		}
+		int hash = annotationTypeHashes[index];
+		for (; index < annotationTypeHashes.length && annotationTypeHashes[index] == hash; index++) {
+			if (annotations[index].annotationType() == annotationType) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	private int firstIndexOfHash(int hash) {
+		int[] hashes = annotationTypeHashes;
+		int index = Arrays.binarySearch(hashes, hash);
+		if (index < 0) {
+			return -1;
+		}
+		while (index > 0 && hashes[index - 1] == hash) {
+			index--;
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the bitmask of the {@link AnnotationLocation}s of all annotations of the
+	 * given annotation type.
+	 */
+	private int locationMaskOf(Class<?> annotationType) {
+		int index = indexOf(annotationType);
+		if (index < 0) {
+			return 0;
+		}
+		int mask = 0;
+		int hash = annotationTypeHashes[index];
+		for (; index < annotations.length && annotationTypeHashes[index] == hash; index++) {
+			if (annotations[index].annotationType() == annotationType) {
+				mask |= locationMasks[index];
+			}
+		}
+		return mask & AnnotationLocation.ALL;
+	}
+
 	/**
 	 * Gets the type as {@link Class}.
 	 * 
@@ -113,7 +351,7 @@ public class DiscoveredType implements Serializable {
 	 * @return
 	 */
 	public Set<Class<? extends Annotation>> getAnnotationTypes() {
-		return Collections.unmodifiableSet(annotationTypes.keySet());
+		return new AnnotationTypes(annotations, annotationTypeHashes, annotationTypeCount);
 	}
 
 	/**
@@ -122,36 +360,101 @@ public class DiscoveredType implements Serializable {
 	 * @return
 	 */
 	public Collection<DiscoveredAnnotation> getAnnotations() {
-		return Collections.unmodifiableCollection(annotationTypes.values());
+		return Collections.unmodifiableList(occurrencesOf(0, annotations.length));
+	}
+
+	/**
+	 * Gets all distinct occurrences of the given annotation type, starting with
+	 * the most significant {@link AnnotationLocation} (e.g.
+	 * {@link AnnotationLocation#TYPE} before {@link AnnotationLocation#METHOD}).
+	 * The result is empty, if the {@link DiscoveredType} is not annotated with it.
+	 * 
+	 * @param type - {@link Class}
+	 * @return {@link Collection} of {@link DiscoveredAnnotation}s
+	 */
+	public Collection<DiscoveredAnnotation> getAnnotations(Class<? extends Annotation> type) {
+		int index = indexOf(type);
+		if (index < 0) {
+			return Collections.emptyList();
+		}
+		List<DiscoveredAnnotation> occurrences = new ArrayList<>(1);
+		int hash = annotationTypeHashes[index];
+		for (; index < annotations.length && annotationTypeHashes[index] == hash; index++) {
+			if (annotations[index].annotationType() == type) {
+				addOccurrencesOf(index, occurrences);
+			}
+		}
+		occurrences.sort(Comparator.comparing(DiscoveredAnnotation::getLocation));
+		return Collections.unmodifiableList(occurrences);
+	}
+
+	/**
+	 * Gets all {@link AnnotationLocation}s, where the given annotation type had
+	 * been discovered. The result is empty, if the {@link DiscoveredType} is not
+	 * annotated with it.
+	 * 
+	 * @param type - {@link Class}
+	 * @return {@link Set} of {@link AnnotationLocation}s
+	 */
+	public Set<AnnotationLocation> getAnnotationLocations(Class<? extends Annotation> type) {
+		Set<AnnotationLocation> locations = EnumSet.noneOf(AnnotationLocation.class);
+		for (int mask = locationMaskOf(type); mask != 0; mask &= mask - 1) {
+			locations.add(AnnotationLocation.lowestOf(mask));
+		}
+		return locations;
+	}
+
+	/**
+	 * Is <code>true</code>, if the given annotation type had been discovered at
+	 * any of the given {@link AnnotationLocation}s, or at any location, if none is
+	 * given.
+	 * 
+	 * @param type      - {@link Class}
+	 * @param locations - {@link AnnotationLocation}s
+	 * @return <code>true</code>, if fulfilled.
+	 */
+	public boolean isAnnotatedWith(Class<? extends Annotation> type, AnnotationLocation... locations) {
+		int mask = (locations.length == 0) ? AnnotationLocation.ALL : AnnotationLocation.maskOf(asList(locations));
+		return isAnnotatedAt(type, mask);
+	}
+
+	/**
+	 * Is <code>true</code>, if the given annotation type had been discovered at
+	 * any of the {@link AnnotationLocation}s of the given bitmask (see
+	 * {@link AnnotationLocation#maskOf(Iterable)}).
+	 */
+	boolean isAnnotatedAt(Class<? extends Annotation> type, int locations) {
+		return ((locationMask & locations) != 0) && ((locationMaskOf(type) & locations) != 0);
 	}
 
 	/**
 	 * Gets the annotation of the given annoation type or <code>null</code>, if the
-	 * {@link DiscoveredType} is not annotated with it.
+	 * {@link DiscoveredType} is not annotated with it. If there are different ones,
+	 * the one of the most significant {@link AnnotationLocation} is returned (see
+	 * {@link #getAnnotations(Class)}).
 	 * 
 	 * @param type - {@link Class}
 	 * @return {@link Annotation}
 	 */
 	@SuppressWarnings("unchecked")
 	public <T extends Annotation> T getAnnotation(Class<T> type) {
-		if (!annotationTypes.containsKey(type)) {
-			return null;
-		}
-		return (T) annotationTypes.get(type).getAnnotation();
+		int index = indexOf(type);
+		return (index < 0) ? null : (T) annotations[index];
 	}
 
 	/**
 	 * Gets the {@link AnnotationLocation} of the given annotation type or
 	 * <code>null</code>, if the {@link DiscoveredType} is not annotated with it.
+	 * If it had been discovered more than once, the most significant
+	 * {@link AnnotationLocation} is returned (see
+	 * {@link #getAnnotationLocations(Class)}).
 	 * 
 	 * @param type - {@link Class}
 	 * @return {@link AnnotationLocation}
 	 */
 	public <T> AnnotationLocation getAnnotationLocation(Class<T> type) {
-		if (!annotationTypes.containsKey(type)) {
-			return null;
-		}
-		return annotationTypes.get(type).getLocation();
+		int index = indexOf(type);
+		return (index < 0) ? null : AnnotationLocation.lowestOf(locationMasks[index]);
 	}
 
 	/**
@@ -160,28 +463,109 @@ public class DiscoveredType implements Serializable {
 	 * @return {@link Collection}
 	 */
 	public Annotation[] getQualifiers() {
-		return qualifiers.toArray(new Annotation[qualifiers.size()]);
+		return (qualifiers.length == 0) ? qualifiers : qualifiers.clone();
+	}
+
+	/**
+	 * Gets the value of the <code>javax.annotation.Priority</code> or
+	 * <code>jakarta.annotation.Priority</code> annotation of the type, that
+	 * determines the order of the query results of {@link DiscoveredTypes}.
+	 * 
+	 * @return priority or {@link Integer#MAX_VALUE}, if not annotated
+	 */
+	public int getPriority() {
+		return priority;
 	}
 
 	/**
 	 * Is <code>true</code>, if the {@link DiscoveredType} is annotated with
-	 * {@link Discoverable}, and {@link Discoverable#ignoreBean()} is set to
+	 * {@link Discoverable} on type level or on one of its super types (directly
+	 * or as meta-annotation), and {@link Discoverable#ignoreBean()} is set to
 	 * <code>true</code>. In every other case the result is <code>false</code>.
+	 * <p>
+	 * The decision follows {@link #isIgnoredBean(Class)}. Only if the class
+	 * hierarchy isn't annotated with {@link Discoverable}, the one added by
+	 * {@link #ofDiscoverable(Class)} is used. {@link Discoverable} annotations of
+	 * members never ignore the whole bean.
 	 * 
 	 * @return <code>true</code>, if fulfilled.
+	 * @see #isIgnoredBean(Class)
 	 */
 	public boolean isIgnoredBean() {
-		Discoverable annotation = getAnnotation(Discoverable.class);
-		return (annotation != null) ? annotation.ignoreBean() : false;
+		Discoverable effective = effectiveDiscoverableOf(annotatedClass);
+		if (effective == null) {
+			for (DiscoveredAnnotation discovered : getAnnotations(Discoverable.class)) {
+				if (discovered.getLocation() == AnnotationLocation.TYPE) {
+					effective = (Discoverable) discovered.getAnnotation();
+				}
+			}
+		}
+		return (effective != null) ? effective.ignoreBean() : false;
 	}
 
-	private static void getAllQualifiers(final Collection<? super Annotation> qualifiers,
-			Collection<? extends Annotation> annotations) {
+	/**
+	 * Is <code>true</code>, if the given type or the nearest of its super classes,
+	 * that is annotated with {@link Discoverable} on type level (directly or as
+	 * meta-annotation), has {@link Discoverable#ignoreBean()} set to
+	 * <code>true</code>. If a class carries more than one of them, the last
+	 * declared one decides.
+	 * <p>
+	 * Only the type annotations of the class hierarchy are read, so that the
+	 * decision is cheap compared to the creation of a {@link DiscoveredType}.
+	 * 
+	 * @param type - {@link Class}
+	 * @return <code>true</code>, if fulfilled.
+	 */
+	public static boolean isIgnoredBean(Class<?> type) {
+		Discoverable effective = effectiveDiscoverableOf(type);
+		return (effective != null) ? effective.ignoreBean() : false;
+	}
+
+	private static Discoverable effectiveDiscoverableOf(Class<?> type) {
+		for (Class<?> current = type; (current != null) && (current != Object.class); current = current
+				.getSuperclass()) {
+			Discoverable effective = typeLevelDiscoverableOf(current);
+			if (effective != null) {
+				return effective;
+			}
+		}
+		return null;
+	}
+
+	private static Discoverable typeLevelDiscoverableOf(Class<?> type) {
+		Discoverable effective = null;
+		for (Annotation annotation : type.getDeclaredAnnotations()) {
+			if (annotation instanceof Discoverable) {
+				effective = (Discoverable) annotation;
+			}
+			Discoverable metaAnnotation = annotation.annotationType().getAnnotation(Discoverable.class);
+			if (metaAnnotation != null) {
+				effective = metaAnnotation;
+			}
+		}
+		return effective;
+	}
+
+	private static int priorityOf(Annotation[] typeAnnotations) {
+		for (Annotation annotation : typeAnnotations) {
+			if (PRIORITY_ANNOTATIONS.contains(annotation.annotationType().getName())) {
+				Object value = AnnotationValues.valuesOf(annotation).get("value");
+				if (value instanceof Integer) {
+					return ((Integer) value).intValue();
+				}
+			}
+		}
+		return NO_PRIORITY;
+	}
+
+	private static Annotation[] qualifiersOf(Collection<? extends Annotation> annotations) {
+		List<Annotation> qualifiers = new ArrayList<>();
 		for (Annotation annotation : annotations) {
 			if (annotation.annotationType().isAnnotationPresent(Qualifier.class)) {
 				qualifiers.add(annotation);
 			}
 		}
+		return qualifiers.isEmpty() ? NO_QUALIFIERS : qualifiers.toArray(new Annotation[qualifiers.size()]);
 	}
 
 	@Override
@@ -194,7 +578,8 @@ public class DiscoveredType implements Serializable {
 		}
 		DiscoveredType castOther = (DiscoveredType) other;
 		return Objects.equals(annotatedClass, castOther.annotatedClass)
-				&& Objects.equals(annotationTypes, castOther.annotationTypes);
+				&& Arrays.equals(annotations, castOther.annotations)
+				&& Arrays.equals(locationMasks, castOther.locationMasks);
 	}
 
 	@Override
@@ -204,7 +589,69 @@ public class DiscoveredType implements Serializable {
 
 	@Override
 	public String toString() {
-		return "DiscoveredType [annotatedClass=" + annotatedClass + ", qualifiers=" + qualifiers + ", annotationTypes="
-				+ annotationTypes + "]";
+		return "DiscoveredType [annotatedClass=" + annotatedClass + ", qualifiers=" + Arrays.toString(qualifiers)
+				+ ", annotations=" + getAnnotations() + "]";
+	}
+
+	/**
+	 * Replaces this instance by its {@link CompactSerializedForm} on
+	 * serialization. Subclasses keep the default serialization, as well as all
+	 * instances, if {@link DiscoveredTypes#COMPACT_SERIALIZATION_PROPERTY} is
+	 * "false".
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return CompactSerializedForm.isEnabled() ? CompactSerializedForm.of(this) : this;
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		// identity hash codes differ between JVMs
+		putAll(occurrencesOf(0, annotations.length));
+	}
+
+	/**
+	 * Unmodifiable {@link Set} view of the distinct annotation types of the
+	 * annotations, that skips further annotations of the same type.
+	 */
+	private static final class AnnotationTypes extends AbstractSet<Class<? extends Annotation>> {
+
+		private final Annotation[] annotations;
+		private final int[] hashes;
+		private final int size;
+
+		AnnotationTypes(Annotation[] annotations, int[] hashes, int size) {
+			this.annotations = annotations;
+			this.hashes = hashes;
+			this.size = size;
+		}
+
+		@Override
+		public Iterator<Class<? extends Annotation>> iterator() {
+			return new Iterator<Class<? extends Annotation>>() {
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					while (index < annotations.length && isTypeOfPrevious(annotations, hashes, index,
+							annotations[index].annotationType(), hashes[index])) {
+						index++;
+					}
+					return index < annotations.length;
+				}
+
+				@Override
+				public Class<? extends Annotation> next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return annotations[index++].annotationType();
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
 	}
 }
\ No newline at end of file
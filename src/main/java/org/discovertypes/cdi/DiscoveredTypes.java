@@ -13,20 +13,33 @@
 //limitations under the License.
 package org.discovertypes.cdi;
 
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Typed;
@@ -40,7 +53,22 @@ import javax.enterprise.inject.Typed;
  * <code>for (DiscoveredType type : discoveredTypes) {...}</code>
  * <li>To get all types annotated by a given annotation, use:
  * <code>Collection<DiscoveredType> typesByAnnotation = discoveredTypes.annotatedWith(...);</code>
+ * <li>The contained {@link DiscoveredType}s can be streamed (also in parallel)
+ * using {@link #stream()}, {@link #streamAnnotatedWith(Class)} and
+ * {@link #streamAnnotatedWithAnyOf(Iterable)}.
  * </ul>
+ * <p>
+ * The results of {@link #annotatedWithAnyOf(Iterable)} are cached. The maximum
+ * number of cached annotation type combinations can be set using the system
+ * property {@value #QUERY_CACHE_SIZE_PROPERTY} (default
+ * {@value #DEFAULT_QUERY_CACHE_SIZE}, 0 disables the cache).
+ * <p>
+ * All results (including the iteration) are ordered by the
+ * <code>javax.annotation.Priority</code> or
+ * <code>jakarta.annotation.Priority</code> of the types (ascending, types
+ * without priority last) and then by their class names (see
+ * {@link DiscoveredType#getPriority()}). The order is determined once during
+ * initialization, so that it is deterministic and costs nothing per query.
  * 
  * @author Johannes Troppacher
  */
@@ -48,10 +76,36 @@ import javax.enterprise.inject.Typed;
 @Typed({ DiscoveredTypes.class })
 public class DiscoveredTypes implements Iterable<DiscoveredType>, Serializable {
 
+	/**
+	 * System property, that sets the maximum number of cached results of
+	 * {@link #annotatedWithAnyOf(Iterable)}.
+	 */
+	public static final String QUERY_CACHE_SIZE_PROPERTY = "org.discovertypes.cdi.queryCacheSize";
+
+	/**
+	 * Default maximum number of cached results of
+	 * {@link #annotatedWithAnyOf(Iterable)}.
+	 */
+	public static final int DEFAULT_QUERY_CACHE_SIZE = 256;
+
+	/**
+	 * System property, that switches off the compact serialized form of
+	 * {@link DiscoveredTypes}, {@link DiscoveredType} and
+	 * {@link DiscoveredAnnotation}, when set to "false". Default is "true".
+	 */
+	public static final String COMPACT_SERIALIZATION_PROPERTY = "org.discovertypes.cdi.compactSerialization";
+
 	private static final long serialVersionUID = 3352821394722277602L;
+	private static final QueryObserver[] NO_QUERY_OBSERVERS = new QueryObserver[0];
+	private static final DiscoveredType[] NO_DISCOVERED_TYPES = new DiscoveredType[0];
+	private static final int SPLITERATOR_CHARACTERISTICS = Spliterator.DISTINCT | Spliterator.IMMUTABLE
+			| Spliterator.NONNULL | Spliterator.ORDERED;
 
-	private final Map<Class<? extends Annotation>, List<DiscoveredType>> discoveredTypes = new HashMap<>();
+	private Map<Class<? extends Annotation>, DiscoveredType[]> discoveredTypes = Collections.emptyMap();
+	private DiscoveredType[] allDiscoveredTypes = NO_DISCOVERED_TYPES;
 	private AtomicBoolean discovered = new AtomicBoolean(false);
+	private transient volatile QueryObserver[] queryObservers = NO_QUERY_OBSERVERS;
+	private transient QueryResultCache<AnnotationTypesKey, DiscoveredType[]> anyOfCache = newQueryResultCache();
 
 	/**
 	 * Creates {@link DiscoveredTypes} to use it outside CDI programmatically.
@@ -72,7 +126,7 @@ public class DiscoveredTypes implements Iterable<DiscoveredType>, Serializable {
 	 * Sets the {@link DiscoveredType}s during startup.
 	 * <p>
 	 * May only be used internally to set the discovered types during startup by the
-	 * CDI extension.
+	 * CDI extension. The given {@link Collection} itself is not kept.
 	 * 
 	 * @param types - {@link Collection} of {@link DiscoveredType}s.
 	 */
@@ -81,6 +135,36 @@ public class DiscoveredTypes implements Iterable<DiscoveredType>, Serializable {
 			throw new IllegalStateException("May only be called once by the cdi extension during system startup");
 		}
 		groupByAnnotationType(types);
+		anyOfCache.clear();
+	}
+
+	/**
+	 * Adds a {@link QueryObserver}, that gets notified about every query.
+	 * <p>
+	 * May only be used internally by the CDI extension to collect metrics.
+	 * Queries are not measured at all, as long as there is no
+	 * {@link QueryObserver}.
+	 * 
+	 * @param queryObserver - {@link QueryObserver}
+	 */
+	public synchronized void addQueryObserver(QueryObserver queryObserver) {
+		requireNonNull(queryObserver, "queryObserver");
+		QueryObserver[] observers = Arrays.copyOf(queryObservers, queryObservers.length + 1);
+		observers[observers.length - 1] = queryObserver;
+		queryObservers = observers;
+	}
+
+	/**
+	 * Removes the given {@link QueryObserver}, that had been added before using
+	 * {@link #addQueryObserver(QueryObserver)}.
+	 * 
+	 * @param queryObserver - {@link QueryObserver}
+	 */
+	public synchronized void removeQueryObserver(QueryObserver queryObserver) {
+		List<QueryObserver> observers = new ArrayList<>(Arrays.asList(queryObservers));
+		if (observers.remove(queryObserver)) {
+			queryObservers = observers.toArray(new QueryObserver[observers.size()]);
+		}
 	}
 
 	/**
@@ -88,21 +172,100 @@ public class DiscoveredTypes implements Iterable<DiscoveredType>, Serializable {
 	 */
 	@Override
 	public Iterator<DiscoveredType> iterator() {
-		return getDiscoveredTypes().iterator();
+		notifyIterated();
+		return Collections.unmodifiableList(Arrays.asList(allDiscoveredTypes)).iterator();
+	}
+
+	/**
+	 * Performs the given action for all {@link DiscoveredType}s without creating
+	 * an {@link Iterator}.
+	 * 
+	 * @param action - {@link Consumer}
+	 */
+	@Override
+	public void forEach(Consumer<? super DiscoveredType> action) {
+		requireNonNull(action, "action");
+		notifyIterated();
+		for (DiscoveredType discoveredType : allDiscoveredTypes) {
+			action.accept(discoveredType);
+		}
+	}
+
+	/**
+	 * Creates a {@link Spliterator} over all {@link DiscoveredType}s, that knows
+	 * its exact size and splits evenly in halves.
+	 * 
+	 * @return {@link Spliterator}
+	 */
+	@Override
+	public Spliterator<DiscoveredType> spliterator() {
+		notifyIterated();
+		return spliteratorOf(allDiscoveredTypes);
+	}
+
+	/**
+	 * Creates a {@link Stream} of all {@link DiscoveredType}s. Use
+	 * {@link Stream#parallel()} to process them in parallel.
+	 * 
+	 * @return {@link Stream} of {@link DiscoveredType}s
+	 */
+	public Stream<DiscoveredType> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Creates a {@link Stream} of all {@link DiscoveredType}s, that are annotated
+	 * with the given {@link Annotation}-{@link Class}, without copying them.
+	 * 
+	 * @param annotationType - {@link Class} of the {@link Annotation}.
+	 * @return {@link Stream} of {@link DiscoveredType}s
+	 */
+	public Stream<DiscoveredType> streamAnnotatedWith(Class<? extends Annotation> annotationType) {
+		QueryObserver[] observers = queryObservers;
+		long start = (observers.length == 0) ? 0L : System.nanoTime();
+		DiscoveredType[] types = typesArrayAnnotatedWith(annotationType);
+		for (QueryObserver observer : observers) {
+			observer.annotatedWith(annotationType, types.length, System.nanoTime() - start);
+		}
+		return StreamSupport.stream(spliteratorOf(types), false);
+	}
+
+	/**
+	 * Creates a {@link Stream} of all {@link DiscoveredType}s, that are annotated
+	 * with any (at least one) of the given {@link Annotation}-{@link Class}-Types.
+	 * 
+	 * @param annotationTypes - {@link Iterable} (e.g. a {@link List}) of
+	 *                        {@link Annotation}s.
+	 * @return {@link Stream} of {@link DiscoveredType}s
+	 * @see #annotatedWithAnyOf(Iterable)
+	 */
+	public Stream<DiscoveredType> streamAnnotatedWithAnyOf(Iterable<Class<? extends Annotation>> annotationTypes) {
+		return StreamSupport.stream(annotatedWithAnyOf(annotationTypes).spliterator(), false);
 	}
 
 	/**
 	 * Gets the {@link Collection} of {@link DiscoveredType}s, that are annotated
 	 * with the given {@link Annotation}-{@link Class} .
+	 * <p>
+	 * The result is a copy, that may be modified. Use
+	 * {@link #streamAnnotatedWith(Class)} to process the types without copying
+	 * them.
 	 * 
 	 * @param annotationType - {@link Class} of the {@link Annotation}.
 	 * @return {@link Collection} of {@link DiscoveredType}s.
 	 */
 	public Collection<DiscoveredType> annotatedWith(Class<? extends Annotation> annotationType) {
-		if (!this.discoveredTypes.containsKey(annotationType)) {
-			return Collections.emptyList();
+		QueryObserver[] observers = queryObservers;
+		if (observers.length == 0) {
+			return typesAnnotatedWith(annotationType);
 		}
-		return new ArrayList<>(this.discoveredTypes.get(annotationType));
+		long start = System.nanoTime();
+		Collection<DiscoveredType> types = typesAnnotatedWith(annotationType);
+		long nanos = System.nanoTime() - start;
+		for (QueryObserver observer : observers) {
+			observer.annotatedWith(annotationType, types.size(), nanos);
+		}
+		return types;
 	}
 
 	/**
@@ -111,44 +274,245 @@ public class DiscoveredTypes implements Iterable<DiscoveredType>, Serializable {
 	 * <p>
 	 * Use {@link Arrays#asList(Object...)} to convert semicolon separated
 	 * annotation types or an array of annotation types as parameter.
+	 * <p>
+	 * The types are cached for the (order independent) set of the given
+	 * annotation types. A single annotation type is looked up like
+	 * {@link #annotatedWith(Class)} without the cache. The result is a copy, that
+	 * may be modified.
 	 * 
 	 * @param annotationTypes - {@link Iterable} (e.g. a {@link List}) of
 	 *                        {@link Annotation}s.
 	 * @return {@link Collection} of {@link DiscoveredType}s.
 	 */
 	public Collection<DiscoveredType> annotatedWithAnyOf(Iterable<Class<? extends Annotation>> annotationTypes) {
+		QueryObserver[] observers = queryObservers;
+		if (observers.length == 0) {
+			return typesAnnotatedWithAnyOf(annotationTypes);
+		}
+		long start = System.nanoTime();
+		Collection<DiscoveredType> types = typesAnnotatedWithAnyOf(annotationTypes);
+		long nanos = System.nanoTime() - start;
+		for (QueryObserver observer : observers) {
+			observer.annotatedWithAnyOf(annotationTypes, types.size(), nanos);
+		}
+		return types;
+	}
+
+	/**
+	 * Compiles the given {@link DiscoveryQuery} against the discovered types. The
+	 * resulting {@link CompiledDiscoveryQuery} can be kept and executed
+	 * repeatedly without any further lookups.
+	 * 
+	 * @param query - {@link DiscoveryQuery}
+	 * @return {@link CompiledDiscoveryQuery}
+	 * @throws IllegalStateException if the discovered types are not initialized
+	 *                               yet
+	 */
+	public CompiledDiscoveryQuery compile(DiscoveryQuery query) {
+		if (!discovered.get()) {
+			throw new IllegalStateException("Queries may only be compiled after the discovery during startup");
+		}
+		return new CompiledDiscoveryQuery(query, query.select(typesAnnotatedWith(query.getAnnotationType())));
+	}
+
+	/**
+	 * Gets all annotation types, that at least one of the {@link DiscoveredType}s
+	 * is annotated with.
+	 * 
+	 * @return {@link Set} of {@link Annotation}-{@link Class}-Types.
+	 */
+	public Set<Class<? extends Annotation>> getAnnotationTypes() {
+		return Collections.unmodifiableSet(this.discoveredTypes.keySet());
+	}
+
+	/**
+	 * Gets the number of {@link DiscoveredType}s, that are annotated with the given
+	 * {@link Annotation}-{@link Class}, without querying them.
+	 * 
+	 * @param annotationType - {@link Class} of the {@link Annotation}.
+	 * @return number of {@link DiscoveredType}s.
+	 */
+	public int countAnnotatedWith(Class<? extends Annotation> annotationType) {
+		return typesArrayAnnotatedWith(annotationType).length;
+	}
+
+	private Collection<DiscoveredType> typesAnnotatedWith(Class<? extends Annotation> annotationType) {
+		DiscoveredType[] types = typesArrayAnnotatedWith(annotationType);
+		if (types.length == 0) {
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(Arrays.asList(types));
+	}
+
+	private DiscoveredType[] typesArrayAnnotatedWith(Class<?> annotationType) {
+		DiscoveredType[] types = this.discoveredTypes.get(annotationType);
+		return (types != null) ? types : NO_DISCOVERED_TYPES;
+	}
+
+	/**
+	 * Gets the statistics of the result cache of
+	 * {@link #annotatedWithAnyOf(Iterable)}.
+	 * 
+	 * @return {@link QueryCacheStatistics}
+	 */
+	public QueryCacheStatistics getQueryCacheStatistics() {
+		return anyOfCache.statistics();
+	}
+
+	private Collection<DiscoveredType> typesAnnotatedWithAnyOf(Iterable<Class<? extends Annotation>> annotationTypes) {
+		Iterator<Class<? extends Annotation>> iterator = annotationTypes.iterator();
+		if (!iterator.hasNext()) {
+			return new ArrayList<>();
+		}
+		Class<? extends Annotation> first = iterator.next();
+		if (!iterator.hasNext()) {
+			return new ArrayList<>(Arrays.asList(typesArrayAnnotatedWith(first)));
+		}
+		DiscoveredType[] types = anyOfCache.get(AnnotationTypesKey.of(first, iterator),
+				this::collectTypesAnnotatedWithAnyOf);
+		return new ArrayList<>(Arrays.asList(types));
+	}
+
+	private DiscoveredType[] collectTypesAnnotatedWithAnyOf(AnnotationTypesKey key) {
 		Set<DiscoveredType> discoveredTypes = new HashSet<>();
-		for (Class<? extends Annotation> annotationType : annotationTypes) {
-			discoveredTypes.addAll(annotatedWith(annotationType));
+		for (Class<?> annotationType : key.annotationTypes) {
+			discoveredTypes.addAll(Arrays.asList(typesArrayAnnotatedWith(annotationType)));
 		}
-		return discoveredTypes;
+		DiscoveredType[] sorted = discoveredTypes.toArray(NO_DISCOVERED_TYPES);
+		Arrays.sort(sorted, DiscoveredType.ORDER);
+		return sorted;
 	}
 
-	private Collection<DiscoveredType> getDiscoveredTypes() {
-		Set<DiscoveredType> distinctDiscoveredTypes = new HashSet<>();
-		for (List<DiscoveredType> discoveredTypeList : this.discoveredTypes.values()) {
-			distinctDiscoveredTypes.addAll(discoveredTypeList);
+	private static Spliterator<DiscoveredType> spliteratorOf(DiscoveredType[] types) {
+		return Spliterators.spliterator(types, SPLITERATOR_CHARACTERISTICS);
+	}
+
+	private void notifyIterated() {
+		for (QueryObserver observer : queryObservers) {
+			observer.iterated();
 		}
-		return Collections.unmodifiableCollection(distinctDiscoveredTypes);
 	}
 
+	private static <K, V> QueryResultCache<K, V> newQueryResultCache() {
+		return new QueryResultCache<>(Integer.getInteger(QUERY_CACHE_SIZE_PROPERTY, DEFAULT_QUERY_CACHE_SIZE).intValue());
+	}
+
+	/**
+	 * Replaces this instance by its {@link CompactSerializedForm} on
+	 * serialization. Subclasses (e.g. client proxies) keep the default
+	 * serialization, as well as all instances, if
+	 * {@link #COMPACT_SERIALIZATION_PROPERTY} is "false".
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return CompactSerializedForm.isEnabled() ? CompactSerializedForm.of(this, discovered.get()) : this;
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		queryObservers = NO_QUERY_OBSERVERS;
+		anyOfCache = newQueryResultCache();
+	}
+
+	/**
+	 * Sorts the given types using {@link DiscoveredType#ORDER} and then groups
+	 * them by their annotation types, so that every group keeps that order.
+	 */
 	private void groupByAnnotationType(Iterable<? extends DiscoveredType> discovered) {
+		Set<DiscoveredType> distinctDiscoveredTypes = new LinkedHashSet<>();
 		for (DiscoveredType discoveredType : discovered) {
+			if (!discoveredType.getAnnotationTypes().isEmpty()) {
+				distinctDiscoveredTypes.add(discoveredType);
+			}
+		}
+		DiscoveredType[] sorted = distinctDiscoveredTypes.toArray(NO_DISCOVERED_TYPES);
+		Arrays.sort(sorted, DiscoveredType.ORDER);
+		Map<Class<? extends Annotation>, List<DiscoveredType>> typesByAnnotation = new HashMap<>();
+		for (DiscoveredType discoveredType : sorted) {
 			for (Class<? extends Annotation> annotation : discoveredType.getAnnotationTypes()) {
-				addDiscoveredType(discoveredType, annotation);
+				addDiscoveredType(typesByAnnotation, discoveredType, annotation);
 			}
 		}
+		Map<Class<? extends Annotation>, DiscoveredType[]> index = new HashMap<>(
+				exactCapacityOf(typesByAnnotation.size()));
+		for (Entry<Class<? extends Annotation>, List<DiscoveredType>> entry : typesByAnnotation.entrySet()) {
+			index.put(entry.getKey(), entry.getValue().toArray(NO_DISCOVERED_TYPES));
+		}
+		discoveredTypes = index;
+		allDiscoveredTypes = sorted;
+	}
+
+	/**
+	 * Gets the initial capacity of a {@link HashMap}, that holds the given number
+	 * of entries with its default load factor without resizing.
+	 * 
+	 * @param size - number of entries
+	 * @return initial capacity
+	 */
+	private static int exactCapacityOf(int size) {
+		return (int) (size / 0.75f) + 1;
 	}
 
-	private void addDiscoveredType(DiscoveredType discoveredType, Class<? extends Annotation> annotation) {
-		if (!discoveredTypes.containsKey(annotation)) {
-			discoveredTypes.put(annotation, new ArrayList<>());
+	private static void addDiscoveredType(Map<Class<? extends Annotation>, List<DiscoveredType>> typesByAnnotation,
+			DiscoveredType discoveredType, Class<? extends Annotation> annotation) {
+		if (!typesByAnnotation.containsKey(annotation)) {
+			typesByAnnotation.put(annotation, new ArrayList<>());
 		}
-		discoveredTypes.get(annotation).add(discoveredType);
+		typesByAnnotation.get(annotation).add(discoveredType);
 	}
 
 	@Override
 	public String toString() {
-		return "DiscoveredTypes [discoveredTypes=" + discoveredTypes + ", discovered=" + discovered + "]";
+		return "DiscoveredTypes [annotationTypes=" + discoveredTypes.keySet() + ", discoveredTypes="
+				+ Arrays.toString(allDiscoveredTypes) + ", discovered=" + discovered + "]";
+	}
+
+	/**
+	 * Order independent key of the result cache of
+	 * {@link #annotatedWithAnyOf(Iterable)}, that holds the distinct annotation
+	 * types in a sorted array instead of a {@link Set}.
+	 */
+	private static final class AnnotationTypesKey {
+
+		private static final Comparator<Class<?>> ORDER = Comparator
+				.comparingInt((Class<?> type) -> System.identityHashCode(type)).thenComparing(Class::getName);
+
+		private final Class<?>[] annotationTypes;
+		private final int hash;
+
+		private AnnotationTypesKey(Class<?>[] annotationTypes) {
+			this.annotationTypes = annotationTypes;
+			this.hash = Arrays.hashCode(annotationTypes);
+		}
+
+		static AnnotationTypesKey of(Class<?> first, Iterator<Class<? extends Annotation>> others) {
+			Class<?>[] types = new Class<?>[4];
+			types[0] = first;
+			int size = 1;
+			while (others.hasNext()) {
+				if (size == types.length) {
+					types = Arrays.copyOf(types, size * 2);
+				}
+				types[size++] = others.next();
+			}
+			Arrays.sort(types, 0, size, ORDER);
+			int distinct = 0;
+			for (int i = 0; i < size; i++) {
+				if (distinct == 0 || types[distinct - 1] != types[i]) {
+					types[distinct++] = types[i];
+				}
+			}
+			return new AnnotationTypesKey(Arrays.copyOf(types, distinct));
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (other instanceof AnnotationTypesKey)
+					&& Arrays.equals(annotationTypes, ((AnnotationTypesKey) other).annotationTypes);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
 	}
-}
\ No newline at end of file
+}
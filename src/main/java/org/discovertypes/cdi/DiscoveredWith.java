@@ -0,0 +1,73 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.enterprise.util.AnnotationLiteral;
+import javax.inject.Qualifier;
+
+/**
+ * Qualifies an {@link AnnotationTypeDiscovered} event with its annotation
+ * type, so that observers only get notified about the annotation type they are
+ * interested in. Observers of concurrently fired events must not rely on an
+ * active request context (see {@link AnnotationTypeDiscovered}).
+ * 
+ * @author Johannes Troppacher
+ */
+@Qualifier
+@Documented
+@Target({ ElementType.PARAMETER, ElementType.FIELD, ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DiscoveredWith {
+
+	/**
+	 * @return annotation type of the {@link AnnotationTypeDiscovered} event
+	 */
+	Class<? extends Annotation> value();
+
+	/**
+	 * {@link AnnotationLiteral} of {@link DiscoveredWith} to fire qualified events.
+	 */
+	public static final class Literal extends AnnotationLiteral<DiscoveredWith> implements DiscoveredWith {
+
+		private static final long serialVersionUID = -6353546234171874385L;
+
+		private final Class<? extends Annotation> value;
+
+		private Literal(Class<? extends Annotation> value) {
+			this.value = value;
+		}
+
+		/**
+		 * Creates a {@link DiscoveredWith} qualifier for the given annotation type.
+		 * 
+		 * @param annotationType - {@link Class} of the {@link Annotation}
+		 * @return {@link DiscoveredWith}
+		 */
+		public static DiscoveredWith of(Class<? extends Annotation> annotationType) {
+			return new Literal(annotationType);
+		}
+
+		@Override
+		public Class<? extends Annotation> value() {
+			return value;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.util.ServiceLoader;
+
+import javax.enterprise.inject.spi.AfterDeploymentValidation;
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
+
+/**
+ * Gets notified about every {@link DiscoveredType} as soon as it had been
+ * discovered during the container startup, so that consumers can prepare
+ * themselves (e.g. build routing tables) while the container is still
+ * bootstrapping, instead of waiting for the complete {@link DiscoveredTypes}.
+ * <p>
+ * Implementations are registered using the {@link ServiceLoader} (file
+ * <code>META-INF/services/org.discovertypes.cdi.DiscoveryListener</code>) and
+ * loaded with the context {@link ClassLoader} of the deployment. They are no
+ * CDI beans and are released after {@link AfterDeploymentValidation}. They
+ * are only notified by the portable extension, since the build compatible
+ * extension collects the annotations at build time.
+ * <p>
+ * {@link #discovered(DiscoveredType)} is called on the thread, that collected
+ * the annotations of the type, which is a background thread, if the discovery
+ * is asynchronous (see
+ * {@link org.discovertypes.cdi.extension.DiscoverableTypesCdiExtension}).
+ * Implementations therefore need to be thread-safe. Exceptions thrown by a
+ * listener are reported as deployment problems.
+ * 
+ * @author Johannes Troppacher
+ */
+public interface DiscoveryListener {
+
+	/**
+	 * Called for every {@link DiscoveredType} right after the annotations of a
+	 * type observed by {@link ProcessAnnotatedType} had been collected. The order
+	 * of the calls is undefined.
+	 * 
+	 * @param discoveredType - {@link DiscoveredType}
+	 */
+	void discovered(DiscoveredType discoveredType);
+
+	/**
+	 * Called once in {@link AfterDeploymentValidation}, after all discovered
+	 * types had been passed to {@link #discovered(DiscoveredType)} and
+	 * {@link DiscoveredTypes} had been initialized with them.
+	 * 
+	 * @param discoveredTypes - initialized {@link DiscoveredTypes}
+	 */
+	default void completed(DiscoveredTypes discoveredTypes) {
+		// nothing to do by default
+	}
+}
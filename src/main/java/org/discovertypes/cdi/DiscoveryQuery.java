@@ -0,0 +1,161 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import static java.util.Arrays.asList;
+import static java.util.Objects.requireNonNull;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reusable query for {@link DiscoveredType}s, that is defined once and compiled
+ * against {@link DiscoveredTypes} using
+ * {@link DiscoveredTypes#compile(DiscoveryQuery)}.
+ * <p>
+ * All conditions need to be fulfilled. Example:
+ * 
+ * <pre>
+ * DiscoveryQuery query = DiscoveryQuery.annotatedWith(Handles.class)
+ * 		.at(AnnotationLocation.METHOD)
+ * 		.andAnnotatedWithAnyOf(Command.class, Event.class)
+ * 		.assignableTo(MessageHandler.class);
+ * </pre>
+ * <p>
+ * {@link DiscoveryQuery} is immutable. Every method returns a new
+ * {@link DiscoveryQuery}, so that it can be kept in a constant.
+ * 
+ * @author Johannes Troppacher
+ */
+public final class DiscoveryQuery {
+
+	private final Class<? extends Annotation> annotationType;
+	private final Set<AnnotationLocation> locations;
+	private final int locationMask;
+	private final List<Set<Class<? extends Annotation>>> anyOfAnnotationTypes;
+	private final Class<?> assignableTo;
+
+	/**
+	 * Creates a {@link DiscoveryQuery} for types, that are annotated with the given
+	 * annotation type.
+	 * 
+	 * @param annotationType - {@link Class} of the {@link Annotation}
+	 * @return {@link DiscoveryQuery}
+	 */
+	public static DiscoveryQuery annotatedWith(Class<? extends Annotation> annotationType) {
+		return new DiscoveryQuery(requireNonNull(annotationType, "annotationType"),
+				Collections.<AnnotationLocation>emptySet(), Collections.<Set<Class<? extends Annotation>>>emptyList(),
+				Object.class);
+	}
+
+	private DiscoveryQuery(Class<? extends Annotation> annotationType, Set<AnnotationLocation> locations,
+			List<Set<Class<? extends Annotation>>> anyOfAnnotationTypes, Class<?> assignableTo) {
+		this.annotationType = annotationType;
+		this.locations = locations;
+		this.locationMask = AnnotationLocation.maskOf(locations);
+		this.anyOfAnnotationTypes = anyOfAnnotationTypes;
+		this.assignableTo = assignableTo;
+	}
+
+	/**
+	 * Restricts the query to types, where the annotation type of
+	 * {@link #annotatedWith(Class)} had been discovered at one of the given
+	 * {@link AnnotationLocation}s.
+	 * 
+	 * @param locations - {@link AnnotationLocation}s
+	 * @return new {@link DiscoveryQuery}
+	 */
+	public DiscoveryQuery at(AnnotationLocation... locations) {
+		if (locations.length == 0) {
+			throw new IllegalArgumentException("At least one location is required");
+		}
+		return new DiscoveryQuery(annotationType, Collections.unmodifiableSet(EnumSet.copyOf(asList(locations))),
+				anyOfAnnotationTypes, assignableTo);
+	}
+
+	/**
+	 * Restricts the query to types, that are additionally annotated with any (at
+	 * least one) of the given annotation types.
+	 * 
+	 * @param annotationTypes - {@link Class}es of the {@link Annotation}s
+	 * @return new {@link DiscoveryQuery}
+	 */
+	@SafeVarargs
+	public final DiscoveryQuery andAnnotatedWithAnyOf(Class<? extends Annotation>... annotationTypes) {
+		if (annotationTypes.length == 0) {
+			throw new IllegalArgumentException("At least one annotation type is required");
+		}
+		Set<Class<? extends Annotation>> distinctAnnotationTypes = new HashSet<>();
+		for (Class<? extends Annotation> type : annotationTypes) {
+			distinctAnnotationTypes.add(type);
+		}
+		List<Set<Class<? extends Annotation>>> anyOf = new ArrayList<>(anyOfAnnotationTypes);
+		anyOf.add(Collections.unmodifiableSet(distinctAnnotationTypes));
+		return new DiscoveryQuery(annotationType, locations, Collections.unmodifiableList(anyOf), assignableTo);
+	}
+
+	/**
+	 * Restricts the query to types, that can be assigned to the given type (e.g.
+	 * implement the given interface).
+	 * 
+	 * @param type - {@link Class}
+	 * @return new {@link DiscoveryQuery}
+	 */
+	public DiscoveryQuery assignableTo(Class<?> type) {
+		return new DiscoveryQuery(annotationType, locations, anyOfAnnotationTypes, requireNonNull(type, "type"));
+	}
+
+	/**
+	 * Gets the annotation type, that all results are annotated with.
+	 * 
+	 * @return {@link Class} of the {@link Annotation}
+	 */
+	public Class<? extends Annotation> getAnnotationType() {
+		return annotationType;
+	}
+
+	List<DiscoveredType> select(Collection<DiscoveredType> annotatedTypes) {
+		List<DiscoveredType> selected = new ArrayList<>();
+		for (DiscoveredType type : annotatedTypes) {
+			if (matches(type)) {
+				selected.add(type);
+			}
+		}
+		return selected;
+	}
+
+	private boolean matches(DiscoveredType type) {
+		if (!locations.isEmpty() && !type.isAnnotatedAt(annotationType, locationMask)) {
+			return false;
+		}
+		for (Set<Class<? extends Annotation>> anyOf : anyOfAnnotationTypes) {
+			if (Collections.disjoint(anyOf, type.getAnnotationTypes())) {
+				return false;
+			}
+		}
+		return assignableTo.isAssignableFrom(type.getAnnotatedClass());
+	}
+
+	@Override
+	public String toString() {
+		return "DiscoveryQuery [annotationType=" + annotationType + ", locations=" + locations
+				+ ", anyOfAnnotationTypes=" + anyOfAnnotationTypes + ", assignableTo=" + assignableTo + "]";
+	}
+}
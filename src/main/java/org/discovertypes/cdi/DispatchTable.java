@@ -0,0 +1,215 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import static java.util.Objects.requireNonNull;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Immutable dispatch table, that maps the first parameter type (payload type)
+ * of the discovered methods, that are annotated with a given annotation type,
+ * to their {@link MethodInvoker}s. Example:
+ * 
+ * <pre>
+ * DispatchTable handlers = DispatchTable.of(Handles.class, discoveredTypes.annotatedWith(Handles.class));
+ * for (MethodInvoker handler : handlers.invokersFor(command.getClass())) {
+ * 	handler.invoke(instanceOf(handler.getDeclaringClass()), command);
+ * }
+ * </pre>
+ * <p>
+ * A method is included, if the annotation type is present (directly, as
+ * meta-annotation or repeated in its container) on the method itself or on its
+ * first parameter, which
+ * corresponds to {@link AnnotationLocation#METHOD} and
+ * {@link AnnotationLocation#METHOD_PARAMETER}. Only declared methods of the
+ * discovered types with at least one parameter are considered.
+ * <p>
+ * {@link #invokersFor(Class)} also returns the invokers of the super types of
+ * the given payload type (most specific first). The result is cached per
+ * payload type, so that only the first lookup walks the type hierarchy. The
+ * cache is bounded (least recently used payload types are evicted), so that
+ * arbitrary payload types don't accumulate for the lifetime of the table.
+ * 
+ * @author Johannes Troppacher
+ */
+public final class DispatchTable {
+
+	/**
+	 * Maximum number of payload types, whose resolved invokers are cached.
+	 */
+	static final int MAX_CACHED_PAYLOAD_TYPES = 256;
+
+	private final Class<? extends Annotation> annotationType;
+	private final Map<Class<?>, List<MethodInvoker>> invokersByPayloadType;
+	private final QueryResultCache<Class<?>, List<MethodInvoker>> invokersBySubtype = new QueryResultCache<>(
+			MAX_CACHED_PAYLOAD_TYPES);
+
+	/**
+	 * Creates a {@link DispatchTable} of the methods of the given
+	 * {@link DiscoveredType}s, that are annotated with the given annotation type.
+	 * 
+	 * @param annotationType - {@link Class} of the {@link Annotation}
+	 * @param types          - {@link Iterable} of {@link DiscoveredType}s, e.g.
+	 *                       {@link DiscoveredTypes#annotatedWith(Class)}
+	 * @return {@link DispatchTable}
+	 */
+	public static DispatchTable of(Class<? extends Annotation> annotationType,
+			Iterable<? extends DiscoveredType> types) {
+		requireNonNull(annotationType, "annotationType");
+		Map<Class<?>, List<MethodInvoker>> invokers = new LinkedHashMap<>();
+		for (DiscoveredType type : types) {
+			for (Method method : type.getAnnotatedClass().getDeclaredMethods()) {
+				if (isHandler(method, annotationType)) {
+					invokers.computeIfAbsent(method.getParameterTypes()[0], key -> new ArrayList<>())
+							.add(new MethodInvoker(method));
+				}
+			}
+		}
+		for (Entry<Class<?>, List<MethodInvoker>> entry : invokers.entrySet()) {
+			entry.setValue(unmodifiableList(entry.getValue()));
+		}
+		return new DispatchTable(annotationType, Collections.unmodifiableMap(invokers));
+	}
+
+	private DispatchTable(Class<? extends Annotation> annotationType,
+			Map<Class<?>, List<MethodInvoker>> invokersByPayloadType) {
+		this.annotationType = annotationType;
+		this.invokersByPayloadType = invokersByPayloadType;
+	}
+
+	public Class<? extends Annotation> getAnnotationType() {
+		return annotationType;
+	}
+
+	/**
+	 * Gets all payload types, that at least one method handles.
+	 * 
+	 * @return {@link Set} of {@link Class}es
+	 */
+	public Set<Class<?>> getPayloadTypes() {
+		return invokersByPayloadType.keySet();
+	}
+
+	/**
+	 * Gets the {@link MethodInvoker}s of the methods, whose first parameter type
+	 * is exactly the given type.
+	 * 
+	 * @param payloadType - {@link Class}
+	 * @return unmodifiable {@link List} of {@link MethodInvoker}s
+	 */
+	public List<MethodInvoker> invokersOf(Class<?> payloadType) {
+		List<MethodInvoker> invokers = invokersByPayloadType.get(payloadType);
+		return (invokers != null) ? invokers : Collections.<MethodInvoker>emptyList();
+	}
+
+	/**
+	 * Gets the {@link MethodInvoker}s of the methods, that accept the given
+	 * payload type as first parameter, including those, that accept one of its
+	 * super types or interfaces. The invokers of the most specific type come
+	 * first.
+	 * 
+	 * @param payloadType - {@link Class}
+	 * @return unmodifiable {@link List} of {@link MethodInvoker}s
+	 */
+	public List<MethodInvoker> invokersFor(Class<?> payloadType) {
+		return invokersBySubtype.get(payloadType, this::resolveInvokersFor);
+	}
+
+	/**
+	 * Gets the number of methods in this {@link DispatchTable}.
+	 * 
+	 * @return number of {@link MethodInvoker}s
+	 */
+	public int size() {
+		int size = 0;
+		for (List<MethodInvoker> invokers : invokersByPayloadType.values()) {
+			size += invokers.size();
+		}
+		return size;
+	}
+
+	private List<MethodInvoker> resolveInvokersFor(Class<?> payloadType) {
+		List<MethodInvoker> invokers = new ArrayList<>();
+		Set<Class<?>> visited = new HashSet<>();
+		Deque<Class<?>> types = new ArrayDeque<>();
+		types.add(payloadType);
+		while (!types.isEmpty()) {
+			Class<?> type = types.poll();
+			if (!visited.add(type)) {
+				continue;
+			}
+			invokers.addAll(invokersOf(type));
+			if (type.getSuperclass() != null) {
+				types.add(type.getSuperclass());
+			}
+			types.addAll(Arrays.asList(type.getInterfaces()));
+		}
+		return unmodifiableList(invokers);
+	}
+
+	private static boolean isHandler(Method method, Class<? extends Annotation> annotationType) {
+		if (method.getParameterCount() == 0 || method.isSynthetic() || method.isBridge()) {
+			return false;
+		}
+		return isAnnotated(method, annotationType) || isAnnotated(method.getParameters()[0], annotationType);
+	}
+
+	private static boolean isAnnotated(AnnotatedElement annotated, Class<? extends Annotation> annotationType) {
+		if (annotated.isAnnotationPresent(annotationType)) {
+			return true;
+		}
+		for (Annotation annotation : annotated.getAnnotations()) {
+			if (isMetaAnnotatedWith(annotation, annotationType)) {
+				return true;
+			}
+			for (Annotation repeated : RepeatableContainers.repeatedIn(annotation)) {
+				if (repeated.annotationType() == annotationType || isMetaAnnotatedWith(repeated, annotationType)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean isMetaAnnotatedWith(Annotation annotation, Class<? extends Annotation> annotationType) {
+		return annotation.annotationType().isAnnotationPresent(annotationType);
+	}
+
+	private static List<MethodInvoker> unmodifiableList(List<MethodInvoker> invokers) {
+		if (invokers.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(Arrays.asList(invokers.toArray(new MethodInvoker[invokers.size()])));
+	}
+
+	@Override
+	public String toString() {
+		return "DispatchTable [annotationType=" + annotationType + ", payloadTypes=" + invokersByPayloadType.keySet()
+				+ "]";
+	}
+}
@@ -0,0 +1,99 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import static java.util.Objects.requireNonNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invokes a discovered annotated {@link Method}, whose first parameter is the
+ * payload (e.g. a command or an event), that it handles.
+ * <p>
+ * The {@link Method} is made accessible once, when the {@link MethodInvoker} is
+ * created, so that private handler methods can be invoked too.
+ * 
+ * @author Johannes Troppacher
+ * @see DispatchTable
+ */
+public final class MethodInvoker {
+
+	private final Method method;
+
+	MethodInvoker(Method method) {
+		this.method = requireNonNull(method, "method");
+		this.method.setAccessible(true);
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	public Class<?> getDeclaringClass() {
+		return method.getDeclaringClass();
+	}
+
+	/**
+	 * Gets the type of the first parameter, that the method handles.
+	 * 
+	 * @return {@link Class} of the payload
+	 */
+	public Class<?> getPayloadType() {
+		return method.getParameterTypes()[0];
+	}
+
+	public boolean isStatic() {
+		return Modifier.isStatic(method.getModifiers());
+	}
+
+	/**
+	 * Invokes the method.
+	 * 
+	 * @param target    - instance of {@link #getDeclaringClass()} or
+	 *                  <code>null</code> for static methods
+	 * @param arguments - payload followed by further parameters (if any)
+	 * @return result of the method or <code>null</code> for <code>void</code>
+	 * @throws InvocationTargetException if the method threw an exception
+	 */
+	public Object invoke(Object target, Object... arguments) throws InvocationTargetException {
+		try {
+			return method.invoke(target, arguments);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Method is not accessible: " + method, e);
+		}
+	}
+
+	@Override
+	public boolean equals(final Object other) {
+		if (other == null) {
+			return false;
+		}
+		if (!getClass().equals(other.getClass())) {
+			return false;
+		}
+		return method.equals(((MethodInvoker) other).method);
+	}
+
+	@Override
+	public int hashCode() {
+		return method.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "MethodInvoker [method=" + method + "]";
+	}
+}
@@ -0,0 +1,105 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.beans.ConstructorProperties;
+import java.io.Serializable;
+
+/**
+ * Snapshot of the statistics of the query result cache of
+ * {@link DiscoveredTypes}.
+ * 
+ * @author Johannes Troppacher
+ */
+public final class QueryCacheStatistics implements Serializable {
+
+	private static final long serialVersionUID = -3497245183547219815L;
+
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final int size;
+	private final int capacity;
+
+	@ConstructorProperties({ "hits", "misses", "evictions", "size", "capacity" })
+	public QueryCacheStatistics(long hits, long misses, long evictions, int size, int capacity) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.size = size;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Gets the number of queries, that were answered by the cache.
+	 * 
+	 * @return number of cache hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of queries, that needed to be computed.
+	 * 
+	 * @return number of cache misses
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Gets the number of cached results, that were removed to keep the cache
+	 * within its capacity.
+	 * 
+	 * @return number of evictions
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Gets the current number of cached results.
+	 * 
+	 * @return number of cache entries
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets the maximum number of cached results.
+	 * 
+	 * @return capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the ratio of hits to all queries.
+	 * 
+	 * @return hit ratio between 0 and 1, or 0 if there was no query yet
+	 */
+	public double getHitRatio() {
+		long requests = hits + misses;
+		return (requests > 0) ? (double) hits / requests : 0.0;
+	}
+
+	@Override
+	public String toString() {
+		return "QueryCacheStatistics [hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", size="
+				+ size + ", capacity=" + capacity + "]";
+	}
+}
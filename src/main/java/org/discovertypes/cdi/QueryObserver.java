@@ -0,0 +1,51 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Gets notified about every query of {@link DiscoveredTypes}, e.g. to collect
+ * metrics.
+ * <p>
+ * Implementations are called on the querying thread and therefore need to be
+ * thread-safe and fast.
+ * 
+ * @author Johannes Troppacher
+ */
+public interface QueryObserver {
+
+	/**
+	 * Called after {@link DiscoveredTypes#annotatedWith(Class)}.
+	 * 
+	 * @param annotationType - queried annotation type
+	 * @param results        - number of found types
+	 * @param nanos          - duration of the query in nanoseconds
+	 */
+	void annotatedWith(Class<? extends Annotation> annotationType, int results, long nanos);
+
+	/**
+	 * Called after {@link DiscoveredTypes#annotatedWithAnyOf(Iterable)}.
+	 * 
+	 * @param annotationTypes - queried annotation types
+	 * @param results         - number of found types
+	 * @param nanos           - duration of the query in nanoseconds
+	 */
+	void annotatedWithAnyOf(Iterable<Class<? extends Annotation>> annotationTypes, int results, long nanos);
+
+	/**
+	 * Called when {@link DiscoveredTypes#iterator()} is called.
+	 */
+	void iterated();
+}
@@ -0,0 +1,145 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache for query results with approximate least recently used (LRU)
+ * eviction using the CLOCK (second chance) algorithm.
+ * <p>
+ * Readers don't lock: a hit is a {@link ConcurrentHashMap} lookup plus setting
+ * the referenced flag of the entry, if it isn't already set. Misses of a full
+ * cache advance the clock hand over the slots of the entries, clear the
+ * referenced flags and evict the first entry, that had not been referenced
+ * since the hand passed it. This takes constant time amortized over all
+ * misses. Misses that insert an entry are synchronized. Hits, misses and
+ * evictions are counted with striped {@link LongAdder}s.
+ * 
+ * @author Johannes Troppacher
+ */
+class QueryResultCache<K, V> {
+
+	private final int capacity;
+	private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	/**
+	 * Keys of the entries by their slot, guarded by <code>this</code>.
+	 */
+	private final Object[] slots;
+	private int usedSlots;
+	private int hand;
+
+	/**
+	 * Creates a {@link QueryResultCache} with the given maximum number of entries.
+	 * A capacity of 0 disables caching.
+	 * 
+	 * @param capacity - maximum number of entries
+	 */
+	QueryResultCache(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity may not be negative, but was " + capacity);
+		}
+		this.capacity = capacity;
+		this.slots = new Object[capacity];
+	}
+
+	/**
+	 * Gets the cached value of the given key or computes, caches and returns it.
+	 * The value may be computed more than once, if concurrent misses for the same
+	 * key occur.
+	 * 
+	 * @param key     - key
+	 * @param compute - {@link Function}, that computes the value of a key
+	 * @return value
+	 */
+	V get(K key, Function<? super K, ? extends V> compute) {
+		Entry<V> entry = entries.get(key);
+		if (entry != null) {
+			hits.increment();
+			if (!entry.referenced) {
+				entry.referenced = true;
+			}
+			return entry.value;
+		}
+		misses.increment();
+		V value = compute.apply(key);
+		if (capacity > 0) {
+			put(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Removes all entries. The statistics are kept.
+	 */
+	synchronized void clear() {
+		entries.clear();
+		Arrays.fill(slots, null);
+		usedSlots = 0;
+		hand = 0;
+	}
+
+	QueryCacheStatistics statistics() {
+		return new QueryCacheStatistics(hits.sum(), misses.sum(), evictions.sum(), entries.size(), capacity);
+	}
+
+	private synchronized void put(K key, V value) {
+		if (entries.containsKey(key)) {
+			return;
+		}
+		int slot = (usedSlots < capacity) ? usedSlots++ : evict();
+		slots[slot] = key;
+		entries.put(key, new Entry<>(value));
+	}
+
+	/**
+	 * Evicts the next entry, that had not been referenced since the clock hand
+	 * passed it the last time, and returns its slot.
+	 */
+	private int evict() {
+		while (true) {
+			int slot = hand;
+			hand = (hand + 1) % capacity;
+			Entry<V> entry = entries.get(slots[slot]);
+			if (entry != null && entry.referenced) {
+				entry.referenced = false;
+				continue;
+			}
+			entries.remove(slots[slot]);
+			evictions.increment();
+			return slot;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "QueryResultCache [" + statistics() + "]";
+	}
+
+	private static class Entry<V> {
+		private final V value;
+		private volatile boolean referenced;
+
+		Entry(V value) {
+			this.value = value;
+		}
+	}
+}
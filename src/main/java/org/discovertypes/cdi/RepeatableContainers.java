@@ -0,0 +1,102 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Repeatable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+/**
+ * Unwraps the annotations of containers of {@link Repeatable} annotations,
+ * which are the only ones returned by
+ * {@link java.lang.reflect.AnnotatedElement#getAnnotations()} for annotations,
+ * that are repeated.
+ * <p>
+ * Whether an annotation type is a container is resolved once per annotation
+ * type. Its <code>value()</code> accessor is kept in a {@link ClassValue}. The
+ * values only consist of JDK classes and the annotation type itself, so that
+ * the cached values of JDK annotation types don't keep the class loader of
+ * this library reachable and vice versa.
+ * 
+ * @author Johannes Troppacher
+ */
+final class RepeatableContainers {
+
+	private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+	private static final ClassValue<Optional<Method>> VALUE_ACCESSORS = new ClassValue<Optional<Method>>() {
+		@Override
+		protected Optional<Method> computeValue(Class<?> annotationType) {
+			return Optional.ofNullable(containerValueOf(annotationType));
+		}
+	};
+
+	private RepeatableContainers() {
+		super();
+	}
+
+	/**
+	 * Gets the repeated annotations contained in the given annotation, if it is
+	 * the container of a {@link Repeatable} annotation. Otherwise, the result is
+	 * empty.
+	 * 
+	 * @param annotation - {@link Annotation}
+	 * @return contained {@link Annotation}s
+	 */
+	static Annotation[] repeatedIn(Annotation annotation) {
+		Method value = VALUE_ACCESSORS.get(annotation.annotationType()).orElse(null);
+		if (value == null) {
+			return NO_ANNOTATIONS;
+		}
+		try {
+			return (Annotation[]) value.invoke(annotation);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Repeated annotations of " + annotation + " not readable", e);
+		}
+	}
+
+	/**
+	 * Gets the <code>value()</code> accessor of the given annotation type, if it
+	 * is the container of a {@link Repeatable} annotation, or <code>null</code>
+	 * otherwise.
+	 */
+	private static Method containerValueOf(Class<?> annotationType) {
+		Method value = valueMethodOf(annotationType);
+		if (value == null || !isRepeatableIn(value.getReturnType().getComponentType(), annotationType)) {
+			return null;
+		}
+		try {
+			value.setAccessible(true);
+		} catch (RuntimeException e) {
+			// public accessors of public annotation types remain accessible
+		}
+		return value;
+	}
+
+	private static Method valueMethodOf(Class<?> annotationType) {
+		try {
+			Method value = annotationType.getDeclaredMethod("value");
+			return value.getReturnType().isArray() ? value : null;
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	private static boolean isRepeatableIn(Class<?> componentType, Class<?> annotationType) {
+		Repeatable repeatable = componentType.getAnnotation(Repeatable.class);
+		return repeatable != null && repeatable.value() == annotationType;
+	}
+}
@@ -0,0 +1,164 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.extension;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+
+/**
+ * Eagerly creates the contextual instances of {@link ApplicationScoped} beans
+ * of the discovered types, that are annotated with one of the selected
+ * annotation types, in parallel on a bounded number of threads.
+ * <p>
+ * Beans of other normal scopes (e.g. <code>@RequestScoped</code>) are skipped,
+ * since their contexts are not active on the warmup threads.
+ * <p>
+ * The duration is logged with {@link Level#INFO}, each failure with
+ * {@link Level#WARNING}. Failures don't affect the deployment, since the beans
+ * are created again on their first use.
+ * 
+ * @author Johannes Troppacher
+ */
+final class BeanWarmup {
+
+	private static final Logger LOGGER = Logger.getLogger(BeanWarmup.class.getName());
+
+	private final Set<String> annotationTypeNames;
+	private final int threads;
+
+	private BeanWarmup(Set<String> annotationTypeNames, int threads) {
+		this.annotationTypeNames = annotationTypeNames;
+		this.threads = threads;
+	}
+
+	/**
+	 * Creates a {@link BeanWarmup} for the given comma separated fully qualified
+	 * annotation type names.
+	 * 
+	 * @param annotationTypeNames - comma separated annotation type names or
+	 *                            <code>null</code>
+	 * @param threads             - maximum number of threads
+	 * @return {@link BeanWarmup}
+	 */
+	static BeanWarmup of(String annotationTypeNames, int threads) {
+		Set<String> names = new HashSet<>();
+		if (annotationTypeNames != null) {
+			for (String name : annotationTypeNames.split(",")) {
+				if (!name.trim().isEmpty()) {
+					names.add(name.trim());
+				}
+			}
+		}
+		return new BeanWarmup(names, Math.max(1, threads));
+	}
+
+	boolean isEnabled() {
+		return !annotationTypeNames.isEmpty();
+	}
+
+	/**
+	 * Creates the contextual instances of the selected beans and waits until all
+	 * of them are created.
+	 * 
+	 * @param discovered  - {@link DiscoveredTypes}
+	 * @param beanManager - {@link BeanManager}
+	 * @return number of failed beans
+	 */
+	int warmup(DiscoveredTypes discovered, BeanManager beanManager) {
+		List<Bean<?>> beans = beansOf(discovered, beanManager);
+		if (beans.isEmpty()) {
+			return 0;
+		}
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, beans.size()),
+				new DaemonThreads("discovertypes-warmup"));
+		try {
+			List<Future<?>> warmups = new ArrayList<>(beans.size());
+			for (Bean<?> bean : beans) {
+				warmups.add(executor.submit(() -> createInstance(bean, beanManager)));
+			}
+			int failures = awaitWarmups(warmups, beans);
+			LOGGER.info("warmed up " + (beans.size() - failures) + " of " + beans.size() + " beans in "
+					+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+			return failures;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private List<Bean<?>> beansOf(DiscoveredTypes discovered, BeanManager beanManager) {
+		List<Class<? extends Annotation>> annotationTypes = new ArrayList<>();
+		for (Class<? extends Annotation> annotationType : discovered.getAnnotationTypes()) {
+			if (annotationTypeNames.contains(annotationType.getName())) {
+				annotationTypes.add(annotationType);
+			}
+		}
+		Set<Bean<?>> beans = new LinkedHashSet<>();
+		for (DiscoveredType discoveredType : discovered.annotatedWithAnyOf(annotationTypes)) {
+			for (Bean<?> bean : beanManager.getBeans(discoveredType.getAnnotatedClass())) {
+				if (bean.getBeanClass().equals(discoveredType.getAnnotatedClass())
+						&& ApplicationScoped.class.equals(bean.getScope())) {
+					beans.add(bean);
+				}
+			}
+		}
+		return new ArrayList<>(beans);
+	}
+
+	private static <T> void createInstance(Bean<T> bean, BeanManager beanManager) {
+		CreationalContext<T> creationalContext = beanManager.createCreationalContext(bean);
+		beanManager.getContext(bean.getScope()).get(bean, creationalContext);
+	}
+
+	private static int awaitWarmups(List<Future<?>> warmups, List<Bean<?>> beans) {
+		int failures = 0;
+		for (int i = 0; i < beans.size(); i++) {
+			try {
+				warmups.get(i).get();
+			} catch (ExecutionException e) {
+				failures++;
+				LOGGER.log(Level.WARNING, "warmup failed for " + beans.get(i).getBeanClass().getName(), e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return failures + beans.size() - i;
+			}
+		}
+		return failures;
+	}
+
+	@Override
+	public String toString() {
+		return "BeanWarmup [annotationTypeNames=" + annotationTypeNames + ", threads=" + threads + "]";
+	}
+
+}
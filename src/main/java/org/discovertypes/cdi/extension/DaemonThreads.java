@@ -0,0 +1,51 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.extension;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the daemon threads of the executors, that the extension uses during
+ * startup.
+ * <p>
+ * The extension uses its own executors instead of shared pools (e.g. the
+ * common {@link java.util.concurrent.ForkJoinPool}), and shuts them down after
+ * startup. Shared pool threads could otherwise keep the context
+ * {@link ClassLoader} of the deployment, that created them, after it had been
+ * undeployed.
+ * 
+ * @author Johannes Troppacher
+ */
+final class DaemonThreads implements ThreadFactory {
+
+	private final String namePrefix;
+	private final AtomicInteger count = new AtomicInteger();
+
+	DaemonThreads(String namePrefix) {
+		this.namePrefix = namePrefix;
+	}
+
+	@Override
+	public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, namePrefix + "-" + count.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	@Override
+	public String toString() {
+		return "DaemonThreads [namePrefix=" + namePrefix + ", count=" + count + "]";
+	}
+}
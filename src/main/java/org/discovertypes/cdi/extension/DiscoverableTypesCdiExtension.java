@@ -13,8 +13,15 @@
 //limitations under the License.
 package org.discovertypes.cdi.extension;
 
+import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
 import javax.enterprise.context.spi.CreationalContext;
@@ -22,14 +29,23 @@ import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Instance;
 import javax.enterprise.inject.spi.AfterDeploymentValidation;
 import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeforeBeanDiscovery;
+import javax.enterprise.inject.spi.BeforeShutdown;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.Extension;
 import javax.enterprise.inject.spi.ProcessAnnotatedType;
 import javax.enterprise.inject.spi.WithAnnotations;
 
+import org.discovertypes.cdi.AnnotationTypeDiscovered;
 import org.discovertypes.cdi.Discoverable;
 import org.discovertypes.cdi.DiscoveredType;
 import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.DiscoveredWith;
+import org.discovertypes.cdi.DiscoveryListener;
+import org.discovertypes.cdi.internal.CollectedLocations;
+import org.discovertypes.cdi.jfr.FlightRecorderEvents;
+import org.discovertypes.cdi.monitoring.DiscoveredTypesMXBean;
+import org.discovertypes.cdi.monitoring.DiscoveredTypesMonitor;
 
 /**
  * This CDI-Extension tracks all {@link ProcessAnnotatedType}-Events of types
@@ -48,29 +64,304 @@ import org.discovertypes.cdi.DiscoveredTypes;
  * <li><code>@Inject @MyQualifier Instance<Object> allInstances;</code>
  * <li><code>@Inject @Any Instance<Object> allInstances; </code>
  * </ul>
+ * <p>
+ * The veto of {@link Discoverable#ignoreBean()} types is decided using only
+ * their type annotations. The annotations of the discovered types are
+ * collected asynchronously and awaited in {@link AfterDeploymentValidation}, so
+ * that the container startup isn't blocked by them. Afterwards, the extension
+ * releases all of its discovery state and threads, so that nothing keeps the
+ * {@link ClassLoader} of an undeployed application. Set the system property
+ * {@value #ASYNC_DISCOVERY_PROPERTY} to <code>false</code> to collect them
+ * synchronously.
+ * <p>
+ * After {@link DiscoveredTypes} had been initialized, an
+ * {@link AnnotationTypeDiscovered} event qualified with {@link DiscoveredWith}
+ * is fired for each discovered annotation type, so that independent consumers
+ * can initialize themselves without iterating {@link DiscoveredTypes}. Set the
+ * system property {@value #ASYNC_EVENTS_PROPERTY} to <code>true</code> to fire
+ * them concurrently on threads without an active request context, so that
+ * their observers must not use <code>@RequestScoped</code> beans. They are
+ * awaited in {@link AfterDeploymentValidation} either way.
+ * <p>
+ * Set the system property {@value #WARMUP_PROPERTY} to a comma separated list of
+ * fully qualified annotation type names to eagerly create the normal scoped
+ * (e.g. <code>@ApplicationScoped</code>) beans of the discovered types
+ * annotated with them in parallel during {@link AfterDeploymentValidation}.
+ * The number of threads can be set using {@value #WARMUP_THREADS_PROPERTY}
+ * (default: number of available processors).
+ * <p>
+ * The locations (e.g. methods, parameters), whose annotations are collected,
+ * can be restricted globally using the system property
+ * {@value DiscoveredType#COLLECTED_LOCATIONS_PROPERTY} and per annotation using
+ * {@link Discoverable#locations()}.
+ * <p>
+ * Set the system property {@value #JMX_PROPERTY} to <code>true</code> to
+ * register a {@link DiscoveredTypesMXBean}, that exposes the index sizes and
+ * query metrics of {@link DiscoveredTypes}.
+ * <p>
+ * The discovery of each type and the initialization of {@link DiscoveredTypes}
+ * are recorded as Java Flight Recorder events (see
+ * {@link FlightRecorderEvents}). Set the system property
+ * {@value #JFR_QUERY_SAMPLE_RATE_PROPERTY} to <code>n</code> to also record
+ * about every n-th query.
+ * <p>
+ * Every {@link DiscoveryListener} registered using the
+ * {@link java.util.ServiceLoader} is notified about each discovered type as
+ * soon as its annotations had been collected, and about the completion in
+ * {@link AfterDeploymentValidation}.
+ * <p>
+ * Set the system property {@value #REPORT_PROPERTY} to <code>true</code> to log
+ * a report of the discovery (e.g. time per collector, slowest types, index
+ * size) at the end of {@link AfterDeploymentValidation}. The number of listed
+ * slowest types can be set using {@value #REPORT_SLOWEST_TYPES_PROPERTY}
+ * (default: {@value #DEFAULT_REPORT_SLOWEST_TYPES}).
  * 
  * @author Johannes Troppacher
  */
 public class DiscoverableTypesCdiExtension implements Extension {
 
+	/**
+	 * System property, that enables the {@link DiscoveredTypesMXBean}, if set to
+	 * <code>true</code>.
+	 */
+	public static final String JMX_PROPERTY = "org.discovertypes.cdi.jmx";
+
+	/**
+	 * System property, that enables Java Flight Recorder events for about every
+	 * n-th query, if set to a positive number n.
+	 */
+	public static final String JFR_QUERY_SAMPLE_RATE_PROPERTY = "org.discovertypes.cdi.jfr.querySampleRate";
+
+	/**
+	 * System property, that disables the asynchronous collection of the
+	 * annotations of discovered types, if set to <code>false</code>.
+	 */
+	public static final String ASYNC_DISCOVERY_PROPERTY = "org.discovertypes.cdi.asyncDiscovery";
+
+	/**
+	 * System property, that fires the {@link AnnotationTypeDiscovered} events
+	 * concurrently, if set to <code>true</code>. The observers are then notified
+	 * on pool threads without an active request context.
+	 */
+	public static final String ASYNC_EVENTS_PROPERTY = "org.discovertypes.cdi.asyncEvents";
+
+	/**
+	 * System property with the comma separated fully qualified names of the
+	 * annotation types, whose discovered <code>@ApplicationScoped</code> beans are
+	 * created eagerly in parallel.
+	 */
+	public static final String WARMUP_PROPERTY = "org.discovertypes.cdi.warmup";
+
+	/**
+	 * System property with the maximum number of threads used to create the beans
+	 * selected by {@value #WARMUP_PROPERTY}.
+	 */
+	public static final String WARMUP_THREADS_PROPERTY = "org.discovertypes.cdi.warmupThreads";
+
+	/**
+	 * System property, that enables the logging of a report about the discovery
+	 * at the end of {@link AfterDeploymentValidation}, if set to
+	 * <code>true</code>.
+	 */
+	public static final String REPORT_PROPERTY = "org.discovertypes.cdi.report";
+
+	/**
+	 * System property with the number of the slowest discovered types listed in
+	 * the report enabled by {@value #REPORT_PROPERTY}.
+	 */
+	public static final String REPORT_SLOWEST_TYPES_PROPERTY = "org.discovertypes.cdi.reportSlowestTypes";
+
+	/**
+	 * Default number of the slowest discovered types listed in the report.
+	 */
+	public static final int DEFAULT_REPORT_SLOWEST_TYPES = 10;
+
 	private static final Logger LOGGER = Logger.getLogger(DiscoverableTypesCdiExtension.class.getName());
 
-	private List<DiscoveredType> discoveredTypes = new ArrayList<>();
+	private List<CompletableFuture<DiscoveredType>> discoveries = new ArrayList<>();
+	private DiscoveredTypesMonitor monitor;
+	private ExecutorService executor;
+	private DiscoveryReport report;
+	private List<DiscoveryListener> listeners;
+	private boolean reportEnabled;
+	private boolean asyncDiscovery = true;
+
+	/**
+	 * Reads the system properties, that are needed for every discovered type,
+	 * once per deployment.
+	 */
+	void beforeBeanDiscovery(@Observes BeforeBeanDiscovery event) {
+		reportEnabled = Boolean.getBoolean(REPORT_PROPERTY);
+		asyncDiscovery = Boolean.parseBoolean(System.getProperty(ASYNC_DISCOVERY_PROPERTY, "true"));
+		CollectedLocations.reconfigure();
+	}
 
 	<T> void processDiscoverable(@Observes @WithAnnotations({ Discoverable.class }) ProcessAnnotatedType<T> event) {
-		DiscoveredType discoveredType = DiscoveredType.of(event.getAnnotatedType());
-		discoveredTypes.add(discoveredType);
-		if (discoveredType.isIgnoredBean()) {
+		Class<T> javaClass = event.getAnnotatedType().getJavaClass();
+		if (DiscoveredType.isIgnoredBean(javaClass)) {
 			event.veto();
-			LOGGER.finer("ignored type (veto): " + event.getAnnotatedType().getJavaClass());
+			LOGGER.finer("ignored type (veto): " + javaClass);
+		}
+		if (listeners == null) {
+			listeners = loadListeners();
+		}
+		if (report == null && reportEnabled) {
+			report = new DiscoveryReport(
+					Integer.getInteger(REPORT_SLOWEST_TYPES_PROPERTY, DEFAULT_REPORT_SLOWEST_TYPES).intValue());
 		}
-		LOGGER.finer("discovered: " + event.getAnnotatedType().getJavaClass());
+		discoveries.add(discover(javaClass));
+		LOGGER.finer("discovered: " + javaClass);
 	}
 
 	void afterDeploymentValidation(@Observes AfterDeploymentValidation event, BeanManager beanManager) {
+		List<DiscoveredType> discoveredTypes = awaitDiscoveries(event);
+		discoveries = Collections.emptyList();
 		DiscoveredTypes discovered = lookupBean(DiscoveredTypes.class, beanManager);
-		discovered.initializeWith(discoveredTypes);
+		if (report != null) {
+			report.initialize(discovered, discoveredTypes);
+		} else {
+			FlightRecorderEvents.initialize(discovered, discoveredTypes);
+		}
 		LOGGER.finer("all discovered types added to " + discovered);
+		notifyCompleted(discovered, event);
+		fireAnnotationTypesDiscovered(discovered, beanManager, event);
+		shutdownExecutor();
+		BeanWarmup warmup = BeanWarmup.of(System.getProperty(WARMUP_PROPERTY),
+				Integer.getInteger(WARMUP_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()).intValue());
+		if (warmup.isEnabled()) {
+			int failures = warmup.warmup(discovered, beanManager);
+			if (failures > 0) {
+				LOGGER.warning(failures + " beans not warmed up (see the preceding warnings), "
+						+ "they will be created on their first use");
+			}
+		}
+		int querySampleRate = Integer.getInteger(JFR_QUERY_SAMPLE_RATE_PROPERTY, 0).intValue();
+		if (querySampleRate > 0 && FlightRecorderEvents.isAvailable()) {
+			discovered.addQueryObserver(FlightRecorderEvents.sampledQueries(querySampleRate));
+		}
+		if (Boolean.getBoolean(JMX_PROPERTY)) {
+			monitor = DiscoveredTypesMonitor.of(discovered, Integer.toHexString(System.identityHashCode(this)));
+			monitor.register();
+			LOGGER.fine("registered MBean " + monitor.getObjectName());
+		}
+		if (report != null) {
+			LOGGER.info(report.format(discovered));
+			report = null;
+		}
+	}
+
+	void beforeShutdown(@Observes BeforeShutdown event) {
+		shutdownExecutor();
+		report = null;
+		listeners = null;
+		if (monitor != null) {
+			monitor.unregister();
+			monitor = null;
+		}
+	}
+
+	private CompletableFuture<DiscoveredType> discover(Class<?> javaClass) {
+		if (!asyncDiscovery) {
+			// failures are reported by awaitDiscoveries like the asynchronous ones
+			CompletableFuture<DiscoveredType> discovery = new CompletableFuture<>();
+			try {
+				discovery.complete(discoverNow(javaClass));
+			} catch (RuntimeException e) {
+				discovery.completeExceptionally(e);
+			}
+			return discovery;
+		}
+		return CompletableFuture.supplyAsync(() -> discoverNow(javaClass), executor());
+	}
+
+	private DiscoveredType discoverNow(Class<?> javaClass) {
+		DiscoveryReport discoveryReport = report;
+		DiscoveredType discoveredType = (discoveryReport != null) ? discoveryReport.discover(javaClass)
+				: FlightRecorderEvents.discover(javaClass);
+		for (DiscoveryListener listener : listeners) {
+			listener.discovered(discoveredType);
+		}
+		return discoveredType;
+	}
+
+	private static List<DiscoveryListener> loadListeners() {
+		List<DiscoveryListener> loaded = new ArrayList<>();
+		for (DiscoveryListener listener : ServiceLoader.load(DiscoveryListener.class)) {
+			loaded.add(listener);
+			LOGGER.fine("loaded discovery listener " + listener);
+		}
+		return loaded;
+	}
+
+	/**
+	 * Notifies the {@link DiscoveryListener}s about the completed discovery and
+	 * releases them.
+	 */
+	private void notifyCompleted(DiscoveredTypes discovered, AfterDeploymentValidation event) {
+		for (DiscoveryListener listener : (listeners != null) ? listeners : loadListeners()) {
+			try {
+				listener.completed(discovered);
+			} catch (RuntimeException e) {
+				event.addDeploymentProblem(e);
+			}
+		}
+		listeners = null;
+	}
+
+	/**
+	 * Gets the {@link ExecutorService} for the asynchronous work during startup,
+	 * that is shut down afterwards, so that no thread outlives the deployment.
+	 */
+	private synchronized ExecutorService executor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new DaemonThreads("discovertypes-discovery"));
+		}
+		return executor;
+	}
+
+	private synchronized void shutdownExecutor() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	private List<DiscoveredType> awaitDiscoveries(AfterDeploymentValidation event) {
+		List<DiscoveredType> discoveredTypes = new ArrayList<>(discoveries.size());
+		for (CompletableFuture<DiscoveredType> discovery : discoveries) {
+			try {
+				discoveredTypes.add(discovery.join());
+			} catch (CompletionException e) {
+				event.addDeploymentProblem(e.getCause());
+			}
+		}
+		return discoveredTypes;
+	}
+
+	private void fireAnnotationTypesDiscovered(DiscoveredTypes discovered, BeanManager beanManager,
+			AfterDeploymentValidation event) {
+		boolean async = Boolean.getBoolean(ASYNC_EVENTS_PROPERTY);
+		List<CompletableFuture<Void>> firedEvents = new ArrayList<>();
+		for (Class<? extends Annotation> annotationType : discovered.getAnnotationTypes()) {
+			AnnotationTypeDiscovered discoveredEvent = new AnnotationTypeDiscovered(annotationType,
+					discovered.annotatedWith(annotationType));
+			Annotation qualifier = DiscoveredWith.Literal.of(annotationType);
+			if (async) {
+				firedEvents.add(CompletableFuture.runAsync(() -> beanManager.fireEvent(discoveredEvent, qualifier),
+						executor()));
+			} else {
+				beanManager.fireEvent(discoveredEvent, qualifier);
+			}
+		}
+		for (CompletableFuture<Void> firedEvent : firedEvents) {
+			try {
+				firedEvent.join();
+			} catch (CompletionException e) {
+				event.addDeploymentProblem(e.getCause());
+			}
+		}
+		LOGGER.finer("fired AnnotationTypeDiscovered events (async=" + async + ")");
 	}
 
 	@SuppressWarnings("unchecked")
@@ -82,6 +373,8 @@ public class DiscoverableTypesCdiExtension implements Extension {
 
 	@Override
 	public String toString() {
-		return "DiscoverableTypesCdiExtension [discoveredTypes=" + discoveredTypes + "]";
+		return "DiscoverableTypesCdiExtension [discoveries=" + discoveries.size() + ", monitor=" + monitor
+				+ ", executor=" + executor + ", report=" + report + ", listeners=" + listeners + ", reportEnabled="
+				+ reportEnabled + ", asyncDiscovery=" + asyncDiscovery + "]";
 	}
 }
\ No newline at end of file
@@ -0,0 +1,301 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.extension;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+import javax.enterprise.inject.spi.AfterDeploymentValidation;
+
+import org.discovertypes.cdi.AnnotationLocation;
+import org.discovertypes.cdi.CollectorTimings;
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.jfr.FlightRecorderEvents;
+
+/**
+ * Measures the discovery of types during the container startup and summarizes
+ * it as text, that is logged in {@link AfterDeploymentValidation}.
+ * <p>
+ * The report contains the total discovery time, the time per
+ * {@link AnnotationLocation} (collector), the slowest types, the number of
+ * members of the discovered types, the number of index keys of
+ * {@link DiscoveredTypes} and an estimation of their retained size. Types may
+ * be discovered concurrently.
+ * 
+ * @author Johannes Troppacher
+ */
+final class DiscoveryReport {
+
+	private static final int OBJECT_HEADER = 12;
+	private static final int ARRAY_HEADER = 16;
+	private static final int REFERENCE = 4;
+	private static final int ALIGNMENT = 8;
+	/**
+	 * Shallow size of a {@link DiscoveredType}, derived from its fields.
+	 */
+	private static final long DISCOVERED_TYPE_SIZE = shallowSizeOf(DiscoveredType.class);
+	/**
+	 * Shallow size of a {@link java.util.HashMap}.
+	 */
+	private static final int HASH_MAP_SIZE = 48;
+	/**
+	 * Shallow size of an entry of a {@link java.util.HashMap}.
+	 */
+	private static final int HASH_MAP_ENTRY_SIZE = 32;
+
+	private final int slowestLimit;
+	private final long startNanos = System.nanoTime();
+	private final long[] nanosPerLocation = new long[AnnotationLocation.values().length];
+	private final PriorityQueue<TypeDiscovery> slowest = new PriorityQueue<>(
+			Comparator.comparingLong(TypeDiscovery::getNanos));
+	private final Members members = new Members();
+	private int discoveredTypes;
+	private long discoveryNanos;
+	private long initializationNanos;
+	private long elapsedNanos;
+
+	DiscoveryReport(int slowestLimit) {
+		this.slowestLimit = slowestLimit;
+	}
+
+	/**
+	 * Creates a new {@link DiscoveredType} of the given {@link Class} and adds
+	 * its measurements to this report.
+	 */
+	DiscoveredType discover(Class<?> type) {
+		CollectorTimings timings = new CollectorTimings();
+		long start = System.nanoTime();
+		DiscoveredType discoveredType = FlightRecorderEvents.discover(type, timings);
+		long nanos = System.nanoTime() - start;
+		add(new TypeDiscovery(type.getName(), nanos, Members.of(discoveredType)), timings);
+		return discoveredType;
+	}
+
+	private synchronized void add(TypeDiscovery discovery, CollectorTimings timings) {
+		discoveredTypes++;
+		discoveryNanos += discovery.getNanos();
+		for (AnnotationLocation location : AnnotationLocation.values()) {
+			nanosPerLocation[location.ordinal()] += timings.nanosOf(location);
+		}
+		members.add(discovery.members);
+		slowest.add(discovery);
+		if (slowest.size() > slowestLimit) {
+			slowest.poll();
+		}
+	}
+
+	/**
+	 * Initializes the {@link DiscoveredTypes} with the given
+	 * {@link DiscoveredType}s and measures the time spent to index them.
+	 */
+	void initialize(DiscoveredTypes discovered, Collection<? extends DiscoveredType> types) {
+		long start = System.nanoTime();
+		FlightRecorderEvents.initialize(discovered, types);
+		long end = System.nanoTime();
+		synchronized (this) {
+			initializationNanos = end - start;
+			elapsedNanos = end - startNanos;
+		}
+	}
+
+	/**
+	 * Gets the report as text using the index of the given
+	 * {@link DiscoveredTypes}.
+	 */
+	synchronized String format(DiscoveredTypes discovered) {
+		StringBuilder report = new StringBuilder("Discovery report:");
+		report.append("\n  discovered types: ").append(discoveredTypes);
+		report.append("\n  discovery time: ").append(millisOf(discoveryNanos)).append(" (summed up)");
+		report.append("\n  index initialization time: ").append(millisOf(initializationNanos));
+		report.append("\n  elapsed since first discovery: ").append(millisOf(elapsedNanos));
+		report.append("\n  collector times:");
+		for (AnnotationLocation location : AnnotationLocation.values()) {
+			if (nanosPerLocation[location.ordinal()] > 0) {
+				report.append("\n    ").append(location).append(": ")
+						.append(millisOf(nanosPerLocation[location.ordinal()]));
+			}
+		}
+		report.append("\n  members: ").append(members);
+		int indexEntries = 0;
+		for (Class<? extends Annotation> annotationType : discovered.getAnnotationTypes()) {
+			indexEntries += discovered.countAnnotatedWith(annotationType);
+		}
+		report.append("\n  index keys: ").append(discovered.getAnnotationTypes().size()).append(" annotation types, ")
+				.append(indexEntries).append(" entries");
+		report.append("\n  estimated retained size: ").append(estimateRetainedSize(discovered, indexEntries))
+				.append(" bytes");
+		report.append("\n  slowest types:");
+		for (TypeDiscovery discovery : slowestTypes()) {
+			report.append("\n    ").append(discovery);
+		}
+		return report.toString();
+	}
+
+	/**
+	 * Gets the slowest discovered types, beginning with the slowest one.
+	 */
+	synchronized List<TypeDiscovery> slowestTypes() {
+		List<TypeDiscovery> slowestTypes = new ArrayList<>(slowest);
+		slowestTypes.sort(Comparator.comparingLong(TypeDiscovery::getNanos).reversed());
+		return slowestTypes;
+	}
+
+	/**
+	 * Estimates the retained size of the given {@link DiscoveredTypes} for a
+	 * 64-bit JVM with compressed references without the shared {@link Class}es
+	 * and {@link Annotation}s. The number of distinct annotations of a type is
+	 * approximated by the number of its annotation types.
+	 */
+	static long estimateRetainedSize(DiscoveredTypes discovered, int indexEntries) {
+		long size = 0;
+		int types = 0;
+		for (DiscoveredType discoveredType : discovered) {
+			int annotations = discoveredType.getAnnotationTypes().size();
+			size += DISCOVERED_TYPE_SIZE;
+			size += aligned(ARRAY_HEADER + annotations * REFERENCE);
+			size += aligned(ARRAY_HEADER + annotations);
+			size += aligned(ARRAY_HEADER + annotations * 4);
+			int qualifiers = discoveredType.getQualifiers().length;
+			if (qualifiers > 0) {
+				size += aligned(ARRAY_HEADER + qualifiers * REFERENCE);
+			}
+			types++;
+		}
+		int indexKeys = discovered.getAnnotationTypes().size();
+		size += HASH_MAP_SIZE + aligned(ARRAY_HEADER + tableSizeOf(indexKeys) * REFERENCE);
+		size += (long) indexKeys * (HASH_MAP_ENTRY_SIZE + ARRAY_HEADER) + aligned((long) indexEntries * REFERENCE);
+		size += aligned(ARRAY_HEADER + (long) types * REFERENCE);
+		return size;
+	}
+
+	/**
+	 * Gets the aligned shallow size of an instance of the given {@link Class},
+	 * that is its object header and its instance fields including the inherited
+	 * ones.
+	 */
+	static long shallowSizeOf(Class<?> type) {
+		long size = OBJECT_HEADER;
+		for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+			for (Field field : current.getDeclaredFields()) {
+				if (!Modifier.isStatic(field.getModifiers())) {
+					size += sizeOf(field.getType());
+				}
+			}
+		}
+		return aligned(size);
+	}
+
+	private static int sizeOf(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return REFERENCE;
+		}
+		if (type == long.class || type == double.class) {
+			return 8;
+		}
+		if (type == int.class || type == float.class) {
+			return 4;
+		}
+		if (type == short.class || type == char.class) {
+			return 2;
+		}
+		return 1;
+	}
+
+	private static int tableSizeOf(int size) {
+		int capacity = (int) (size / 0.75f) + 1;
+		return capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+	}
+
+	private static long aligned(long size) {
+		return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+
+	private static String millisOf(long nanos) {
+		return String.format(Locale.ROOT, "%.3f ms", Double.valueOf(nanos / 1_000_000.0));
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "DiscoveryReport [discoveredTypes=" + discoveredTypes + ", discoveryNanos=" + discoveryNanos
+				+ ", slowestLimit=" + slowestLimit + "]";
+	}
+
+	/**
+	 * Measurements of the discovery of one type.
+	 */
+	static final class TypeDiscovery {
+
+		private final String typeName;
+		private final long nanos;
+		private final Members members;
+
+		TypeDiscovery(String typeName, long nanos, Members members) {
+			this.typeName = typeName;
+			this.nanos = nanos;
+			this.members = members;
+		}
+
+		long getNanos() {
+			return nanos;
+		}
+
+		@Override
+		public String toString() {
+			return millisOf(nanos) + " " + typeName + " (" + members + ")";
+		}
+	}
+
+	/**
+	 * Counts the declared members and the collected annotations of discovered
+	 * types.
+	 */
+	static final class Members {
+
+		private long fields;
+		private long constructors;
+		private long methods;
+		private long annotations;
+
+		static Members of(DiscoveredType discoveredType) {
+			Class<?> type = discoveredType.getAnnotatedClass();
+			Members members = new Members();
+			members.fields = type.getDeclaredFields().length;
+			members.constructors = type.getDeclaredConstructors().length;
+			members.methods = type.getDeclaredMethods().length;
+			members.annotations = discoveredType.getAnnotations().size();
+			return members;
+		}
+
+		void add(Members other) {
+			fields += other.fields;
+			constructors += other.constructors;
+			methods += other.methods;
+			annotations += other.annotations;
+		}
+
+		@Override
+		public String toString() {
+			return "fields=" + fields + ", constructors=" + constructors + ", methods=" + methods + ", annotations="
+					+ annotations;
+		}
+	}
+}
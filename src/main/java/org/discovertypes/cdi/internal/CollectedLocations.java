@@ -0,0 +1,161 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.internal;
+
+import static java.util.Arrays.asList;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.discovertypes.cdi.AnnotationLocation;
+import org.discovertypes.cdi.Discoverable;
+import org.discovertypes.cdi.DiscoveredType;
+
+/**
+ * Resolves the {@link AnnotationLocation}s, whose annotations are collected
+ * for a type.
+ * <p>
+ * The globally collected locations are configured using the system property
+ * {@value DiscoveredType#COLLECTED_LOCATIONS_PROPERTY} (comma separated, all
+ * locations if not set). {@link Discoverable#locations()} of the type
+ * annotations (directly or as meta-annotation) add further locations for the
+ * annotated type. {@link AnnotationLocation#TYPE} is always collected. The
+ * system property is read on first use and again by {@link #reconfigure()},
+ * that is called once per deployment, so that it isn't parsed for every type.
+ * <p>
+ * Not part of the API. Shared by the CDI extensions and the class file
+ * scanner only and may change without notice.
+ * 
+ * @author Johannes Troppacher
+ */
+public final class CollectedLocations {
+
+	private static final Set<AnnotationLocation> ALL = Collections
+			.unmodifiableSet(EnumSet.allOf(AnnotationLocation.class));
+
+	private static volatile Set<AnnotationLocation> configured;
+
+	private CollectedLocations() {
+		super();
+	}
+
+	/**
+	 * Gets the {@link AnnotationLocation}s, whose annotations are collected for the
+	 * given type.
+	 * 
+	 * @param type - {@link Class}
+	 * @return {@link Set} of {@link AnnotationLocation}s
+	 */
+	public static Set<AnnotationLocation> of(Class<?> type) {
+		List<AnnotationLocation[]> declaredLocations = new ArrayList<>();
+		for (Annotation annotation : type.getAnnotations()) {
+			Discoverable discoverable = discoverableOf(annotation);
+			if (discoverable != null) {
+				declaredLocations.add(discoverable.locations());
+			}
+		}
+		return resolve(declaredLocations);
+	}
+
+	/**
+	 * Gets the {@link AnnotationLocation}s, whose annotations are collected for a
+	 * type, given the {@link Discoverable#locations()} of its type annotations.
+	 * 
+	 * @param declaredLocations - {@link Discoverable#locations()} of each
+	 *                          {@link Discoverable} of the type
+	 * @return {@link Set} of {@link AnnotationLocation}s
+	 */
+	public static Set<AnnotationLocation> resolve(Collection<AnnotationLocation[]> declaredLocations) {
+		Set<AnnotationLocation> configured = configured();
+		Set<AnnotationLocation> declared = null;
+		boolean includesConfigured = false;
+		for (AnnotationLocation[] locations : declaredLocations) {
+			if (locations.length == 0) {
+				includesConfigured = true;
+				continue;
+			}
+			if (declared == null) {
+				declared = EnumSet.of(AnnotationLocation.TYPE);
+			}
+			declared.addAll(asList(locations));
+		}
+		if (declared == null) {
+			return configured;
+		}
+		if (includesConfigured) {
+			declared.addAll(configured);
+		}
+		return declared;
+	}
+
+	/**
+	 * Gets the globally configured {@link AnnotationLocation}s.
+	 * 
+	 * @return {@link Set} of {@link AnnotationLocation}s
+	 * @throws IllegalArgumentException if the system property contains an unknown
+	 *                                  location
+	 */
+	public static Set<AnnotationLocation> configured() {
+		Set<AnnotationLocation> locations = configured;
+		return (locations != null) ? locations : reconfigure();
+	}
+
+	/**
+	 * Reads the globally configured {@link AnnotationLocation}s from the system
+	 * property {@value DiscoveredType#COLLECTED_LOCATIONS_PROPERTY} again.
+	 * 
+	 * @return {@link Set} of {@link AnnotationLocation}s
+	 * @throws IllegalArgumentException if the system property contains an unknown
+	 *                                  location
+	 */
+	public static Set<AnnotationLocation> reconfigure() {
+		Set<AnnotationLocation> locations = parse(System.getProperty(DiscoveredType.COLLECTED_LOCATIONS_PROPERTY));
+		configured = locations;
+		return locations;
+	}
+
+	private static Discoverable discoverableOf(Annotation annotation) {
+		if (annotation instanceof Discoverable) {
+			return (Discoverable) annotation;
+		}
+		return annotation.annotationType().getAnnotation(Discoverable.class);
+	}
+
+	private static Set<AnnotationLocation> parse(String value) {
+		if (value == null || value.trim().isEmpty()) {
+			return ALL;
+		}
+		Set<AnnotationLocation> locations = EnumSet.of(AnnotationLocation.TYPE);
+		for (String location : value.split(",")) {
+			try {
+				locations.add(AnnotationLocation.valueOf(location.trim().toUpperCase(Locale.ROOT)));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Unknown location '" + location + "' in system property "
+						+ DiscoveredType.COLLECTED_LOCATIONS_PROPERTY + ". Valid: " + ALL, e);
+			}
+		}
+		return Collections.unmodifiableSet(locations);
+	}
+
+	@Override
+	public String toString() {
+		return "CollectedLocations [configured=" + configured + "]";
+	}
+}
@@ -0,0 +1,148 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.jfr;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.discovertypes.cdi.AnnotationLocation;
+import org.discovertypes.cdi.CollectorTimings;
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.QueryObserver;
+
+/**
+ * Creates and commits the Java Flight Recorder events.
+ * <p>
+ * All references to the <code>jdk.jfr</code> API are located here and in the
+ * event classes, so that they are only loaded, if the Java Flight Recorder is
+ * available. Use {@link FlightRecorderEvents} instead.
+ * 
+ * @author Johannes Troppacher
+ */
+final class EventRecorder {
+
+	private EventRecorder() {
+		// static methods only
+	}
+
+	static DiscoveredType discover(Class<?> type) {
+		ProcessDiscoverableEvent event = new ProcessDiscoverableEvent();
+		if (!event.isEnabled()) {
+			return DiscoveredType.of(type);
+		}
+		return discover(type, event, new CollectorTimings());
+	}
+
+	static DiscoveredType discover(Class<?> type, CollectorTimings timings) {
+		ProcessDiscoverableEvent event = new ProcessDiscoverableEvent();
+		if (!event.isEnabled()) {
+			return DiscoveredType.of(type, timings);
+		}
+		return discover(type, event, timings);
+	}
+
+	private static DiscoveredType discover(Class<?> type, ProcessDiscoverableEvent event, CollectorTimings timings) {
+		event.begin();
+		DiscoveredType discoveredType = DiscoveredType.of(type, timings);
+		event.end();
+		if (event.shouldCommit()) {
+			event.discoveredClass = type;
+			event.annotations = discoveredType.getAnnotations().size();
+			event.ignoredBean = discoveredType.isIgnoredBean();
+			event.typeDuration = timings.nanosOf(AnnotationLocation.TYPE);
+			event.superTypeDuration = timings.nanosOf(AnnotationLocation.SUPER_TYPE);
+			event.fieldDuration = timings.nanosOf(AnnotationLocation.FIELD);
+			event.constructorDuration = timings.nanosOf(AnnotationLocation.CONSTRUCTOR);
+			event.constructorParameterDuration = timings.nanosOf(AnnotationLocation.CONSTRUCTOR_PARAMETER);
+			event.methodDuration = timings.nanosOf(AnnotationLocation.METHOD);
+			event.methodParameterDuration = timings.nanosOf(AnnotationLocation.METHOD_PARAMETER);
+			event.commit();
+		}
+		return discoveredType;
+	}
+
+	static void initialize(DiscoveredTypes discoveredTypes, Collection<? extends DiscoveredType> types) {
+		InitializeDiscoveredTypesEvent event = new InitializeDiscoveredTypesEvent();
+		event.begin();
+		discoveredTypes.initializeWith(types);
+		event.end();
+		if (event.shouldCommit()) {
+			event.discoveredTypes = types.size();
+			event.annotationTypes = discoveredTypes.getAnnotationTypes().size();
+			event.commit();
+		}
+	}
+
+	static QueryObserver sampledQueries(int sampleRate) {
+		return new SampledQueryRecorder(sampleRate);
+	}
+
+	private static class SampledQueryRecorder implements QueryObserver {
+
+		private final int sampleRate;
+
+		SampledQueryRecorder(int sampleRate) {
+			this.sampleRate = sampleRate;
+		}
+
+		@Override
+		public void annotatedWith(Class<? extends Annotation> annotationType, int results, long nanos) {
+			if (isSampled()) {
+				commit("annotatedWith", annotationType.getName(), results, nanos);
+			}
+		}
+
+		@Override
+		public void annotatedWithAnyOf(Iterable<Class<? extends Annotation>> annotationTypes, int results,
+				long nanos) {
+			if (isSampled()) {
+				StringJoiner names = new StringJoiner(",");
+				for (Class<? extends Annotation> annotationType : annotationTypes) {
+					names.add(annotationType.getName());
+				}
+				commit("annotatedWithAnyOf", names.toString(), results, nanos);
+			}
+		}
+
+		@Override
+		public void iterated() {
+			if (isSampled()) {
+				commit("iterator", "", 0, 0);
+			}
+		}
+
+		private boolean isSampled() {
+			return (sampleRate == 1) || (ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+		}
+
+		private static void commit(String method, String annotationTypes, int results, long nanos) {
+			QueryEvent event = new QueryEvent();
+			if (event.shouldCommit()) {
+				event.method = method;
+				event.annotationTypes = annotationTypes;
+				event.results = results;
+				event.queryDuration = nanos;
+				event.commit();
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "SampledQueryRecorder [sampleRate=" + sampleRate + "]";
+		}
+	}
+}
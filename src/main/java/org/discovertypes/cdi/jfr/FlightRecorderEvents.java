@@ -0,0 +1,131 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.jfr;
+
+import java.util.Collection;
+
+import org.discovertypes.cdi.CollectorTimings;
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.QueryObserver;
+
+/**
+ * Records the discovery phases and (optionally sampled) queries as Java Flight
+ * Recorder (JFR) events of the category {@value #CATEGORY}.
+ * <p>
+ * If the running JVM doesn't provide the JFR API (<code>jdk.jfr</code>), the
+ * discovery is done without recording and {@link #isAvailable()} is
+ * <code>false</code>. If it is available, but the events are not enabled in
+ * the current recording, nothing gets measured.
+ * 
+ * @author Johannes Troppacher
+ */
+public final class FlightRecorderEvents {
+
+	/**
+	 * Category of all events.
+	 */
+	public static final String CATEGORY = "Discover Types CDI";
+
+	private static final boolean AVAILABLE = isClassAvailable("jdk.jfr.Event");
+
+	private FlightRecorderEvents() {
+		// static methods only
+	}
+
+	/**
+	 * Is <code>true</code>, if the Java Flight Recorder API is available.
+	 * 
+	 * @return <code>true</code>, if events can be recorded.
+	 */
+	public static boolean isAvailable() {
+		return AVAILABLE;
+	}
+
+	/**
+	 * Creates a new {@link DiscoveredType} of the given {@link Class} and records
+	 * the time spent to collect its annotations.
+	 * 
+	 * @param type - {@link Class}
+	 * @return {@link DiscoveredType}
+	 */
+	public static DiscoveredType discover(Class<?> type) {
+		if (!AVAILABLE) {
+			return DiscoveredType.of(type);
+		}
+		return EventRecorder.discover(type);
+	}
+
+	/**
+	 * Creates a new {@link DiscoveredType} of the given {@link Class}, records
+	 * the time spent to collect its annotations. The time is also added to the
+	 * given {@link CollectorTimings}, which should be new for each type, since
+	 * the recorded event contains their sums.
+	 * 
+	 * @param type    - {@link Class}
+	 * @param timings - {@link CollectorTimings}
+	 * @return {@link DiscoveredType}
+	 */
+	public static DiscoveredType discover(Class<?> type, CollectorTimings timings) {
+		if (!AVAILABLE) {
+			return DiscoveredType.of(type, timings);
+		}
+		return EventRecorder.discover(type, timings);
+	}
+
+	/**
+	 * Initializes the {@link DiscoveredTypes} with the given
+	 * {@link DiscoveredType}s and records the time spent to group them by their
+	 * annotation types.
+	 * 
+	 * @param discoveredTypes - {@link DiscoveredTypes} to initialize
+	 * @param types           - {@link Collection} of {@link DiscoveredType}s
+	 */
+	public static void initialize(DiscoveredTypes discoveredTypes, Collection<? extends DiscoveredType> types) {
+		if (!AVAILABLE) {
+			discoveredTypes.initializeWith(types);
+			return;
+		}
+		EventRecorder.initialize(discoveredTypes, types);
+	}
+
+	/**
+	 * Creates a {@link QueryObserver}, that records about every n-th query of
+	 * {@link DiscoveredTypes} (randomly sampled).
+	 * 
+	 * @param sampleRate - 1 to record every query, n to record about every n-th
+	 *                   query.
+	 * @return {@link QueryObserver}
+	 * @throws IllegalStateException if the Java Flight Recorder API is not
+	 *                               available
+	 */
+	public static QueryObserver sampledQueries(int sampleRate) {
+		if (sampleRate <= 0) {
+			throw new IllegalArgumentException("sampleRate needs to be positive, but was " + sampleRate);
+		}
+		if (!AVAILABLE) {
+			throw new IllegalStateException("Java Flight Recorder API (jdk.jfr) is not available");
+		}
+		return EventRecorder.sampledQueries(sampleRate);
+	}
+
+	private static boolean isClassAvailable(String className) {
+		try {
+			Class.forName(className, false, FlightRecorderEvents.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for the grouping of all discovered types by their
+ * annotation types, when <code>DiscoveredTypes</code> gets initialized.
+ * 
+ * @author Johannes Troppacher
+ */
+@Name(InitializeDiscoveredTypesEvent.NAME)
+@Label("Initialize Discovered Types")
+@Category(FlightRecorderEvents.CATEGORY)
+@Description("Grouping of all discovered types by their annotation types")
+@StackTrace(false)
+class InitializeDiscoveredTypesEvent extends Event {
+
+	static final String NAME = "org.discovertypes.cdi.InitializeDiscoveredTypes";
+
+	@Label("Discovered Types")
+	int discoveredTypes;
+
+	@Label("Annotation Types")
+	int annotationTypes;
+}
@@ -0,0 +1,76 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event for the discovery of a single type during
+ * <code>ProcessAnnotatedType</code>, including the time spent by each
+ * annotation collector.
+ * 
+ * @author Johannes Troppacher
+ */
+@Name(ProcessDiscoverableEvent.NAME)
+@Label("Process Discoverable")
+@Category(FlightRecorderEvents.CATEGORY)
+@Description("Discovery of a type annotated with @Discoverable")
+@StackTrace(false)
+class ProcessDiscoverableEvent extends Event {
+
+	static final String NAME = "org.discovertypes.cdi.ProcessDiscoverable";
+
+	@Label("Discovered Class")
+	Class<?> discoveredClass;
+
+	@Label("Annotations")
+	int annotations;
+
+	@Label("Ignored Bean")
+	boolean ignoredBean;
+
+	@Label("Type Annotations")
+	@Timespan(Timespan.NANOSECONDS)
+	long typeDuration;
+
+	@Label("Super Type Annotations")
+	@Timespan(Timespan.NANOSECONDS)
+	long superTypeDuration;
+
+	@Label("Field Annotations")
+	@Timespan(Timespan.NANOSECONDS)
+	long fieldDuration;
+
+	@Label("Constructor Annotations")
+	@Timespan(Timespan.NANOSECONDS)
+	long constructorDuration;
+
+	@Label("Constructor Parameter Annotations")
+	@Timespan(Timespan.NANOSECONDS)
+	long constructorParameterDuration;
+
+	@Label("Method Annotations")
+	@Timespan(Timespan.NANOSECONDS)
+	long methodDuration;
+
+	@Label("Method Parameter Annotations")
+	@Timespan(Timespan.NANOSECONDS)
+	long methodParameterDuration;
+}
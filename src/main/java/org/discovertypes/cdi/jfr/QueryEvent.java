@@ -0,0 +1,52 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event for a sampled query of
+ * <code>DiscoveredTypes</code>.
+ * <p>
+ * The event is committed after the query. Its own duration is therefore close
+ * to zero. The duration of the query is contained in {@link #queryDuration}.
+ * 
+ * @author Johannes Troppacher
+ */
+@Name(QueryEvent.NAME)
+@Label("Discovered Types Query")
+@Category(FlightRecorderEvents.CATEGORY)
+@Description("Sampled query of the discovered types")
+class QueryEvent extends Event {
+
+	static final String NAME = "org.discovertypes.cdi.Query";
+
+	@Label("Method")
+	String method;
+
+	@Label("Annotation Types")
+	String annotationTypes;
+
+	@Label("Results")
+	int results;
+
+	@Label("Query Duration")
+	@Timespan(Timespan.NANOSECONDS)
+	long queryDuration;
+}
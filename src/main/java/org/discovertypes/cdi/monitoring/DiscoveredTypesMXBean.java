@@ -0,0 +1,85 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.monitoring;
+
+import java.util.Map;
+
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.QueryCacheStatistics;
+
+/**
+ * JMX management interface that exposes the index and the query metrics of
+ * {@link DiscoveredTypes}.
+ * 
+ * @author Johannes Troppacher
+ */
+public interface DiscoveredTypesMXBean {
+
+	/**
+	 * Gets the number of discovered types per annotation type.
+	 * 
+	 * @return {@link Map} with the annotation type name as key
+	 */
+	Map<String, Integer> getIndexSizes();
+
+	/**
+	 * Gets the number of queries per query method.
+	 * 
+	 * @return {@link Map} with the method name as key
+	 */
+	Map<String, Long> getQueryCounts();
+
+	/**
+	 * Gets the inclusive upper bounds of the latency histogram buckets.
+	 * 
+	 * @return upper bounds in nanoseconds
+	 */
+	long[] getLatencyBucketUpperBoundsNanos();
+
+	/**
+	 * Gets the latency histogram of {@link DiscoveredTypes#annotatedWith(Class)}.
+	 * 
+	 * @return number of queries per bucket
+	 */
+	long[] getAnnotatedWithLatencyHistogram();
+
+	/**
+	 * Gets the latency histogram of
+	 * {@link DiscoveredTypes#annotatedWithAnyOf(Iterable)}.
+	 * 
+	 * @return number of queries per bucket
+	 */
+	long[] getAnnotatedWithAnyOfLatencyHistogram();
+
+	/**
+	 * Gets the most queried annotation types as "name=count", starting with the
+	 * most queried one.
+	 * 
+	 * @return most queried annotation types
+	 */
+	String[] getTopQueriedAnnotationTypes();
+
+	/**
+	 * Gets the statistics of the query result cache of
+	 * {@link DiscoveredTypes#annotatedWithAnyOf(Iterable)}.
+	 * 
+	 * @return {@link QueryCacheStatistics}
+	 */
+	QueryCacheStatistics getQueryCacheStatistics();
+
+	/**
+	 * Resets all query metrics.
+	 */
+	void resetQueryMetrics();
+}
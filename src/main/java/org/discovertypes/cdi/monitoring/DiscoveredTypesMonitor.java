@@ -0,0 +1,174 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.monitoring;
+
+import static java.util.Objects.requireNonNull;
+
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.QueryCacheStatistics;
+
+/**
+ * Exposes the index and the query metrics of {@link DiscoveredTypes} as
+ * {@link DiscoveredTypesMXBean}.
+ * <p>
+ * Use {@link #register()} to record the queries and to register the MBean at
+ * the platform {@link MBeanServer}, and {@link #unregister()} to undo both.
+ * 
+ * @author Johannes Troppacher
+ */
+public class DiscoveredTypesMonitor implements DiscoveredTypesMXBean {
+
+	private static final Logger LOGGER = Logger.getLogger(DiscoveredTypesMonitor.class.getName());
+
+	static final String OBJECT_NAME_PREFIX = "org.discovertypes.cdi:type=DiscoveredTypes,name=";
+	static final int TOP_QUERIED_LIMIT = 20;
+
+	private final DiscoveredTypes discoveredTypes;
+	private final QueryMetrics queryMetrics;
+	private final ObjectName objectName;
+
+	/**
+	 * Creates a {@link DiscoveredTypesMonitor} for the given
+	 * {@link DiscoveredTypes}, that is registered with the given name.
+	 * 
+	 * @param discoveredTypes - {@link DiscoveredTypes}
+	 * @param name            - unique name of the MBean
+	 * @return {@link DiscoveredTypesMonitor}
+	 */
+	public static DiscoveredTypesMonitor of(DiscoveredTypes discoveredTypes, String name) {
+		return new DiscoveredTypesMonitor(discoveredTypes, new QueryMetrics(), objectNameOf(name));
+	}
+
+	private DiscoveredTypesMonitor(DiscoveredTypes discoveredTypes, QueryMetrics queryMetrics, ObjectName objectName) {
+		this.discoveredTypes = requireNonNull(discoveredTypes, "discoveredTypes");
+		this.queryMetrics = queryMetrics;
+		this.objectName = objectName;
+	}
+
+	/**
+	 * Starts to record the queries and registers the MBean at the platform
+	 * {@link MBeanServer}.
+	 * 
+	 * @return {@link DiscoveredTypesMonitor}
+	 */
+	public DiscoveredTypesMonitor register() {
+		discoveredTypes.addQueryObserver(queryMetrics);
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		} catch (JMException e) {
+			LOGGER.log(Level.WARNING, "DiscoveredTypes MBean could not be registered as " + objectName, e);
+		}
+		return this;
+	}
+
+	/**
+	 * Stops to record the queries and unregisters the MBean.
+	 */
+	public void unregister() {
+		discoveredTypes.removeQueryObserver(queryMetrics);
+		MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (mbeanServer.isRegistered(objectName)) {
+				mbeanServer.unregisterMBean(objectName);
+			}
+		} catch (JMException e) {
+			LOGGER.log(Level.WARNING, "DiscoveredTypes MBean could not be unregistered: " + objectName, e);
+		}
+	}
+
+	/**
+	 * Gets the {@link ObjectName} of the MBean.
+	 * 
+	 * @return {@link ObjectName}
+	 */
+	public ObjectName getObjectName() {
+		return objectName;
+	}
+
+	@Override
+	public Map<String, Integer> getIndexSizes() {
+		Map<String, Integer> indexSizes = new TreeMap<>();
+		for (Class<? extends Annotation> annotationType : discoveredTypes.getAnnotationTypes()) {
+			indexSizes.put(annotationType.getName(),
+					Integer.valueOf(discoveredTypes.countAnnotatedWith(annotationType)));
+		}
+		return indexSizes;
+	}
+
+	@Override
+	public Map<String, Long> getQueryCounts() {
+		return queryMetrics.getQueryCounts();
+	}
+
+	@Override
+	public long[] getLatencyBucketUpperBoundsNanos() {
+		return QueryMetrics.latencyUpperBoundsNanos();
+	}
+
+	@Override
+	public long[] getAnnotatedWithLatencyHistogram() {
+		return queryMetrics.getAnnotatedWithLatencies();
+	}
+
+	@Override
+	public long[] getAnnotatedWithAnyOfLatencyHistogram() {
+		return queryMetrics.getAnnotatedWithAnyOfLatencies();
+	}
+
+	@Override
+	public String[] getTopQueriedAnnotationTypes() {
+		List<String> topQueried = new ArrayList<>();
+		for (Map.Entry<Class<? extends Annotation>, Long> entry : queryMetrics
+				.getTopQueriedAnnotationTypes(TOP_QUERIED_LIMIT).entrySet()) {
+			topQueried.add(entry.getKey().getName() + "=" + entry.getValue());
+		}
+		return topQueried.toArray(new String[topQueried.size()]);
+	}
+
+	@Override
+	public QueryCacheStatistics getQueryCacheStatistics() {
+		return discoveredTypes.getQueryCacheStatistics();
+	}
+
+	@Override
+	public void resetQueryMetrics() {
+		queryMetrics.reset();
+	}
+
+	private static ObjectName objectNameOf(String name) {
+		try {
+			return new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+		} catch (JMException e) {
+			throw new IllegalArgumentException("Invalid MBean name: " + name, e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "DiscoveredTypesMonitor [objectName=" + objectName + ", queryMetrics=" + queryMetrics + "]";
+	}
+}
@@ -0,0 +1,87 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies with exponential (power of two) nanosecond buckets.
+ * <p>
+ * Recording is lock-free and uses striped {@link LongAdder}s, so that
+ * concurrent queries don't contend on a single counter.
+ * 
+ * @author Johannes Troppacher
+ */
+class LatencyHistogram {
+
+	/**
+	 * Number of buckets. The first bucket contains latencies up to 1 ns, the last
+	 * one all latencies above 2^(BUCKETS - 2) ns (about 1 s).
+	 */
+	static final int BUCKETS = 32;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+	LatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Gets the inclusive upper bounds of all buckets in nanoseconds. The last
+	 * bucket is unbounded and therefore contains {@link Long#MAX_VALUE}.
+	 * 
+	 * @return upper bounds in nanoseconds
+	 */
+	static long[] upperBoundsNanos() {
+		long[] upperBounds = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS - 1; i++) {
+			upperBounds[i] = 1L << i;
+		}
+		upperBounds[BUCKETS - 1] = Long.MAX_VALUE;
+		return upperBounds;
+	}
+
+	void record(long nanos) {
+		buckets[bucketOf(nanos)].increment();
+	}
+
+	long[] counts() {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+		}
+		return counts;
+	}
+
+	void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+	}
+
+	static int bucketOf(long nanos) {
+		if (nanos <= 1) {
+			return 0;
+		}
+		int bucket = Long.SIZE - Long.numberOfLeadingZeros(nanos - 1);
+		return Math.min(bucket, BUCKETS - 1);
+	}
+
+	@Override
+	public String toString() {
+		return "LatencyHistogram [buckets=" + BUCKETS + "]";
+	}
+}
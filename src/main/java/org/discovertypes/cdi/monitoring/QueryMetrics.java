@@ -0,0 +1,164 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.monitoring;
+
+import java.lang.annotation.Annotation;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.QueryObserver;
+
+/**
+ * Collects the number of queries per method, the latencies of
+ * {@link DiscoveredTypes#annotatedWith(Class)} and
+ * {@link DiscoveredTypes#annotatedWithAnyOf(Iterable)}, and the number of
+ * queries per annotation type.
+ * <p>
+ * All counters are striped {@link LongAdder}s, so that recording doesn't add
+ * contention between concurrent queries.
+ * 
+ * @author Johannes Troppacher
+ */
+public class QueryMetrics implements QueryObserver {
+
+	static final String ANNOTATED_WITH = "annotatedWith";
+	static final String ANNOTATED_WITH_ANY_OF = "annotatedWithAnyOf";
+	static final String ITERATOR = "iterator";
+
+	private final LongAdder annotatedWithCount = new LongAdder();
+	private final LongAdder annotatedWithAnyOfCount = new LongAdder();
+	private final LongAdder iteratorCount = new LongAdder();
+	private final LatencyHistogram annotatedWithLatencies = new LatencyHistogram();
+	private final LatencyHistogram annotatedWithAnyOfLatencies = new LatencyHistogram();
+	private final ConcurrentMap<Class<? extends Annotation>, LongAdder> queriesPerAnnotationType =
+			new ConcurrentHashMap<>();
+
+	@Override
+	public void annotatedWith(Class<? extends Annotation> annotationType, int results, long nanos) {
+		annotatedWithCount.increment();
+		annotatedWithLatencies.record(nanos);
+		countQueryOf(annotationType);
+	}
+
+	@Override
+	public void annotatedWithAnyOf(Iterable<Class<? extends Annotation>> annotationTypes, int results, long nanos) {
+		annotatedWithAnyOfCount.increment();
+		annotatedWithAnyOfLatencies.record(nanos);
+		for (Class<? extends Annotation> annotationType : annotationTypes) {
+			countQueryOf(annotationType);
+		}
+	}
+
+	@Override
+	public void iterated() {
+		iteratorCount.increment();
+	}
+
+	/**
+	 * Gets the number of queries per query method name.
+	 * 
+	 * @return {@link Map} with the method name as key and the number of queries
+	 *         as value
+	 */
+	public Map<String, Long> getQueryCounts() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		counts.put(ANNOTATED_WITH, Long.valueOf(annotatedWithCount.sum()));
+		counts.put(ANNOTATED_WITH_ANY_OF, Long.valueOf(annotatedWithAnyOfCount.sum()));
+		counts.put(ITERATOR, Long.valueOf(iteratorCount.sum()));
+		return counts;
+	}
+
+	/**
+	 * Gets the latency histogram of {@link DiscoveredTypes#annotatedWith(Class)}.
+	 * 
+	 * @return number of queries per bucket of {@link #latencyUpperBoundsNanos()}
+	 */
+	public long[] getAnnotatedWithLatencies() {
+		return annotatedWithLatencies.counts();
+	}
+
+	/**
+	 * Gets the latency histogram of
+	 * {@link DiscoveredTypes#annotatedWithAnyOf(Iterable)}.
+	 * 
+	 * @return number of queries per bucket of {@link #latencyUpperBoundsNanos()}
+	 */
+	public long[] getAnnotatedWithAnyOfLatencies() {
+		return annotatedWithAnyOfLatencies.counts();
+	}
+
+	/**
+	 * Gets the inclusive upper bounds of the latency histogram buckets in
+	 * nanoseconds.
+	 * 
+	 * @return upper bounds in nanoseconds
+	 */
+	public static long[] latencyUpperBoundsNanos() {
+		return LatencyHistogram.upperBoundsNanos();
+	}
+
+	/**
+	 * Gets the most queried annotation types, starting with the most queried one.
+	 * 
+	 * @param limit - maximum number of annotation types
+	 * @return {@link Map} with the annotation type as key and the number of
+	 *         queries as value, ordered descending by the number of queries
+	 */
+	public Map<Class<? extends Annotation>, Long> getTopQueriedAnnotationTypes(int limit) {
+		List<Map.Entry<Class<? extends Annotation>, Long>> queries = new ArrayList<>();
+		for (Map.Entry<Class<? extends Annotation>, LongAdder> entry : queriesPerAnnotationType.entrySet()) {
+			queries.add(new SimpleImmutableEntry<>(entry.getKey(),
+					Long.valueOf(entry.getValue().sum())));
+		}
+		Collections.sort(queries, (first, second) -> second.getValue().compareTo(first.getValue()));
+		Map<Class<? extends Annotation>, Long> topQueried = new LinkedHashMap<>();
+		for (Map.Entry<Class<? extends Annotation>, Long> entry : queries.subList(0, Math.min(limit, queries.size()))) {
+			topQueried.put(entry.getKey(), entry.getValue());
+		}
+		return topQueried;
+	}
+
+	/**
+	 * Resets all counters and histograms.
+	 */
+	public void reset() {
+		annotatedWithCount.reset();
+		annotatedWithAnyOfCount.reset();
+		iteratorCount.reset();
+		annotatedWithLatencies.reset();
+		annotatedWithAnyOfLatencies.reset();
+		queriesPerAnnotationType.clear();
+	}
+
+	private void countQueryOf(Class<? extends Annotation> annotationType) {
+		LongAdder counter = queriesPerAnnotationType.get(annotationType);
+		if (counter == null) {
+			counter = queriesPerAnnotationType.computeIfAbsent(annotationType, type -> new LongAdder());
+		}
+		counter.increment();
+	}
+
+	@Override
+	public String toString() {
+		return "QueryMetrics [queryCounts=" + getQueryCounts() + "]";
+	}
+}
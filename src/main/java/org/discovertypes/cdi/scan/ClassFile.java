@@ -0,0 +1,99 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.scan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.discovertypes.cdi.AnnotationLocation;
+
+/**
+ * Name, super class and runtime visible annotations of a class, that had been
+ * read by the {@link ClassFileReader}.
+ * 
+ * @author Johannes Troppacher
+ */
+final class ClassFile {
+
+	private final String name;
+	private final String superClassName;
+	private final boolean annotationType;
+	private final List<ScannedAnnotation> annotations = new ArrayList<>();
+	private final List<AnnotationLocation> locations = new ArrayList<>();
+
+	ClassFile(String name, String superClassName, boolean annotationType) {
+		this.name = name;
+		this.superClassName = superClassName;
+		this.annotationType = annotationType;
+	}
+
+	void add(ScannedAnnotation annotation, AnnotationLocation location) {
+		annotations.add(annotation);
+		locations.add(location);
+	}
+
+	/**
+	 * Gets the name of the class (see {@link Class#getName()}).
+	 */
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the name of the super class or <code>null</code> for
+	 * {@link Object}.
+	 */
+	String getSuperClassName() {
+		return superClassName;
+	}
+
+	boolean isAnnotationType() {
+		return annotationType;
+	}
+
+	/**
+	 * Gets all annotations of the class, its fields, methods, constructors and
+	 * their parameters.
+	 */
+	List<ScannedAnnotation> getAnnotations() {
+		return annotations;
+	}
+
+	/**
+	 * Gets the {@link AnnotationLocation}s in the same order as
+	 * {@link #getAnnotations()}.
+	 */
+	List<AnnotationLocation> getLocations() {
+		return locations;
+	}
+
+	/**
+	 * Gets the annotations of the class itself.
+	 */
+	List<ScannedAnnotation> getTypeAnnotations() {
+		List<ScannedAnnotation> typeAnnotations = new ArrayList<>();
+		for (int i = 0; i < annotations.size(); i++) {
+			if (locations.get(i) == AnnotationLocation.TYPE) {
+				typeAnnotations.add(annotations.get(i));
+			}
+		}
+		return typeAnnotations;
+	}
+
+	@Override
+	public String toString() {
+		return "ClassFile [name=" + name + ", superClassName=" + superClassName + ", annotations=" + annotations
+				+ ", locations=" + locations + "]";
+	}
+}
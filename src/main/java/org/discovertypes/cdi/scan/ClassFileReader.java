@@ -0,0 +1,320 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.scan;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.discovertypes.cdi.AnnotationLocation;
+
+/**
+ * Reads the name, the super class and the runtime visible annotations of a
+ * class file (see chapter 4 of the Java Virtual Machine Specification) without
+ * loading the class.
+ * <p>
+ * Only the constant pool and the <code>RuntimeVisibleAnnotations</code> and
+ * <code>RuntimeVisibleParameterAnnotations</code> attributes of the class, its
+ * fields and its methods are read. Everything else (e.g. the code of the
+ * methods) is skipped.
+ * 
+ * @author Johannes Troppacher
+ */
+final class ClassFileReader {
+
+	private static final int MAGIC = 0xCAFEBABE;
+	private static final int ACC_ANNOTATION = 0x2000;
+	private static final String CONSTRUCTOR_NAME = "<init>";
+	private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+	private static final String RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS = "RuntimeVisibleParameterAnnotations";
+
+	private final DataInputStream in;
+	private Object[] constantPool;
+
+	private ClassFileReader(byte[] classFile) {
+		this.in = new DataInputStream(new ByteArrayInputStream(classFile));
+	}
+
+	/**
+	 * Reads the given class file.
+	 * 
+	 * @param classFile - content of the class file
+	 * @return {@link ClassFile}
+	 * @throws IOException if the class file is truncated or malformed
+	 */
+	static ClassFile read(byte[] classFile) throws IOException {
+		return new ClassFileReader(classFile).read();
+	}
+
+	private ClassFile read() throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a class file");
+		}
+		in.readUnsignedShort(); // minor version
+		in.readUnsignedShort(); // major version
+		readConstantPool();
+		int accessFlags = in.readUnsignedShort();
+		String name = classNameAt(in.readUnsignedShort());
+		int superClassIndex = in.readUnsignedShort();
+		ClassFile classFile = new ClassFile(name, (superClassIndex == 0) ? null : classNameAt(superClassIndex),
+				(accessFlags & ACC_ANNOTATION) != 0);
+		in.skipBytes(2 * in.readUnsignedShort()); // interfaces
+		int fields = in.readUnsignedShort();
+		for (int i = 0; i < fields; i++) {
+			readMember(classFile, AnnotationLocation.FIELD, null);
+		}
+		int methods = in.readUnsignedShort();
+		for (int i = 0; i < methods; i++) {
+			readMember(classFile, AnnotationLocation.METHOD, AnnotationLocation.METHOD_PARAMETER);
+		}
+		readAttributes(classFile, AnnotationLocation.TYPE, null);
+		return classFile;
+	}
+
+	private void readConstantPool() throws IOException {
+		int count = in.readUnsignedShort();
+		constantPool = new Object[count];
+		for (int index = 1; index < count; index++) {
+			int tag = in.readUnsignedByte();
+			switch (tag) {
+			case 1: // Utf8
+				constantPool[index] = in.readUTF();
+				break;
+			case 3: // Integer
+				constantPool[index] = Integer.valueOf(in.readInt());
+				break;
+			case 4: // Float
+				constantPool[index] = Float.valueOf(in.readFloat());
+				break;
+			case 5: // Long
+				constantPool[index++] = Long.valueOf(in.readLong());
+				break;
+			case 6: // Double
+				constantPool[index++] = Double.valueOf(in.readDouble());
+				break;
+			case 7: // Class
+				constantPool[index] = new ClassReference(in.readUnsignedShort());
+				break;
+			case 8: // String
+			case 16: // MethodType
+			case 19: // Module
+			case 20: // Package
+				in.skipBytes(2);
+				break;
+			case 15: // MethodHandle
+				in.skipBytes(3);
+				break;
+			case 9: // Fieldref
+			case 10: // Methodref
+			case 11: // InterfaceMethodref
+			case 12: // NameAndType
+			case 17: // Dynamic
+			case 18: // InvokeDynamic
+				in.skipBytes(4);
+				break;
+			default:
+				throw new IOException("Unknown constant pool tag " + tag + " at index " + index);
+			}
+		}
+	}
+
+	private void readMember(ClassFile classFile, AnnotationLocation location, AnnotationLocation parameterLocation)
+			throws IOException {
+		in.readUnsignedShort(); // access flags
+		String name = utf8At(in.readUnsignedShort());
+		in.readUnsignedShort(); // descriptor
+		if (CONSTRUCTOR_NAME.equals(name)) {
+			readAttributes(classFile, AnnotationLocation.CONSTRUCTOR, AnnotationLocation.CONSTRUCTOR_PARAMETER);
+		} else {
+			readAttributes(classFile, location, parameterLocation);
+		}
+	}
+
+	private void readAttributes(ClassFile classFile, AnnotationLocation location, AnnotationLocation parameterLocation)
+			throws IOException {
+		int attributes = in.readUnsignedShort();
+		for (int i = 0; i < attributes; i++) {
+			String name = utf8At(in.readUnsignedShort());
+			int length = in.readInt();
+			if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+				readAnnotations(classFile, location);
+			} else if (parameterLocation != null && RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS.equals(name)) {
+				int parameters = in.readUnsignedByte();
+				for (int parameter = 0; parameter < parameters; parameter++) {
+					readAnnotations(classFile, parameterLocation);
+				}
+			} else {
+				skipFully(length);
+			}
+		}
+	}
+
+	private void readAnnotations(ClassFile classFile, AnnotationLocation location) throws IOException {
+		int annotations = in.readUnsignedShort();
+		for (int i = 0; i < annotations; i++) {
+			classFile.add(readAnnotation(), location);
+		}
+	}
+
+	private ScannedAnnotation readAnnotation() throws IOException {
+		String typeName = classNameOfDescriptor(utf8At(in.readUnsignedShort()));
+		int pairs = in.readUnsignedShort();
+		Map<String, Object> values = (pairs == 0) ? Collections.<String, Object>emptyMap()
+				: new LinkedHashMap<>(pairs * 2);
+		for (int i = 0; i < pairs; i++) {
+			String name = utf8At(in.readUnsignedShort());
+			values.put(name, readElementValue());
+		}
+		return new ScannedAnnotation(typeName, values);
+	}
+
+	/**
+	 * Reads an element value of an annotation. Enum constants are represented by
+	 * their names and classes by their names (see {@link Class#getName()}).
+	 */
+	private Object readElementValue() throws IOException {
+		int tag = in.readUnsignedByte();
+		switch (tag) {
+		case 'B':
+			return Byte.valueOf(((Integer) constantAt(in.readUnsignedShort())).byteValue());
+		case 'C':
+			return Character.valueOf((char) ((Integer) constantAt(in.readUnsignedShort())).intValue());
+		case 'S':
+			return Short.valueOf(((Integer) constantAt(in.readUnsignedShort())).shortValue());
+		case 'Z':
+			return Boolean.valueOf(((Integer) constantAt(in.readUnsignedShort())).intValue() != 0);
+		case 'I':
+		case 'J':
+		case 'F':
+		case 'D':
+		case 's':
+			return constantAt(in.readUnsignedShort());
+		case 'e':
+			in.readUnsignedShort(); // type name
+			return utf8At(in.readUnsignedShort());
+		case 'c':
+			return classNameOfDescriptor(utf8At(in.readUnsignedShort()));
+		case '@':
+			return readAnnotation();
+		case '[':
+			int length = in.readUnsignedShort();
+			List<Object> values = new ArrayList<>(length);
+			for (int i = 0; i < length; i++) {
+				values.add(readElementValue());
+			}
+			return Collections.unmodifiableList(values);
+		default:
+			throw new IOException("Unknown element value tag " + (char) tag);
+		}
+	}
+
+	private void skipFully(int length) throws IOException {
+		int remaining = length;
+		while (remaining > 0) {
+			int skipped = in.skipBytes(remaining);
+			if (skipped <= 0) {
+				throw new IOException("Unexpected end of class file");
+			}
+			remaining -= skipped;
+		}
+	}
+
+	private Object constantAt(int index) throws IOException {
+		if (index <= 0 || index >= constantPool.length || constantPool[index] == null) {
+			throw new IOException("Invalid constant pool index " + index);
+		}
+		return constantPool[index];
+	}
+
+	private String utf8At(int index) throws IOException {
+		Object constant = constantAt(index);
+		if (!(constant instanceof String)) {
+			throw new IOException("No Utf8 constant at index " + index);
+		}
+		return (String) constant;
+	}
+
+	private String classNameAt(int index) throws IOException {
+		Object constant = constantAt(index);
+		if (!(constant instanceof ClassReference)) {
+			throw new IOException("No Class constant at index " + index);
+		}
+		return utf8At(((ClassReference) constant).nameIndex).replace('/', '.');
+	}
+
+	/**
+	 * Converts a field descriptor (e.g. <code>Ljava/lang/String;</code>) into a
+	 * class name (see {@link Class#getName()}).
+	 */
+	static String classNameOfDescriptor(String descriptor) {
+		if (descriptor.startsWith("L") && descriptor.endsWith(";")) {
+			return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+		}
+		if (descriptor.length() == 1) {
+			return primitiveNameOf(descriptor.charAt(0));
+		}
+		return descriptor.replace('/', '.');
+	}
+
+	private static String primitiveNameOf(char descriptor) {
+		switch (descriptor) {
+		case 'B':
+			return "byte";
+		case 'C':
+			return "char";
+		case 'D':
+			return "double";
+		case 'F':
+			return "float";
+		case 'I':
+			return "int";
+		case 'J':
+			return "long";
+		case 'S':
+			return "short";
+		case 'Z':
+			return "boolean";
+		case 'V':
+			return "void";
+		default:
+			return String.valueOf(descriptor);
+		}
+	}
+
+	/**
+	 * Unresolved <code>CONSTANT_Class</code> entry of the constant pool.
+	 */
+	private static final class ClassReference {
+		private final int nameIndex;
+
+		ClassReference(int nameIndex) {
+			this.nameIndex = nameIndex;
+		}
+
+		@Override
+		public String toString() {
+			return "ClassReference [nameIndex=" + nameIndex + "]";
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ClassFileReader [constantPool=" + ((constantPool != null) ? constantPool.length : 0) + "]";
+	}
+}
@@ -0,0 +1,391 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.enterprise.inject.Stereotype;
+
+import org.discovertypes.cdi.AnnotationLocation;
+import org.discovertypes.cdi.Discoverable;
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.internal.CollectedLocations;
+
+/**
+ * Discovers types by reading class files out of directories and jars (using
+ * the zip {@link FileSystem}) without loading any class, e.g. to index a large
+ * class path outside of CDI.
+ * <p>
+ * Like the CDI extension, all classes annotated with {@link Discoverable}
+ * directly or as meta-annotation at any location (including the containers of
+ * repeatable annotations) are discovered. Their annotation types are collected
+ * like those of a {@link DiscoveredType}, respecting
+ * {@link CollectedLocations}. First, the declarations of all scanned
+ * annotation types are resolved, so that the meta-annotations are known, when
+ * the classes are indexed. Annotation types and super classes, whose class
+ * files are not part of the scanned paths, contribute no further annotations.
+ * <p>
+ * The paths are read in parallel. If a class is contained in more than one
+ * path, the first one is used, like a {@link ClassLoader} would.
+ * 
+ * @author Johannes Troppacher
+ * @see ScannedTypes#toDiscoveredTypes(ClassLoader)
+ */
+public final class ClassFileScanner {
+
+	private static final String CLASS_FILE_SUFFIX = ".class";
+	private static final Set<String> SKIPPED_CLASS_FILES = new HashSet<>(
+			Arrays.asList("module-info.class", "package-info.class"));
+	private static final String DISCOVERABLE = Discoverable.class.getName();
+	private static final String REPEATABLE = Repeatable.class.getName();
+	private static final Set<String> IGNORED_ANNOTATIONS = new HashSet<>(Arrays.asList(Target.class.getName(),
+			Retention.class.getName(), Stereotype.class.getName(), Documented.class.getName(), REPEATABLE));
+	private static final Set<String> PRIORITY_ANNOTATIONS = new HashSet<>(
+			Arrays.asList("javax.annotation.Priority", "jakarta.annotation.Priority"));
+	private static final int MAX_RECURSIVE_DEPTH = 1;
+
+	/**
+	 * Meta-annotations (type annotations) of the scanned annotation types by
+	 * their names.
+	 */
+	private final Map<String, List<ScannedAnnotation>> metaAnnotations = new HashMap<>();
+	/**
+	 * Names of the scanned annotation types, that are annotated with
+	 * {@link Discoverable}, including {@link Discoverable} itself.
+	 */
+	private final Set<String> discoverableAnnotations = new HashSet<>();
+	/**
+	 * Names of the scanned containers of {@link Repeatable} annotations.
+	 */
+	private final Set<String> repeatableContainers = new HashSet<>();
+	private final Map<String, ClassFile> classFiles;
+	private final ClassLoader classLoader;
+
+	private ClassFileScanner(Map<String, ClassFile> classFiles, ClassLoader classLoader) {
+		this.classFiles = classFiles;
+		this.classLoader = classLoader;
+		discoverableAnnotations.add(DISCOVERABLE);
+	}
+
+	/**
+	 * Scans the class files of the given directories and jars. The
+	 * {@link ScannedType}s are resolved lazily using the context
+	 * {@link ClassLoader} of the current thread.
+	 * 
+	 * @param classPath - {@link Collection} of directories and jar files
+	 * @return {@link ScannedTypes}
+	 * @throws IOException if a path or class file can not be read
+	 */
+	public static ScannedTypes scan(Collection<Path> classPath) throws IOException {
+		return scan(classPath, Thread.currentThread().getContextClassLoader());
+	}
+
+	/**
+	 * Scans the class files of the given directories and jars.
+	 * 
+	 * @param classPath   - {@link Collection} of directories and jar files
+	 * @param classLoader - {@link ClassLoader}, that loads the
+	 *                    {@link ScannedType}s lazily (see
+	 *                    {@link ScannedType#getAnnotatedClass()})
+	 * @return {@link ScannedTypes}
+	 * @throws IOException if a path or class file can not be read
+	 */
+	public static ScannedTypes scan(Collection<Path> classPath, ClassLoader classLoader) throws IOException {
+		CollectedLocations.reconfigure();
+		List<List<ClassFile>> classFilesPerPath;
+		try {
+			classFilesPerPath = classPath.parallelStream().map(ClassFileScanner::readAllUnchecked)
+					.collect(Collectors.toList());
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		Map<String, ClassFile> classFiles = new HashMap<>();
+		for (List<ClassFile> classFilesOfPath : classFilesPerPath) {
+			for (ClassFile classFile : classFilesOfPath) {
+				classFiles.putIfAbsent(classFile.getName(), classFile);
+			}
+		}
+		ClassFileScanner scanner = new ClassFileScanner(classFiles, classLoader);
+		scanner.resolveAnnotationTypes();
+		return new ScannedTypes(scanner.scanTypes());
+	}
+
+	/**
+	 * Scans the class files of the class path of the JVM (system property
+	 * <code>java.class.path</code>).
+	 * 
+	 * @return {@link ScannedTypes}
+	 * @throws IOException if a path or class file can not be read
+	 */
+	public static ScannedTypes scanClassPath() throws IOException {
+		List<Path> classPath = new ArrayList<>();
+		for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+			if (!entry.isEmpty()) {
+				classPath.add(Paths.get(entry));
+			}
+		}
+		return scan(classPath);
+	}
+
+	private static List<ClassFile> readAllUnchecked(Path path) {
+		try {
+			return readAll(path);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static List<ClassFile> readAll(Path path) throws IOException {
+		if (Files.isDirectory(path)) {
+			return readAllBelow(path);
+		}
+		if (!Files.isRegularFile(path)) {
+			return new ArrayList<>();
+		}
+		try (FileSystem jar = FileSystems.newFileSystem(path, (ClassLoader) null)) {
+			List<ClassFile> classFiles = new ArrayList<>();
+			for (Path root : jar.getRootDirectories()) {
+				classFiles.addAll(readAllBelow(root));
+			}
+			return classFiles;
+		}
+	}
+
+	private static List<ClassFile> readAllBelow(Path root) throws IOException {
+		List<ClassFile> classFiles = new ArrayList<>();
+		try (Stream<Path> files = Files.walk(root)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				if (isClassFile(root, file)) {
+					classFiles.add(read(file));
+				}
+			}
+		}
+		return classFiles;
+	}
+
+	/**
+	 * Is <code>true</code> for class files except module and package
+	 * descriptors and versioned classes of multi-release jars.
+	 */
+	private static boolean isClassFile(Path root, Path file) {
+		String fileName = String.valueOf(file.getFileName());
+		return fileName.endsWith(CLASS_FILE_SUFFIX) && !SKIPPED_CLASS_FILES.contains(fileName)
+				&& !root.relativize(file).startsWith("META-INF") && Files.isRegularFile(file);
+	}
+
+	private static ClassFile read(Path file) throws IOException {
+		try {
+			return ClassFileReader.read(Files.readAllBytes(file));
+		} catch (IOException e) {
+			throw new IOException("Class file " + file.toUri() + " can not be read: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Resolves the meta-annotations of all scanned annotation types before the
+	 * classes are indexed.
+	 */
+	private void resolveAnnotationTypes() {
+		for (ClassFile classFile : classFiles.values()) {
+			if (!classFile.isAnnotationType()) {
+				continue;
+			}
+			List<ScannedAnnotation> typeAnnotations = classFile.getTypeAnnotations();
+			metaAnnotations.put(classFile.getName(), typeAnnotations);
+			for (ScannedAnnotation annotation : typeAnnotations) {
+				if (DISCOVERABLE.equals(annotation.getTypeName())) {
+					discoverableAnnotations.add(classFile.getName());
+				} else if (REPEATABLE.equals(annotation.getTypeName())) {
+					for (Object container : annotation.valuesOf("value")) {
+						repeatableContainers.add((String) container);
+					}
+				}
+			}
+		}
+	}
+
+	private List<ScannedType> scanTypes() {
+		List<ScannedType> scannedTypes = new ArrayList<>();
+		for (ClassFile classFile : classFiles.values()) {
+			if (!classFile.isAnnotationType() && isDiscoverable(classFile)) {
+				scannedTypes.add(scan(classFile));
+			}
+		}
+		return scannedTypes;
+	}
+
+	private boolean isDiscoverable(ClassFile classFile) {
+		for (ScannedAnnotation annotation : classFile.getAnnotations()) {
+			if (discoverableAnnotations.contains(annotation.getTypeName())) {
+				return true;
+			}
+			for (ScannedAnnotation repeated : repeatedIn(annotation)) {
+				if (discoverableAnnotations.contains(repeated.getTypeName())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private ScannedType scan(ClassFile classFile) {
+		Set<AnnotationLocation> collectedLocations = collectedLocationsOf(classFile);
+		Map<String, Integer> locationMasks = new TreeMap<>();
+		List<ScannedAnnotation> annotations = classFile.getAnnotations();
+		List<AnnotationLocation> locations = classFile.getLocations();
+		for (int i = 0; i < annotations.size(); i++) {
+			if (collectedLocations.contains(locations.get(i))) {
+				add(annotations.get(i), locations.get(i), locationMasks, 0);
+			}
+		}
+		if (collectedLocations.contains(AnnotationLocation.SUPER_TYPE)) {
+			ClassFile superClass = classFiles.get(classFile.getSuperClassName());
+			while (superClass != null) {
+				for (ScannedAnnotation annotation : superClass.getTypeAnnotations()) {
+					add(annotation, AnnotationLocation.SUPER_TYPE, locationMasks, 0);
+				}
+				superClass = classFiles.get(superClass.getSuperClassName());
+			}
+		}
+		return new ScannedType(classFile.getName(), priorityOf(classFile), locationMasks, classLoader);
+	}
+
+	/**
+	 * Adds the given annotation, its meta-annotations and the annotations of a
+	 * container of repeatable annotations like the {@link DiscoveredType} does.
+	 */
+	private void add(ScannedAnnotation annotation, AnnotationLocation location, Map<String, Integer> locationMasks,
+			int recursiveDepth) {
+		if (IGNORED_ANNOTATIONS.contains(annotation.getTypeName())) {
+			return;
+		}
+		addLocation(annotation.getTypeName(), location, locationMasks);
+		if (recursiveDepth < MAX_RECURSIVE_DEPTH) {
+			addMetaAnnotations(annotation.getTypeName(), location, locationMasks, recursiveDepth);
+		}
+		List<ScannedAnnotation> repeated = repeatedIn(annotation);
+		for (ScannedAnnotation repeatedAnnotation : repeated) {
+			addLocation(repeatedAnnotation.getTypeName(), location, locationMasks);
+		}
+		if (!repeated.isEmpty() && recursiveDepth < MAX_RECURSIVE_DEPTH) {
+			addMetaAnnotations(repeated.get(0).getTypeName(), location, locationMasks, recursiveDepth);
+		}
+	}
+
+	private void addMetaAnnotations(String annotationTypeName, AnnotationLocation location,
+			Map<String, Integer> locationMasks, int recursiveDepth) {
+		List<ScannedAnnotation> annotationsOfType = metaAnnotations.get(annotationTypeName);
+		if (annotationsOfType != null) {
+			for (ScannedAnnotation metaAnnotation : annotationsOfType) {
+				add(metaAnnotation, location, locationMasks, recursiveDepth + 1);
+			}
+		}
+	}
+
+	private static void addLocation(String annotationTypeName, AnnotationLocation location,
+			Map<String, Integer> locationMasks) {
+		Integer mask = locationMasks.get(annotationTypeName);
+		int locationBit = 1 << location.ordinal();
+		locationMasks.put(annotationTypeName, Integer.valueOf((mask == null) ? locationBit : mask | locationBit));
+	}
+
+	private List<ScannedAnnotation> repeatedIn(ScannedAnnotation annotation) {
+		if (!repeatableContainers.contains(annotation.getTypeName())) {
+			return new ArrayList<>();
+		}
+		List<ScannedAnnotation> repeated = new ArrayList<>();
+		for (Object value : annotation.valuesOf("value")) {
+			if (value instanceof ScannedAnnotation) {
+				repeated.add((ScannedAnnotation) value);
+			}
+		}
+		return repeated;
+	}
+
+	/**
+	 * Resolves the {@link AnnotationLocation}s to collect using the
+	 * {@link Discoverable#locations()} of the type annotations like
+	 * {@link CollectedLocations} does for loaded classes.
+	 */
+	private Set<AnnotationLocation> collectedLocationsOf(ClassFile classFile) {
+		List<AnnotationLocation[]> declaredLocations = new ArrayList<>();
+		for (ScannedAnnotation annotation : classFile.getTypeAnnotations()) {
+			ScannedAnnotation discoverable = discoverableOf(annotation);
+			if (discoverable != null) {
+				List<?> locations = discoverable.valuesOf("locations");
+				AnnotationLocation[] declared = new AnnotationLocation[locations.size()];
+				for (int i = 0; i < declared.length; i++) {
+					declared[i] = AnnotationLocation.valueOf((String) locations.get(i));
+				}
+				declaredLocations.add(declared);
+			}
+		}
+		return CollectedLocations.resolve(declaredLocations);
+	}
+
+	private ScannedAnnotation discoverableOf(ScannedAnnotation annotation) {
+		if (DISCOVERABLE.equals(annotation.getTypeName())) {
+			return annotation;
+		}
+		List<ScannedAnnotation> annotationsOfType = metaAnnotations.get(annotation.getTypeName());
+		if (annotationsOfType != null) {
+			for (ScannedAnnotation metaAnnotation : annotationsOfType) {
+				if (DISCOVERABLE.equals(metaAnnotation.getTypeName())) {
+					return metaAnnotation;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static int priorityOf(ClassFile classFile) {
+		for (ScannedAnnotation annotation : classFile.getTypeAnnotations()) {
+			if (PRIORITY_ANNOTATIONS.contains(annotation.getTypeName())) {
+				Object value = annotation.getValues().get("value");
+				if (value instanceof Integer) {
+					return ((Integer) value).intValue();
+				}
+			}
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public String toString() {
+		return "ClassFileScanner [classFiles=" + classFiles.size() + ", discoverableAnnotations="
+				+ discoverableAnnotations + "]";
+	}
+}
@@ -0,0 +1,70 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.scan;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Annotation read from a class file with its explicitly set member values.
+ * <p>
+ * Default values of the annotation type are not contained. Enum constants and
+ * classes are represented by their names, arrays by unmodifiable {@link List}s
+ * and nested annotations by {@link ScannedAnnotation}s.
+ * 
+ * @author Johannes Troppacher
+ */
+final class ScannedAnnotation {
+
+	private final String typeName;
+	private final Map<String, Object> values;
+
+	ScannedAnnotation(String typeName, Map<String, Object> values) {
+		this.typeName = typeName;
+		this.values = Collections.unmodifiableMap(values);
+	}
+
+	/**
+	 * Gets the name of the annotation type (see {@link Class#getName()}).
+	 */
+	String getTypeName() {
+		return typeName;
+	}
+
+	/**
+	 * Gets the explicitly set member values by member name.
+	 */
+	Map<String, Object> getValues() {
+		return values;
+	}
+
+	/**
+	 * Gets the explicitly set value of the given member as {@link List}, even if
+	 * a single value had been set. The {@link List} is empty, if the member had
+	 * not been set.
+	 */
+	List<?> valuesOf(String member) {
+		Object value = values.get(member);
+		if (value == null) {
+			return Collections.emptyList();
+		}
+		return (value instanceof List) ? (List<?>) value : Collections.singletonList(value);
+	}
+
+	@Override
+	public String toString() {
+		return "@" + typeName + values;
+	}
+}
@@ -0,0 +1,244 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.scan;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.discovertypes.cdi.AnnotationLocation;
+import org.discovertypes.cdi.DiscoveredType;
+
+/**
+ * Represents a type, that had been discovered by the {@link ClassFileScanner}
+ * without loading it, by the names of its annotation types and their
+ * {@link AnnotationLocation}s.
+ * <p>
+ * The annotation types are collected like those of a {@link DiscoveredType}
+ * (including meta-annotations and the contents of containers of repeatable
+ * annotations), as far as their class files had been scanned.
+ * <p>
+ * Only the names and locations are kept. The {@link Class} is loaded lazily,
+ * when {@link #getAnnotatedClass()} is called for the first time, so that
+ * types, that are never used, consume no metaspace.
+ * 
+ * @author Johannes Troppacher
+ */
+public final class ScannedType implements Serializable {
+
+	private static final long serialVersionUID = -6520591468003226415L;
+	private static final AnnotationLocation[] LOCATIONS = AnnotationLocation.values();
+
+	/**
+	 * Orders {@link ScannedType}s like {@link DiscoveredType}s by their ascending
+	 * priority and then by their class name.
+	 */
+	static final Comparator<ScannedType> ORDER = Comparator.comparingInt(ScannedType::getPriority)
+			.thenComparing(ScannedType::getClassName);
+
+	private final String className;
+	private final int priority;
+	/**
+	 * Sorted names of the annotation types.
+	 */
+	private final String[] annotationTypeNames;
+	/**
+	 * Bitmasks of the {@link AnnotationLocation}s (bit = ordinal) at the same
+	 * index as {@link #annotationTypeNames}.
+	 */
+	private final byte[] locationMasks;
+	/**
+	 * {@link ClassLoader} of the scan, <code>null</code> after deserialization.
+	 */
+	private final transient ClassLoader classLoader;
+	private transient volatile Class<?> annotatedClass;
+
+	/**
+	 * Creates a {@link ScannedType} out of the bitmasks of the locations of its
+	 * annotation types.
+	 * 
+	 * @param className      - name of the class
+	 * @param priority       - priority or {@link Integer#MAX_VALUE}
+	 * @param locationMasks  - {@link Map} of location bitmasks (bit = ordinal) by
+	 *                       annotation type name, sorted by name
+	 * @param classLoader    - {@link ClassLoader} to resolve the type lazily
+	 */
+	ScannedType(String className, int priority, Map<String, Integer> locationMasks, ClassLoader classLoader) {
+		this.className = requireNonNull(className, "className");
+		this.priority = priority;
+		this.classLoader = classLoader;
+		this.annotationTypeNames = locationMasks.keySet().toArray(new String[locationMasks.size()]);
+		this.locationMasks = new byte[annotationTypeNames.length];
+		for (int i = 0; i < annotationTypeNames.length; i++) {
+			this.locationMasks[i] = locationMasks.get(annotationTypeNames[i]).byteValue();
+		}
+	}
+
+	/**
+	 * Gets the name of the type (see {@link Class#getName()}).
+	 * 
+	 * @return name of the class
+	 */
+	public String getClassName() {
+		return className;
+	}
+
+	/**
+	 * Gets the value of the <code>javax.annotation.Priority</code> or
+	 * <code>jakarta.annotation.Priority</code> annotation of the type.
+	 * 
+	 * @return priority or {@link Integer#MAX_VALUE}, if not annotated
+	 * @see DiscoveredType#getPriority()
+	 */
+	public int getPriority() {
+		return priority;
+	}
+
+	/**
+	 * Gets the names of all annotation types of the type.
+	 * 
+	 * @return {@link Set} of annotation type names
+	 */
+	public Set<String> getAnnotationTypeNames() {
+		return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(annotationTypeNames)));
+	}
+
+	/**
+	 * Is <code>true</code>, if the type is annotated with the given annotation
+	 * type at any {@link AnnotationLocation}.
+	 * 
+	 * @param annotationTypeName - name of the annotation type
+	 * @return <code>true</code>, if annotated
+	 */
+	public boolean isAnnotatedWith(String annotationTypeName) {
+		return Arrays.binarySearch(annotationTypeNames, annotationTypeName) >= 0;
+	}
+
+	/**
+	 * Is <code>true</code>, if the type is annotated with the given annotation
+	 * type at any {@link AnnotationLocation}.
+	 * 
+	 * @param annotationType - {@link Class} of the {@link Annotation}
+	 * @return <code>true</code>, if annotated
+	 */
+	public boolean isAnnotatedWith(Class<? extends Annotation> annotationType) {
+		return isAnnotatedWith(annotationType.getName());
+	}
+
+	/**
+	 * Gets all {@link AnnotationLocation}s, where the type is annotated with the
+	 * given annotation type.
+	 * 
+	 * @param annotationTypeName - name of the annotation type
+	 * @return {@link Set} of {@link AnnotationLocation}s, empty if not annotated
+	 */
+	public Set<AnnotationLocation> getAnnotationLocations(String annotationTypeName) {
+		int index = Arrays.binarySearch(annotationTypeNames, annotationTypeName);
+		Set<AnnotationLocation> locations = EnumSet.noneOf(AnnotationLocation.class);
+		if (index >= 0) {
+			for (AnnotationLocation location : LOCATIONS) {
+				if ((locationMasks[index] & (1 << location.ordinal())) != 0) {
+					locations.add(location);
+				}
+			}
+		}
+		return Collections.unmodifiableSet(locations);
+	}
+
+	/**
+	 * Gets the {@link Class} of the type, that is loaded (without initializing
+	 * it) on the first call using the {@link ClassLoader} of the scan (or the
+	 * context {@link ClassLoader} after deserialization). This method is thread
+	 * safe and loads the type only once.
+	 * 
+	 * @return {@link Class}
+	 * @throws TypeNotPresentException if the type can not be found
+	 */
+	public Class<?> getAnnotatedClass() {
+		Class<?> resolved = annotatedClass;
+		if (resolved == null) {
+			synchronized (this) {
+				resolved = annotatedClass;
+				if (resolved == null) {
+					resolved = resolve();
+					annotatedClass = resolved;
+				}
+			}
+		}
+		return resolved;
+	}
+
+	private Class<?> resolve() {
+		ClassLoader loader = (classLoader != null) ? classLoader : Thread.currentThread().getContextClassLoader();
+		try {
+			return loadClass(loader);
+		} catch (ClassNotFoundException | LinkageError e) {
+			throw new TypeNotPresentException(className, e);
+		}
+	}
+
+	/**
+	 * Is <code>true</code>, if the {@link Class} of the type had already been
+	 * loaded by {@link #getAnnotatedClass()}.
+	 * 
+	 * @return <code>true</code>, if resolved
+	 */
+	public boolean isResolved() {
+		return annotatedClass != null;
+	}
+
+	/**
+	 * Loads the type without initializing it.
+	 * 
+	 * @param classLoader - {@link ClassLoader} to load the type with
+	 * @return {@link Class}
+	 * @throws ClassNotFoundException if the type can not be found
+	 */
+	public Class<?> loadClass(ClassLoader classLoader) throws ClassNotFoundException {
+		return Class.forName(className, false, classLoader);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof ScannedType)) {
+			return false;
+		}
+		ScannedType type = (ScannedType) other;
+		return className.equals(type.className) && priority == type.priority
+				&& Arrays.equals(annotationTypeNames, type.annotationTypeNames)
+				&& Arrays.equals(locationMasks, type.locationMasks);
+	}
+
+	@Override
+	public int hashCode() {
+		return className.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "ScannedType [className=" + className + ", annotationTypeNames=" + Arrays.toString(annotationTypeNames)
+				+ "]";
+	}
+}
@@ -0,0 +1,155 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.scan;
+
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+
+/**
+ * Index of the {@link ScannedType}s found by the {@link ClassFileScanner}, that
+ * is queried by annotation type names like {@link DiscoveredTypes} without
+ * loading any of the types.
+ * <p>
+ * The {@link ScannedType}s keep only names and locations and load their
+ * {@link Class} lazily using {@link ScannedType#getAnnotatedClass()}, so that
+ * only the types, that are actually used, are loaded.
+ * <p>
+ * The results are ordered like those of {@link DiscoveredTypes} (see
+ * {@link DiscoveredType#getPriority()}). Use
+ * {@link #toDiscoveredTypes(ClassLoader)} to get {@link DiscoveredTypes}, which
+ * loads only the discovered types.
+ * 
+ * @author Johannes Troppacher
+ */
+public final class ScannedTypes implements Iterable<ScannedType>, Serializable {
+
+	private static final long serialVersionUID = 4079433958934883512L;
+	private static final ScannedType[] NO_SCANNED_TYPES = new ScannedType[0];
+
+	private final ScannedType[] allScannedTypes;
+	private final Map<String, ScannedType[]> scannedTypes;
+
+	ScannedTypes(Collection<ScannedType> types) {
+		this.allScannedTypes = types.toArray(NO_SCANNED_TYPES);
+		Arrays.sort(allScannedTypes, ScannedType.ORDER);
+		Map<String, List<ScannedType>> typesByAnnotation = new HashMap<>();
+		for (ScannedType type : allScannedTypes) {
+			for (String annotationTypeName : type.getAnnotationTypeNames()) {
+				typesByAnnotation.computeIfAbsent(annotationTypeName, name -> new ArrayList<>()).add(type);
+			}
+		}
+		Map<String, ScannedType[]> index = new HashMap<>();
+		for (Map.Entry<String, List<ScannedType>> entry : typesByAnnotation.entrySet()) {
+			index.put(entry.getKey(), entry.getValue().toArray(NO_SCANNED_TYPES));
+		}
+		this.scannedTypes = index;
+	}
+
+	/**
+	 * Gets the {@link ScannedType}s, that are annotated with the given annotation
+	 * type.
+	 * 
+	 * @param annotationTypeName - name of the annotation type
+	 * @return unmodifiable {@link Collection} of {@link ScannedType}s
+	 */
+	public Collection<ScannedType> annotatedWith(String annotationTypeName) {
+		ScannedType[] types = scannedTypes.get(annotationTypeName);
+		return (types == null) ? Collections.<ScannedType>emptyList()
+				: Collections.unmodifiableList(Arrays.asList(types));
+	}
+
+	/**
+	 * Gets the {@link ScannedType}s, that are annotated with the given annotation
+	 * type.
+	 * 
+	 * @param annotationType - {@link Class} of the {@link Annotation}
+	 * @return unmodifiable {@link Collection} of {@link ScannedType}s
+	 */
+	public Collection<ScannedType> annotatedWith(Class<? extends Annotation> annotationType) {
+		return annotatedWith(annotationType.getName());
+	}
+
+	/**
+	 * Gets the names of all annotation types, that at least one of the
+	 * {@link ScannedType}s is annotated with.
+	 * 
+	 * @return {@link Set} of annotation type names
+	 */
+	public Set<String> getAnnotationTypeNames() {
+		return Collections.unmodifiableSet(scannedTypes.keySet());
+	}
+
+	/**
+	 * Gets the number of all {@link ScannedType}s.
+	 * 
+	 * @return number of {@link ScannedType}s
+	 */
+	public int size() {
+		return allScannedTypes.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<ScannedType> iterator() {
+		return Collections.unmodifiableList(Arrays.asList(allScannedTypes)).iterator();
+	}
+
+	/**
+	 * Creates a {@link Stream} of all {@link ScannedType}s.
+	 * 
+	 * @return {@link Stream} of {@link ScannedType}s
+	 */
+	public Stream<ScannedType> stream() {
+		return Arrays.stream(allScannedTypes);
+	}
+
+	/**
+	 * Loads the {@link ScannedType}s and creates {@link DiscoveredTypes} out of
+	 * them, to use them programmatically outside CDI.
+	 * 
+	 * @param classLoader - {@link ClassLoader} to load the types with
+	 * @return initialized {@link DiscoveredTypes}
+	 * @throws ClassNotFoundException if a type can not be found
+	 */
+	public DiscoveredTypes toDiscoveredTypes(ClassLoader classLoader) throws ClassNotFoundException {
+		List<DiscoveredType> discoveredTypes = new ArrayList<>(allScannedTypes.length);
+		for (ScannedType type : allScannedTypes) {
+			discoveredTypes.add(DiscoveredType.of(type.loadClass(classLoader)));
+		}
+		DiscoveredTypes discovered = new DiscoveredTypes();
+		discovered.initializeWith(discoveredTypes);
+		return discovered;
+	}
+
+	@Override
+	public String toString() {
+		return "ScannedTypes [annotationTypeNames=" + scannedTypes.keySet() + ", scannedTypes=" + allScannedTypes.length
+				+ "]";
+	}
+}
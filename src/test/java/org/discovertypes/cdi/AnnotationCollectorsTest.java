@@ -18,6 +18,7 @@ import static org.discovertypes.cdi.AnnotationCollectorsTestcases.testAnnotation
 import static org.discovertypes.cdi.AnnotationCollectorsTestcases.testMetaAnnotation;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -29,8 +30,12 @@ import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestAnnotatedConstruc
 import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestAnnotatedConstructorParameter;
 import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestAnnotatedField;
 import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestAnnotatedMethod;
+import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestAnnotatedMethodAndParameterWithDiscoverable;
+import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestAnnotatedMethodAndParameterWithMethodsOnly;
 import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestAnnotatedMethodParameter;
 import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestAnnotatedSuperClass;
+import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestRepeatable;
+import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestRepeatedAnnotations;
 import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestSubClassOfAnnotatedSuper;
 import org.junit.Test;
 
@@ -197,6 +202,55 @@ public class AnnotationCollectorsTest {
 		}
 	}
 
+	@Test
+	public void allAnnotationsOfDiscoverableLocationsOnly() {
+		AnnotationCollectors.collectAllAnnotationsOf(TestAnnotatedMethodAndParameterWithMethodsOnly.class, annotations);
+		assertThat(annotations, hasItem(new DiscoveredAnnotation(testMetaAnnotation(), AnnotationLocation.METHOD)));
+		assertThat(annotations,
+				not(hasItem(new DiscoveredAnnotation(testMetaAnnotation(), AnnotationLocation.METHOD_PARAMETER))));
+	}
+
+	@Test
+	public void allAnnotationsOfAllLocationsWithoutDiscoverableLocations() {
+		AnnotationCollectors.collectAllAnnotationsOf(TestAnnotatedMethodAndParameterWithDiscoverable.class,
+				annotations);
+		assertThat(annotations, hasItem(new DiscoveredAnnotation(testMetaAnnotation(), AnnotationLocation.METHOD)));
+		assertThat(annotations,
+				hasItem(new DiscoveredAnnotation(testMetaAnnotation(), AnnotationLocation.METHOD_PARAMETER)));
+	}
+
+	@Test
+	public void repeatedAnnotationsUnwrappedFromContainer() {
+		collector = AnnotationCollectors.TYPE;
+		collector.collectAnnotationsOf(TestRepeatedAnnotations.class, annotations);
+		TestRepeatable[] repeated = TestRepeatedAnnotations.class.getAnnotationsByType(TestRepeatable.class);
+		assertThat(repeated.length, is(2));
+		assertThat(annotations, hasItem(new DiscoveredAnnotation(repeated[0], AnnotationLocation.TYPE)));
+		assertThat(annotations, hasItem(new DiscoveredAnnotation(repeated[1], AnnotationLocation.TYPE)));
+		assertThat(annotations, hasItem(new DiscoveredAnnotation(
+				TestRepeatedAnnotations.class.getAnnotation(TestRepeatable.List.class), AnnotationLocation.TYPE)));
+		assertThat(annotations, hasItem(new DiscoveredAnnotation(testAnnotation(), AnnotationLocation.TYPE)));
+		assertThat(annotations.size(), is(4));
+	}
+
+	@Test
+	public void singleRepeatableAnnotationNotWrapped() throws NoSuchMethodException {
+		collector = AnnotationCollectors.METHODS;
+		collector.collectAnnotationsOf(TestRepeatedAnnotations.class, annotations);
+		TestRepeatable annotation = TestRepeatedAnnotations.class.getMethod("method").getAnnotation(TestRepeatable.class);
+		assertThat(annotations, hasItem(new DiscoveredAnnotation(annotation, AnnotationLocation.METHOD)));
+		assertThat(annotations, hasItem(new DiscoveredAnnotation(testAnnotation(), AnnotationLocation.METHOD)));
+		assertThat(annotations.size(), is(2));
+	}
+
+	@Test
+	public void discoveredTypeAnnotatedWithEachRepeatedAnnotation() {
+		DiscoveredType type = DiscoveredType.of(TestRepeatedAnnotations.class);
+		assertThat(type.getAnnotations(TestRepeatable.class).size(), is(3));
+		assertTrue(type.isAnnotatedWith(TestRepeatable.class, AnnotationLocation.TYPE));
+		assertTrue(type.isAnnotatedWith(TestRepeatable.class, AnnotationLocation.METHOD));
+	}
+
 	private void assertAllAnnotationsFound() {
 		assertThat(annotations, hasItem(new DiscoveredAnnotation(testAnnotation(), collector.getLocation())));
 		assertThat(annotations, hasItem(new DiscoveredAnnotation(testMetaAnnotation(), collector.getLocation())));
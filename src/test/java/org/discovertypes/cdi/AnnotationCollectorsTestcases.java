@@ -15,6 +15,7 @@ package org.discovertypes.cdi;
 
 import java.lang.annotation.Annotation;
 import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
@@ -22,7 +23,7 @@ import java.lang.annotation.Target;
 import org.junit.Ignore;
 
 @Ignore
-class AnnotationCollectorsTestcases {
+public class AnnotationCollectorsTestcases {
 
 	public static final DiscoveredAnnotation discoveredTypeOf(Annotation annotation) {
 		return new DiscoveredAnnotation(annotation, AnnotationLocation.TYPE);
@@ -94,4 +95,54 @@ class AnnotationCollectorsTestcases {
 		public String value;
 
 	}
-}
\ No newline at end of file
+
+	@Target({ ElementType.TYPE })
+	@Retention(RetentionPolicy.RUNTIME)
+	@Discoverable(locations = AnnotationLocation.METHOD)
+	public static @interface TestMethodsOnly {
+
+	}
+
+	@TestMethodsOnly
+	public static class TestAnnotatedMethodAndParameterWithMethodsOnly {
+
+		@TestMetaAnnotation
+		public void method(@TestMetaAnnotation String parameter) {
+
+		}
+	}
+
+	@Discoverable
+	public static class TestAnnotatedMethodAndParameterWithDiscoverable {
+
+		@TestMetaAnnotation
+		public void method(@TestMetaAnnotation String parameter) {
+
+		}
+	}
+
+	@Target({ ElementType.TYPE, ElementType.METHOD })
+	@Retention(RetentionPolicy.RUNTIME)
+	@Repeatable(TestRepeatable.List.class)
+	@TestAnnotation
+	public static @interface TestRepeatable {
+
+		String value();
+
+		@Target({ ElementType.TYPE, ElementType.METHOD })
+		@Retention(RetentionPolicy.RUNTIME)
+		public static @interface List {
+			TestRepeatable[] value();
+		}
+	}
+
+	@TestRepeatable("first")
+	@TestRepeatable("second")
+	public static class TestRepeatedAnnotations {
+
+		@TestRepeatable("method")
+		public void method() {
+
+		}
+	}
+}
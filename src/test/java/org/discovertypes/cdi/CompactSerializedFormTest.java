@@ -0,0 +1,231 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.enterprise.inject.Vetoed;
+import javax.enterprise.util.AnnotationLiteral;
+import javax.inject.Named;
+
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class CompactSerializedFormTest {
+
+	private DiscoveredTypes discoveredTypes = new DiscoveredTypes();
+
+	@Before
+	public void setUp() {
+		discoveredTypes.initializeWith(asList(DiscoveredType.of(AllMemberTypes.class),
+				DiscoveredType.of(DefaultMemberTypes.class), DiscoveredType.of(CompactSerializedFormTest.class)));
+	}
+
+	@Test
+	public void discoveredTypesEqualAfterDeserialization() throws Exception {
+		DiscoveredTypes deserialized = roundTrip(discoveredTypes);
+		assertEquals(DiscoveredTypes.class, deserialized.getClass());
+		assertEquals(listOf(discoveredTypes), listOf(deserialized));
+		for (int i = 0; i < listOf(discoveredTypes).size(); i++) {
+			assertEquals(listOf(discoveredTypes).get(i).getAnnotations(), listOf(deserialized).get(i).getAnnotations());
+		}
+		assertEquals(discoveredTypes.getAnnotationTypes(), deserialized.getAnnotationTypes());
+		assertEquals(2, deserialized.countAnnotatedWith(MemberTypes.class));
+	}
+
+	@Test
+	public void undiscoveredTypesRemainUndiscovered() throws Exception {
+		DiscoveredTypes deserialized = roundTrip(new DiscoveredTypes());
+		deserialized.initializeWith(listOf(discoveredTypes));
+		assertEquals(listOf(discoveredTypes), listOf(deserialized));
+	}
+
+	@Test
+	public void annotationMemberValuesEqualAfterDeserialization() throws Exception {
+		MemberTypes original = AllMemberTypes.class.getAnnotation(MemberTypes.class);
+		MemberTypes deserialized = roundTrip(DiscoveredType.of(AllMemberTypes.class)).getAnnotation(MemberTypes.class);
+		assertNotSame(original, deserialized);
+		assertEquals(original.booleanValue(), deserialized.booleanValue());
+		assertEquals(original.charValue(), deserialized.charValue());
+		assertEquals(original.longValue(), deserialized.longValue());
+		assertEquals(original.doubleValue(), deserialized.doubleValue(), 0.0);
+		assertArrayEquals(original.intValues(), deserialized.intValues());
+		assertArrayEquals(original.stringValues(), deserialized.stringValues());
+		assertEquals(original.classValue(), deserialized.classValue());
+		assertEquals(original.primitiveClassValue(), deserialized.primitiveClassValue());
+		assertEquals(original.enumValue(), deserialized.enumValue());
+		assertEquals(original.annotationValue(), deserialized.annotationValue());
+		assertArrayEquals(original.annotationValues(), deserialized.annotationValues());
+		assertEquals(MemberTypes.class, deserialized.annotationType());
+	}
+
+	@Test
+	public void deserializedAnnotationEqualsReflectedAnnotation() throws Exception {
+		for (Class<?> type : asList(AllMemberTypes.class, DefaultMemberTypes.class)) {
+			MemberTypes original = type.getAnnotation(MemberTypes.class);
+			MemberTypes deserialized = roundTrip(DiscoveredType.of(type)).getAnnotation(MemberTypes.class);
+			assertTrue(original.equals(deserialized));
+			assertTrue(deserialized.equals(original));
+			assertEquals(original.hashCode(), deserialized.hashCode());
+		}
+		MemberTypes all = AllMemberTypes.class.getAnnotation(MemberTypes.class);
+		MemberTypes defaults = roundTrip(DiscoveredType.of(DefaultMemberTypes.class)).getAnnotation(MemberTypes.class);
+		assertFalse(defaults.equals(all));
+	}
+
+	@Test
+	public void returnedArraysAreCopies() throws Exception {
+		MemberTypes deserialized = roundTrip(DiscoveredType.of(AllMemberTypes.class)).getAnnotation(MemberTypes.class);
+		deserialized.intValues()[0] = -1;
+		assertEquals(1, deserialized.intValues()[0]);
+	}
+
+	@Test
+	public void discoveredAnnotationEqualsAfterDeserialization() throws Exception {
+		DiscoveredAnnotation annotation = new DiscoveredAnnotation(
+				CompactSerializedFormTest.class.getAnnotation(FixMethodOrder.class), AnnotationLocation.METHOD);
+		assertEquals(annotation, roundTrip(annotation));
+	}
+
+	@Test
+	public void stringsLongerThanModifiedUtf8LimitSupported() throws Exception {
+		char[] chars = new char[40000];
+		Arrays.fill(chars, '\u00e4');
+		String value = new String(chars);
+		DiscoveredType type = DiscoveredType.of(DefaultMemberTypes.class)
+				.withAdditionalAnnotation(new DiscoveredAnnotation(new NamedLiteral(value), AnnotationLocation.TYPE));
+		assertEquals(value, roundTrip(type).getAnnotation(Named.class).value());
+	}
+
+	@Test
+	public void subclassesKeepDefaultSerialization() throws Exception {
+		DiscoveredTypes subclass = new DefaultSerializedDiscoveredTypes();
+		subclass.initializeWith(listOf(discoveredTypes));
+		DiscoveredTypes deserialized = roundTrip(subclass);
+		assertEquals(subclass.getClass(), deserialized.getClass());
+		assertEquals(listOf(discoveredTypes), listOf(deserialized));
+	}
+
+	@Test
+	public void compactFormIsSmallerThanDefaultSerialization() throws Exception {
+		int compactSize = serialize(discoveredTypes).length;
+		System.setProperty(DiscoveredTypes.COMPACT_SERIALIZATION_PROPERTY, "false");
+		try {
+			int defaultSize = serialize(discoveredTypes).length;
+			assertTrue(compactSize + " < " + defaultSize, compactSize < defaultSize);
+			assertEquals(listOf(discoveredTypes), listOf(roundTrip(discoveredTypes)));
+		} finally {
+			System.clearProperty(DiscoveredTypes.COMPACT_SERIALIZATION_PROPERTY);
+		}
+	}
+
+	private static List<DiscoveredType> listOf(Iterable<DiscoveredType> types) {
+		List<DiscoveredType> list = new ArrayList<>();
+		types.forEach(list::add);
+		return list;
+	}
+
+	private static byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(object);
+		}
+		return bytes.toByteArray();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T roundTrip(T object) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(object)))) {
+			return (T) in.readObject();
+		}
+	}
+
+	@Vetoed
+	private static class DefaultSerializedDiscoveredTypes extends DiscoveredTypes {
+		private static final long serialVersionUID = 1L;
+	}
+
+	private static class NamedLiteral extends AnnotationLiteral<Named> implements Named {
+		private static final long serialVersionUID = 1L;
+
+		private final String value;
+
+		NamedLiteral(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public String value() {
+			return value;
+		}
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.TYPE)
+	private @interface MemberTypes {
+		boolean booleanValue() default false;
+
+		char charValue() default 'a';
+
+		long longValue() default 0L;
+
+		double doubleValue() default 0.0;
+
+		int[] intValues() default {};
+
+		String[] stringValues() default {};
+
+		Class<?> classValue() default Object.class;
+
+		Class<?> primitiveClassValue() default void.class;
+
+		ElementType enumValue() default ElementType.TYPE;
+
+		Retention annotationValue() default @Retention(RetentionPolicy.CLASS);
+
+		FixMethodOrder[] annotationValues() default {};
+	}
+
+	@MemberTypes(booleanValue = true, charValue = 'z', longValue = Long.MAX_VALUE, doubleValue = 1.5, intValues = {
+			1, 2, 3 }, stringValues = { "a", "b" }, classValue = String.class, primitiveClassValue = int.class, //
+			enumValue = ElementType.FIELD, annotationValue = @Retention(RetentionPolicy.RUNTIME), //
+			annotationValues = { @FixMethodOrder(MethodSorters.JVM), @FixMethodOrder(MethodSorters.DEFAULT) })
+	private static class AllMemberTypes {
+	}
+
+	@MemberTypes
+	private static class DefaultMemberTypes {
+	}
+}
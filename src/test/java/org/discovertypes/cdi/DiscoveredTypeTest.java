@@ -23,6 +23,11 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
@@ -30,6 +35,9 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
 
 import javax.inject.Qualifier;
 
@@ -105,6 +113,16 @@ public class DiscoveredTypeTest {
 				hasItem(MetaAnnotationWrappesIgnore.class.getAnnotation(MetaAnnotationWrappesIgnore.class)));
 	}
 
+	@Test
+	public void readsPriority() {
+		assertEquals(10, DiscoveredType.of(DiscoveredTypesTest.Priority10.class).getPriority());
+	}
+
+	@Test
+	public void noPriorityIsOrderedLast() {
+		assertEquals(Integer.MAX_VALUE, discoveredType.getPriority());
+	}
+
 	@Test
 	public void notDiscoverableAsNotIgnoredBean() {
 		discoveredType = DiscoveredType.of(DiscoveredTypeTest.class);
@@ -123,6 +141,110 @@ public class DiscoveredTypeTest {
 		assertTrue(discoveredType.isIgnoredBean());
 	}
 
+	@Test
+	public void ignoredBeanOfTypeWithoutCollectingAnnotations() {
+		assertTrue(DiscoveredType.isIgnoredBean(AnnotatedDiscoverableIgnoredBean.class));
+		assertFalse(DiscoveredType.isIgnoredBean(AnnotatedDiscoverable.class));
+		assertFalse(DiscoveredType.isIgnoredBean(DiscoveredTypeTest.class));
+	}
+
+	@Test
+	public void ignoredBeanOfTypeWithMetaAnnotation() {
+		assertTrue(DiscoveredType.isIgnoredBean(MetaAnnotatedIgnoredBean.class));
+		assertTrue(DiscoveredType.of(MetaAnnotatedIgnoredBean.class).isIgnoredBean());
+	}
+
+	@Test
+	public void ignoredBeanOfSuperClass() {
+		assertTrue(DiscoveredType.isIgnoredBean(SubclassOfIgnoredBean.class));
+		assertTrue(DiscoveredType.of(SubclassOfIgnoredBean.class).isIgnoredBean());
+		assertFalse(DiscoveredType.isIgnoredBean(NotIgnoredSubclassOfIgnoredBean.class));
+	}
+
+	@Test
+	public void lastDeclaredDiscoverableDecidesIgnoredBean() {
+		assertTrue(DiscoveredType.isIgnoredBean(DiscoverableThenIgnoredBean.class));
+		assertTrue(DiscoveredType.of(DiscoverableThenIgnoredBean.class).isIgnoredBean());
+		assertFalse(DiscoveredType.isIgnoredBean(IgnoredBeanThenDiscoverable.class));
+		assertFalse(DiscoveredType.of(IgnoredBeanThenDiscoverable.class).isIgnoredBean());
+	}
+
+	@Test
+	public void defaultDiscoverableIsIgnoredBean() {
+		assertTrue(DiscoveredType.ofDiscoverable(DiscoveredTypeTest.class).isIgnoredBean());
+	}
+
+	@Test
+	public void sameTypeKeepsSameAnnotations() {
+		Collection<DiscoveredAnnotation> annotations = discoveredType.getAnnotations();
+		DiscoveredType sameType = DiscoveredType.of(DiscoveredTypeTest.class);
+		assertThat(sameType.getAnnotations().size(), is(annotations.size()));
+		assertEquals(discoveredType, sameType);
+	}
+
+	@Test
+	public void acceptsAdditionalAnnotations() {
+		DiscoveredType type = DiscoveredType.of(AnnotatedDiscoverable.class)
+				.withAdditionalAnnotation(ignoreAnnotation());
+		assertThat(type.getAnnotations(), hasItem(ignoreAnnotation()));
+		assertThat(type.getAnnotationTypes(), hasItem(ignoreAnnotation().annotationType()));
+	}
+
+	@Test
+	public void additionalAnnotationKeptAsFurtherOccurrence() {
+		DiscoveredAnnotation atMethod = new DiscoveredAnnotation(fixMethodOrderAnnoation().getAnnotation(),
+				AnnotationLocation.METHOD);
+		int size = discoveredType.getAnnotations().size();
+		discoveredType.withAdditionalAnnotation(atMethod);
+		assertThat(discoveredType.getAnnotations().size(), is(size + 1));
+		assertThat(discoveredType.getAnnotationTypes().size(), is(size));
+		assertEquals(asList(fixMethodOrderAnnoation(), atMethod), discoveredType.getAnnotations(FixMethodOrder.class));
+		assertEquals(AnnotationLocation.TYPE, discoveredType.getAnnotationLocation(FixMethodOrder.class));
+	}
+
+	@Test
+	public void equalAdditionalAnnotationKeptOnce() {
+		int size = discoveredType.getAnnotations().size();
+		discoveredType.withAdditionalAnnotation(fixMethodOrderAnnoation());
+		assertThat(discoveredType.getAnnotations().size(), is(size));
+	}
+
+	@Test
+	public void containsAllOccurrencesOfAnAnnotationType() {
+		DiscoveredType type = DiscoveredType.of(DeprecatedAtSeveralLocations.class);
+		Collection<DiscoveredAnnotation> occurrences = type.getAnnotations(Deprecated.class);
+		assertThat(occurrences.size(), is(3));
+		assertEquals(EnumSet.of(AnnotationLocation.TYPE, AnnotationLocation.FIELD, AnnotationLocation.METHOD),
+				type.getAnnotationLocations(Deprecated.class));
+		assertEquals(AnnotationLocation.TYPE, type.getAnnotationLocation(Deprecated.class));
+		assertThat(type.getAnnotationTypes(), hasItem(Deprecated.class));
+		assertTrue(type.getAnnotations(Documented.class).isEmpty());
+		assertTrue(type.getAnnotationLocations(Documented.class).isEmpty());
+	}
+
+	@Test
+	public void annotatedWithAnnotationTypeAtAnyOfTheLocations() {
+		DiscoveredType type = DiscoveredType.of(DeprecatedAtSeveralLocations.class);
+		assertTrue(type.isAnnotatedWith(Deprecated.class));
+		assertTrue(type.isAnnotatedWith(Deprecated.class, AnnotationLocation.METHOD));
+		assertTrue(type.isAnnotatedWith(Deprecated.class, AnnotationLocation.CONSTRUCTOR, AnnotationLocation.FIELD));
+		assertFalse(type.isAnnotatedWith(Deprecated.class, AnnotationLocation.CONSTRUCTOR));
+		assertFalse(type.isAnnotatedWith(Documented.class));
+	}
+
+	@Test
+	public void annotationsFoundAfterDeserialization() throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(discoveredType);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			DiscoveredType deserialized = (DiscoveredType) in.readObject();
+			assertEquals(discoveredType, deserialized);
+			assertEquals(AnnotationLocation.TYPE, deserialized.getAnnotationLocation(FixMethodOrder.class));
+		}
+	}
+
 	@Test
 	public void doesNotContainDiscoverableAnnotation() {
 		Collection<DiscoveredAnnotation> annotations = discoveredType.getAnnotations();
@@ -130,6 +252,14 @@ public class DiscoveredTypeTest {
 		assertThat(annotations, hasItem(fixMethodOrderAnnoation()));
 	}
 
+	@Test
+	public void measuresCollectorTimings() {
+		CollectorTimings timings = new CollectorTimings();
+		assertEquals(DiscoveredType.of(DiscoveredTypeTest.class), DiscoveredType.of(DiscoveredTypeTest.class, timings));
+		assertTrue(timings.toString(), timings.nanosOf(AnnotationLocation.TYPE) > 0);
+		assertTrue(timings.toString(), timings.totalNanos() >= timings.nanosOf(AnnotationLocation.METHOD));
+	}
+
 	@Test
 	public void equalsIfSameType() {
 		assertEquals(DiscoveredType.of(getClass()), DiscoveredType.of(getClass()));
@@ -191,4 +321,54 @@ public class DiscoveredTypeTest {
 	public static class AnnotatedDiscoverableIgnoredBean {
 
 	}
-}
\ No newline at end of file
+
+	public static class SubclassOfIgnoredBean extends AnnotatedDiscoverableIgnoredBean {
+
+	}
+
+	@Discoverable
+	public static class NotIgnoredSubclassOfIgnoredBean extends AnnotatedDiscoverableIgnoredBean {
+
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.TYPE })
+	@Discoverable(ignoreBean = true)
+	public static @interface IgnoredBeanMetaAnnotation {
+
+	}
+
+	@IgnoredBeanMetaAnnotation
+	public static class MetaAnnotatedIgnoredBean {
+
+	}
+
+	@Discoverable
+	@IgnoredBeanMetaAnnotation
+	public static class DiscoverableThenIgnoredBean {
+
+	}
+
+	@IgnoredBeanMetaAnnotation
+	@Discoverable
+	public static class IgnoredBeanThenDiscoverable {
+
+	}
+
+	@Deprecated
+	public static class DeprecatedAtSeveralLocations {
+
+		@Deprecated
+		private String field;
+
+		@Deprecated
+		public String getField() {
+			return field;
+		}
+
+		@Deprecated
+		public void setField(String field) {
+			this.field = field;
+		}
+	}
+}
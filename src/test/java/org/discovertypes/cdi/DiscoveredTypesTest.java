@@ -19,15 +19,24 @@ import static org.discovertypes.cdi.DiscoveredAnnotationTestcases.IGNORE;
 import static org.discovertypes.cdi.DiscoveredAnnotationTestcases.NAMED;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.annotation.Annotation;
 import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
+import javax.annotation.Priority;
+import javax.enterprise.inject.Vetoed;
 import javax.inject.Named;
 
 import org.junit.Before;
@@ -85,6 +94,32 @@ public class DiscoveredTypesTest {
 		assertEquals(3, byAnnotation.size());
 	}
 
+	@Test
+	public void cachesResultsOfAnyOfTheGivenAnnotationsIndependentOfOrder() {
+		Collection<DiscoveredType> first = discoveredTypes.annotatedWithAnyOf(asList(Ignore.class, Deprecated.class));
+		Collection<DiscoveredType> second = discoveredTypes
+				.annotatedWithAnyOf(asList(Deprecated.class, Ignore.class, Deprecated.class));
+		assertEquals(first, second);
+		assertEquals(1, discoveredTypes.getQueryCacheStatistics().getHits());
+		assertEquals(1, discoveredTypes.getQueryCacheStatistics().getMisses());
+	}
+
+	@Test
+	public void singleAnnotationOfAnyOfLookedUpWithoutCache() {
+		assertEquals(new ArrayList<>(discoveredTypes.annotatedWith(Ignore.class)),
+				new ArrayList<>(discoveredTypes.annotatedWithAnyOf(asList(Ignore.class))));
+		assertEquals(0, discoveredTypes.getQueryCacheStatistics().getMisses());
+	}
+
+	@Test
+	public void resultsCanBeModifiedWithoutAffectingTheIndex() {
+		int annotatedWithIgnore = discoveredTypes.countAnnotatedWith(Ignore.class);
+		discoveredTypes.annotatedWith(Ignore.class).clear();
+		discoveredTypes.annotatedWithAnyOf(asList(Ignore.class, Deprecated.class)).clear();
+		assertEquals(annotatedWithIgnore, discoveredTypes.annotatedWith(Ignore.class).size());
+		assertEquals(3, discoveredTypes.annotatedWithAnyOf(asList(Ignore.class, Deprecated.class)).size());
+	}
+
 	@Test
 	public void providesAnnotationContent() {
 		Collection<DiscoveredType> byAnnotation = discoveredTypes.annotatedWith(Named.class);
@@ -115,6 +150,69 @@ public class DiscoveredTypesTest {
 		assertEquals(2, allTypes.size());
 	}
 
+	@Test
+	public void annotationTypesOfAllDiscoveredTypes() {
+		assertThat(discoveredTypes.getAnnotationTypes(), hasItems(Ignore.class, Deprecated.class, Named.class));
+		assertThat(discoveredTypes.getAnnotationTypes(), not(hasItem(Documented.class)));
+	}
+
+	@Test
+	public void countsTypesAnnotatedWith() {
+		assertEquals(2, discoveredTypes.countAnnotatedWith(Ignore.class));
+		assertEquals(0, discoveredTypes.countAnnotatedWith(Documented.class));
+	}
+
+	@Test
+	public void notifiesQueryObserver() {
+		List<String> queries = new ArrayList<>();
+		discoveredTypes.addQueryObserver(new QueryObserver() {
+			@Override
+			public void annotatedWith(Class<? extends Annotation> annotationType, int results, long nanos) {
+				queries.add("annotatedWith " + annotationType.getSimpleName() + " " + results);
+			}
+
+			@Override
+			public void annotatedWithAnyOf(Iterable<Class<? extends Annotation>> annotationTypes, int results,
+					long nanos) {
+				queries.add("annotatedWithAnyOf " + results);
+			}
+
+			@Override
+			public void iterated() {
+				queries.add("iterated");
+			}
+		});
+		discoveredTypes.annotatedWith(Ignore.class);
+		discoveredTypes.annotatedWithAnyOf(asList(Ignore.class, Deprecated.class));
+		discoveredTypes.iterator();
+		assertEquals(asList("annotatedWith Ignore 2", "annotatedWithAnyOf 3", "iterated"), queries);
+	}
+
+	@Test
+	public void removedQueryObserverIsNotNotified() {
+		List<Class<? extends Annotation>> queried = new ArrayList<>();
+		QueryObserver observer = new QueryObserver() {
+			@Override
+			public void annotatedWith(Class<? extends Annotation> annotationType, int results, long nanos) {
+				queried.add(annotationType);
+			}
+
+			@Override
+			public void annotatedWithAnyOf(Iterable<Class<? extends Annotation>> annotationTypes, int results,
+					long nanos) {
+			}
+
+			@Override
+			public void iterated() {
+			}
+		};
+		discoveredTypes.addQueryObserver(observer);
+		discoveredTypes.annotatedWith(Ignore.class);
+		discoveredTypes.removeQueryObserver(observer);
+		discoveredTypes.annotatedWith(Named.class);
+		assertEquals(asList(Ignore.class), queried);
+	}
+
 	@Test
 	public void failIfSomeoneTriesToAddAnnotationsASecondTimeAfterStartUp() {
 		exception.expect(IllegalStateException.class);
@@ -123,6 +221,90 @@ public class DiscoveredTypesTest {
 		discoveredTypes.initializeWith(asList(stringWithIgnore));
 	}
 
+	@Test
+	public void streamsAllDistinctTypes() {
+		List<DiscoveredType> types = discoveredTypes.stream().collect(Collectors.toList());
+		assertEquals(asList(integerWithDeprecated, longWithIgnoreAndNamed, stringWithIgnore), types);
+	}
+
+	@Test
+	public void streamsAllDistinctTypesInParallel() {
+		assertEquals(3L, discoveredTypes.stream().parallel().distinct().count());
+	}
+
+	@Test
+	public void spliteratorIsSizedAndSplitsEvenly() {
+		Spliterator<DiscoveredType> spliterator = discoveredTypes.spliterator();
+		assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.DISTINCT
+				| Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.ORDERED));
+		assertEquals(3L, spliterator.getExactSizeIfKnown());
+		Spliterator<DiscoveredType> prefix = spliterator.trySplit();
+		assertEquals(1L, prefix.getExactSizeIfKnown());
+		assertEquals(2L, spliterator.getExactSizeIfKnown());
+	}
+
+	@Test
+	public void forEachVisitsAllTypes() {
+		List<DiscoveredType> types = new ArrayList<>();
+		discoveredTypes.forEach(types::add);
+		assertEquals(asList(integerWithDeprecated, longWithIgnoreAndNamed, stringWithIgnore), types);
+	}
+
+	@Test
+	public void streamsTypesAnnotatedWith() {
+		List<DiscoveredType> types = discoveredTypes.streamAnnotatedWith(Ignore.class).collect(Collectors.toList());
+		assertEquals(asList(longWithIgnoreAndNamed, stringWithIgnore), types);
+	}
+
+	@Test
+	public void streamsNoTypesForUnknownAnnotation() {
+		assertEquals(0L, discoveredTypes.streamAnnotatedWith(Documented.class).count());
+	}
+
+	@Test
+	public void streamsTypesAnnotatedWithAnyOf() {
+		List<DiscoveredType> types = discoveredTypes.streamAnnotatedWithAnyOf(asList(Ignore.class, Named.class))
+				.collect(Collectors.toList());
+		assertThat(types, hasItems(stringWithIgnore, longWithIgnoreAndNamed));
+		assertEquals(2, types.size());
+	}
+
+	@Test
+	public void ordersTypesByPriorityAndThenByClassName() {
+		DiscoveredTypes prioritized = new DiscoveredTypes();
+		prioritized.initializeWith(asList(DiscoveredType.of(Unprioritized.class), DiscoveredType.of(Priority20.class),
+				DiscoveredType.of(OtherPriority10.class), DiscoveredType.of(Priority10.class)));
+		assertEquals(asList(OtherPriority10.class, Priority10.class, Priority20.class, Unprioritized.class),
+				classesOf(prioritized.annotatedWith(PriorityTestcase.class)));
+		assertEquals(asList(OtherPriority10.class, Priority10.class, Priority20.class, Unprioritized.class),
+				classesOf(prioritized.stream().collect(Collectors.toList())));
+	}
+
+	@Test
+	public void ordersTypesAnnotatedWithAnyOfByPriorityAndThenByClassName() {
+		DiscoveredTypes prioritized = new DiscoveredTypes();
+		prioritized.initializeWith(asList(DiscoveredType.of(Unprioritized.class), DiscoveredType.of(Priority20.class),
+				DiscoveredType.of(OtherPriority10.class), DiscoveredType.of(Priority10.class),
+				DiscoveredType.of(Long.class).withAdditionalAnnotation(IGNORE.build())));
+		assertEquals(asList(Priority10.class, Priority20.class, Long.class),
+				classesOf(prioritized.annotatedWithAnyOf(asList(Ignore.class, Documented.class, Named.class))));
+	}
+
+	@Test
+	public void ordersTypesAnnotatedWithIndependentOfTheirDiscoveryOrder() {
+		DiscoveredTypes reversed = new DiscoveredTypes();
+		reversed.initializeWith(asList(longWithIgnoreAndNamed, integerWithDeprecated, stringWithIgnore));
+		assertEquals(discoveredTypes.annotatedWith(Ignore.class), reversed.annotatedWith(Ignore.class));
+	}
+
+	@Test
+	public void iteratedTypesCanNotBeRemoved() {
+		exception.expect(UnsupportedOperationException.class);
+		Iterator<DiscoveredType> iterator = discoveredTypes.iterator();
+		iterator.next();
+		iterator.remove();
+	}
+
 	private static Collection<String> namedAnnotationValuesFrom(Collection<DiscoveredType> types) {
 		Collection<String> values = new ArrayList<>();
 		for (DiscoveredType discoveredType : types) {
@@ -139,4 +321,36 @@ public class DiscoveredTypesTest {
 		return types;
 	}
 
+	private static List<Class<?>> classesOf(Collection<DiscoveredType> types) {
+		return types.stream().map(DiscoveredType::getAnnotatedClass).collect(Collectors.toList());
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface PriorityTestcase {
+	}
+
+	@Vetoed
+	@PriorityTestcase
+	static class Unprioritized {
+	}
+
+	@Vetoed
+	@PriorityTestcase
+	@Priority(20)
+	@Ignore
+	static class Priority20 {
+	}
+
+	@Vetoed
+	@PriorityTestcase
+	@Priority(10)
+	static class OtherPriority10 {
+	}
+
+	@Vetoed
+	@PriorityTestcase
+	@Priority(10)
+	@Named
+	static class Priority10 {
+	}
 }
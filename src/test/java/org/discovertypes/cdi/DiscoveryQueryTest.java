@@ -0,0 +1,159 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import static java.util.Arrays.asList;
+import static org.discovertypes.cdi.DiscoveredAnnotationTestcases.IGNORE;
+import static org.discovertypes.cdi.DiscoveredAnnotationTestcases.NAMED;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import javax.inject.Named;
+
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class DiscoveryQueryTest {
+
+	private DiscoveredType stringWithIgnore = DiscoveredType.of(String.class)
+			.withAdditionalAnnotation(IGNORE.build());
+	private DiscoveredType integerWithIgnoreAtMethod = DiscoveredType.of(Integer.class)
+			.withAdditionalAnnotation(new DiscoveredAnnotation(IGNORE.build().getAnnotation(), AnnotationLocation.METHOD))
+			.withAdditionalAnnotation(NAMED.build());
+	private DiscoveredType longWithIgnoreAndNamed = DiscoveredType.of(Long.class)
+			.withAdditionalAnnotation(IGNORE.build())
+			.withAdditionalAnnotation(NAMED.build());
+
+	private DiscoveredTypes discoveredTypes = new DiscoveredTypes();
+
+	/**
+	 * class under test.
+	 */
+	private DiscoveryQuery query = DiscoveryQuery.annotatedWith(Ignore.class);
+
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+
+	@Before
+	public void setUp() {
+		discoveredTypes.initializeWith(asList(stringWithIgnore, integerWithIgnoreAtMethod, longWithIgnoreAndNamed));
+	}
+
+	@Test
+	public void selectsAllTypesAnnotatedWith() {
+		Collection<DiscoveredType> results = discoveredTypes.compile(query).getResults();
+		assertThat(results, hasItems(stringWithIgnore, integerWithIgnoreAtMethod, longWithIgnoreAndNamed));
+		assertEquals(3, results.size());
+	}
+
+	@Test
+	public void selectsTypesAnnotatedAtLocation() {
+		CompiledDiscoveryQuery compiled = discoveredTypes.compile(query.at(AnnotationLocation.METHOD));
+		assertEquals(asList(integerWithIgnoreAtMethod), compiled.getResults());
+	}
+
+	@Test
+	public void selectsTypesWithFurtherOccurrenceAtLocation() {
+		DiscoveredType shortWithIgnoreAtTypeAndMethod = DiscoveredType.of(Short.class)
+				.withAdditionalAnnotation(IGNORE.build())
+				.withAdditionalAnnotation(new DiscoveredAnnotation(IGNORE.build().getAnnotation(), AnnotationLocation.METHOD));
+		DiscoveredTypes types = new DiscoveredTypes();
+		types.initializeWith(asList(stringWithIgnore, shortWithIgnoreAtTypeAndMethod));
+		CompiledDiscoveryQuery compiled = types.compile(query.at(AnnotationLocation.METHOD));
+		assertEquals(asList(shortWithIgnoreAtTypeAndMethod), compiled.getResults());
+	}
+
+	@Test
+	public void selectsTypesAnnotatedAtAnyOfTheLocations() {
+		CompiledDiscoveryQuery compiled = discoveredTypes
+				.compile(query.at(AnnotationLocation.TYPE, AnnotationLocation.FIELD));
+		assertThat(compiled.getResults(), hasItems(stringWithIgnore, longWithIgnoreAndNamed));
+		assertEquals(2, compiled.size());
+	}
+
+	@Test
+	public void selectsTypesAdditionallyAnnotatedWithAnyOf() {
+		CompiledDiscoveryQuery compiled = discoveredTypes
+				.compile(query.andAnnotatedWithAnyOf(Named.class, Test.class));
+		assertThat(compiled.getResults(), hasItems(integerWithIgnoreAtMethod, longWithIgnoreAndNamed));
+		assertEquals(2, compiled.size());
+	}
+
+	@Test
+	public void selectsTypesAnnotatedWithAllGroupsOfAnyOf() {
+		CompiledDiscoveryQuery compiled = discoveredTypes
+				.compile(query.andAnnotatedWithAnyOf(Named.class).andAnnotatedWithAnyOf(Test.class));
+		assertEquals(0, compiled.size());
+	}
+
+	@Test
+	public void selectsTypesAssignableTo() {
+		CompiledDiscoveryQuery compiled = discoveredTypes.compile(query.assignableTo(Number.class));
+		assertThat(compiled.getResults(), hasItems(integerWithIgnoreAtMethod, longWithIgnoreAndNamed));
+		assertEquals(2, compiled.size());
+	}
+
+	@Test
+	public void combinesAllConditions() {
+		CompiledDiscoveryQuery compiled = discoveredTypes.compile(query.at(AnnotationLocation.TYPE)
+				.andAnnotatedWithAnyOf(Named.class, Test.class)
+				.assignableTo(Number.class));
+		assertEquals(asList(longWithIgnoreAndNamed), compiled.getResults());
+		assertSame(longWithIgnoreAndNamed, compiled.get(0));
+	}
+
+	@Test
+	public void conditionsDoNotModifyTheOriginalQuery() {
+		query.assignableTo(CharSequence.class);
+		assertEquals(3, discoveredTypes.compile(query).size());
+	}
+
+	@Test
+	public void returnsTheSameResultsOnEveryCall() {
+		CompiledDiscoveryQuery compiled = discoveredTypes.compile(query);
+		assertSame(compiled.getResults(), compiled.getResults());
+	}
+
+	@Test
+	public void streamsResults() {
+		CompiledDiscoveryQuery compiled = discoveredTypes.compile(query.assignableTo(Number.class));
+		assertEquals(compiled.getResults(), compiled.stream().parallel().collect(Collectors.toList()));
+	}
+
+	@Test
+	public void resultsAreUnmodifiable() {
+		exception.expect(UnsupportedOperationException.class);
+		discoveredTypes.compile(query).getResults().clear();
+	}
+
+	@Test
+	public void notInitializedDiscoveredTypesCanNotBeCompiledAgainst() {
+		exception.expect(IllegalStateException.class);
+		new DiscoveredTypes().compile(query);
+	}
+
+	@Test
+	public void atLeastOneLocationIsRequired() {
+		exception.expect(IllegalArgumentException.class);
+		query.at();
+	}
+}
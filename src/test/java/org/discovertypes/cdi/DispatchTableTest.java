@@ -0,0 +1,174 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class DispatchTableTest {
+
+	/**
+	 * class under test.
+	 */
+	private DispatchTable dispatchTable = DispatchTable.of(Handles.class,
+			asList(DiscoveredType.of(CharSequenceHandler.class), DiscoveredType.of(StringHandler.class)));
+
+	@Test
+	public void payloadTypesOfAnnotatedMethodsAndParameters() {
+		assertEquals(3, dispatchTable.getPayloadTypes().size());
+		assertTrue(dispatchTable.getPayloadTypes().containsAll(asList(CharSequence.class, String.class, Integer.class)));
+		assertEquals(4, dispatchTable.size());
+	}
+
+	@Test
+	public void notAnnotatedMethodsAreIgnored() {
+		assertEquals(Collections.emptyList(), dispatchTable.invokersOf(Long.class));
+	}
+
+	@Test
+	public void exactPayloadTypeOnly() {
+		assertEquals(1, dispatchTable.invokersOf(CharSequence.class).size());
+		assertEquals(2, dispatchTable.invokersOf(String.class).size());
+	}
+
+	@Test
+	public void superTypesOfPayloadIncludedMostSpecificFirst() {
+		List<MethodInvoker> invokers = dispatchTable.invokersFor(String.class);
+		assertEquals(3, invokers.size());
+		assertEquals(String.class, invokers.get(0).getPayloadType());
+		assertEquals(String.class, invokers.get(1).getPayloadType());
+		assertEquals(CharSequence.class, invokers.get(2).getPayloadType());
+	}
+
+	@Test
+	public void lookupOfSubtypeCached() {
+		assertSame(dispatchTable.invokersFor(StringBuilder.class), dispatchTable.invokersFor(StringBuilder.class));
+		assertEquals(1, dispatchTable.invokersFor(StringBuilder.class).size());
+	}
+
+	@Test
+	public void privateMethodInvoked() throws InvocationTargetException {
+		StringHandler handler = new StringHandler();
+		for (MethodInvoker invoker : dispatchTable.invokersFor(String.class)) {
+			if (invoker.getDeclaringClass().equals(StringHandler.class)) {
+				invoker.invoke(handler, "payload");
+			}
+		}
+		assertEquals(asList("payload", "payload"), handler.handled);
+	}
+
+	@Test
+	public void staticMethodInvoked() throws InvocationTargetException {
+		MethodInvoker invoker = dispatchTable.invokersOf(Integer.class).get(0);
+		assertTrue(invoker.isStatic());
+		assertEquals(Integer.valueOf(2), invoker.invoke(null, Integer.valueOf(1)));
+	}
+
+	@Test
+	public void repeatedAnnotationsIncluded() {
+		DispatchTable routes = DispatchTable.of(Route.class, asList(DiscoveredType.of(RepeatedRouteHandler.class)));
+		assertEquals(1, routes.size());
+		assertEquals(1, routes.invokersOf(String.class).size());
+	}
+
+	@Test(expected = InvocationTargetException.class)
+	public void exceptionOfMethodPropagated() throws InvocationTargetException {
+		dispatchTable.invokersOf(CharSequence.class).get(0).invoke(new CharSequenceHandler(), "fail");
+	}
+
+	@Target({ ElementType.METHOD, ElementType.PARAMETER, ElementType.ANNOTATION_TYPE })
+	@Retention(RetentionPolicy.RUNTIME)
+	public static @interface Handles {
+	}
+
+	@Target({ ElementType.METHOD })
+	@Retention(RetentionPolicy.RUNTIME)
+	@Handles
+	public static @interface MetaHandles {
+	}
+
+	@Target({ ElementType.METHOD })
+	@Retention(RetentionPolicy.RUNTIME)
+	@Repeatable(Route.List.class)
+	public static @interface Route {
+		String value();
+
+		@Target({ ElementType.METHOD })
+		@Retention(RetentionPolicy.RUNTIME)
+		public static @interface List {
+			Route[] value();
+		}
+	}
+
+	public static class CharSequenceHandler {
+
+		@Handles
+		void handle(CharSequence payload) {
+			if ("fail".equals(payload)) {
+				throw new IllegalArgumentException("fail");
+			}
+		}
+
+		@Handles
+		static Integer increment(Integer payload) {
+			return Integer.valueOf(payload.intValue() + 1);
+		}
+
+		void notAnnotated(Long payload) {
+			// Implementation empty
+		}
+	}
+
+	public static class RepeatedRouteHandler {
+
+		@Route("first")
+		@Route("second")
+		void handle(String payload) {
+			// Implementation empty
+		}
+	}
+
+	public static class StringHandler {
+
+		final List<String> handled = new ArrayList<>();
+
+		@MetaHandles
+		private void handle(String payload) {
+			handled.add(payload);
+		}
+
+		void handleParameter(@Handles String payload) {
+			handled.add(payload);
+		}
+
+		@Handles
+		void noPayload() {
+			// Implementation empty
+		}
+	}
+}
@@ -0,0 +1,116 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class QueryResultCacheTest {
+
+	private AtomicInteger computations = new AtomicInteger();
+	private Function<String, String> compute = key -> {
+		computations.incrementAndGet();
+		return key.toUpperCase();
+	};
+
+	/**
+	 * class under test.
+	 */
+	private QueryResultCache<String, String> cache = new QueryResultCache<>(2);
+
+	@Test
+	public void computesValueOnMiss() {
+		assertEquals("A", cache.get("a", compute));
+		assertEquals(1, computations.get());
+		assertEquals(1, cache.statistics().getMisses());
+	}
+
+	@Test
+	public void returnsCachedValueOnHit() {
+		String first = cache.get("a", compute);
+		assertSame(first, cache.get("a", compute));
+		assertEquals(1, computations.get());
+		assertEquals(1, cache.statistics().getHits());
+		assertEquals(0.5, cache.statistics().getHitRatio(), 0.0);
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedWhenFull() {
+		cache.get("a", compute);
+		cache.get("b", compute);
+		cache.get("a", compute);
+		cache.get("c", compute);
+		assertEquals(2, cache.statistics().getSize());
+		assertEquals(1, cache.statistics().getEvictions());
+		cache.get("a", compute);
+		assertEquals(3, computations.get());
+		cache.get("b", compute);
+		assertEquals(4, computations.get());
+	}
+
+	@Test
+	public void evictsEachEntryOnceWhenAllReferenced() {
+		cache.get("a", compute);
+		cache.get("b", compute);
+		cache.get("a", compute);
+		cache.get("b", compute);
+		cache.get("c", compute);
+		cache.get("d", compute);
+		assertEquals(2, cache.statistics().getSize());
+		assertEquals(2, cache.statistics().getEvictions());
+		cache.get("c", compute);
+		cache.get("d", compute);
+		assertEquals(4, computations.get());
+	}
+
+	@Test
+	public void cachesAgainAfterClear() {
+		cache.get("a", compute);
+		cache.get("b", compute);
+		cache.clear();
+		cache.get("c", compute);
+		cache.get("d", compute);
+		cache.get("c", compute);
+		assertEquals(2, cache.statistics().getSize());
+		assertEquals(0, cache.statistics().getEvictions());
+		assertEquals(4, computations.get());
+	}
+
+	@Test
+	public void doesNotCacheWithoutCapacity() {
+		cache = new QueryResultCache<>(0);
+		cache.get("a", compute);
+		cache.get("a", compute);
+		assertEquals(2, computations.get());
+		assertEquals(0, cache.statistics().getSize());
+	}
+
+	@Test
+	public void clearRemovesAllEntries() {
+		cache.get("a", compute);
+		cache.clear();
+		cache.get("a", compute);
+		assertEquals(2, computations.get());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void capacityMayNotBeNegative() {
+		new QueryResultCache<>(-1);
+	}
+}
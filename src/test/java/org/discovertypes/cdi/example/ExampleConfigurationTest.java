@@ -13,18 +13,48 @@
 //limitations under the License.
 package org.discovertypes.cdi.example;
 
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.DeploymentException;
+
+import org.discovertypes.cdi.DiscoveredBeans;
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
 import org.discovertypes.cdi.example.configuration.ExampleConfiguration;
+import org.discovertypes.cdi.example.configuration.ExampleDiscoveryListener;
+import org.discovertypes.cdi.example.configuration.ExampleObserver;
+import org.discovertypes.cdi.example.method.MetaAnnotatedApplicationScopedBean;
 import org.discovertypes.cdi.example.method.MetaAnnotatedMethodBean;
+import org.discovertypes.cdi.example.method.MetaMethodAnnotation;
 import org.discovertypes.cdi.example.method.OriginalAnnotatedMethodBean;
+import org.discovertypes.cdi.example.method.RepeatedAnnotatedMethodBean;
+import org.discovertypes.cdi.example.method.RepeatedMethodAnnotation;
+import org.discovertypes.cdi.example.method.RequestScopedMethodAnnotation;
+import org.discovertypes.cdi.example.method.RequestScopedMethodBean;
 import org.discovertypes.cdi.example.type.MetaAnnotatedType;
+import org.discovertypes.cdi.example.type.MetaTypeAnnotation;
 import org.discovertypes.cdi.example.type.OriginalAnnotatedType;
+import org.discovertypes.cdi.extension.DiscoverableTypesCdiExtension;
 import org.jboss.weld.environment.se.Weld;
 import org.jboss.weld.environment.se.WeldContainer;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
 /**
  * "Unit-Integration-Test" using a embedded CDI container to test the discovery
@@ -34,6 +64,9 @@ import org.junit.Test;
  */
 public class ExampleConfigurationTest {
 
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+
 	@Test
 	public void startUpConfigurationExample() {
 		try (WeldContainer container = new Weld().initialize()) {
@@ -44,6 +77,165 @@ public class ExampleConfigurationTest {
 		}
 	}
 
+	@Test
+	public void repeatedAnnotationsDiscovered() {
+		try (WeldContainer container = new Weld().initialize()) {
+			DiscoveredTypes discoveredTypes = container.select(DiscoveredTypes.class).get();
+			Collection<DiscoveredType> repeated = discoveredTypes.annotatedWith(RepeatedMethodAnnotation.class);
+			assertThat(repeated.size(), is(1));
+			DiscoveredType type = repeated.iterator().next();
+			assertThat(type.getAnnotatedClass(), is(equalTo(RepeatedAnnotatedMethodBean.class)));
+			assertThat(type.getAnnotations(RepeatedMethodAnnotation.class).size(), is(2));
+		}
+	}
+
+	@Test
+	public void discoveredTypesStreamedToListener() {
+		ExampleDiscoveryListener.reset();
+		try (WeldContainer container = new Weld().initialize()) {
+			DiscoveredTypes discoveredTypes = container.select(DiscoveredTypes.class).get();
+			assertThat(ExampleDiscoveryListener.getDiscovered(), hasItem(MetaAnnotatedType.class));
+			assertThat(ExampleDiscoveryListener.getDiscovered(), hasItem(MetaAnnotatedMethodBean.class));
+			assertThat(ExampleDiscoveryListener.getCompletedAnnotationTypes(),
+					is(equalTo(discoveredTypes.getAnnotationTypes())));
+		} finally {
+			ExampleDiscoveryListener.reset();
+		}
+	}
+
+	@Test
+	public void failingListenerReportedAsDeploymentProblem() {
+		checkFailingListenerReportedAsDeploymentProblem();
+	}
+
+	@Test
+	public void failingListenerReportedAsDeploymentProblemWithoutAsyncDiscovery() {
+		System.setProperty(DiscoverableTypesCdiExtension.ASYNC_DISCOVERY_PROPERTY, "false");
+		try {
+			checkFailingListenerReportedAsDeploymentProblem();
+		} finally {
+			System.clearProperty(DiscoverableTypesCdiExtension.ASYNC_DISCOVERY_PROPERTY);
+		}
+	}
+
+	@Test
+	public void discoveredAnnotationTypesObserved() {
+		try (WeldContainer container = new Weld().initialize()) {
+			checkObserved(container.select(ExampleObserver.class).get());
+		}
+	}
+
+	@Test
+	public void discoveredAnnotationTypesObservedAsync() {
+		System.setProperty(DiscoverableTypesCdiExtension.ASYNC_EVENTS_PROPERTY, "true");
+		try (WeldContainer container = new Weld().initialize()) {
+			checkObserved(container.select(ExampleObserver.class).get());
+		} finally {
+			System.clearProperty(DiscoverableTypesCdiExtension.ASYNC_EVENTS_PROPERTY);
+		}
+	}
+
+	@Test
+	public void discoveredBeansNotCreatedWithoutWarmup() {
+		MetaAnnotatedApplicationScopedBean.resetPostConstructs();
+		try (WeldContainer container = new Weld().initialize()) {
+			assertThat(MetaAnnotatedApplicationScopedBean.getPostConstructs(), is(0));
+		}
+	}
+
+	@Test
+	public void discoveredBeansCreatedDuringWarmup() {
+		MetaAnnotatedApplicationScopedBean.resetPostConstructs();
+		System.setProperty(DiscoverableTypesCdiExtension.WARMUP_PROPERTY, MetaMethodAnnotation.class.getName());
+		try (WeldContainer container = new Weld().initialize()) {
+			assertThat(MetaAnnotatedApplicationScopedBean.getPostConstructs(), is(1));
+			container.select(MetaAnnotatedApplicationScopedBean.class).get().doSomething("id");
+			assertThat(MetaAnnotatedApplicationScopedBean.getPostConstructs(), is(1));
+		} finally {
+			System.clearProperty(DiscoverableTypesCdiExtension.WARMUP_PROPERTY);
+		}
+	}
+
+	@Test
+	public void onlyApplicationScopedBeansWarmedUp() {
+		MetaAnnotatedApplicationScopedBean.resetPostConstructs();
+		RequestScopedMethodBean.resetPostConstructs();
+		List<LogRecord> warnings = new ArrayList<>();
+		Handler handler = new Handler() {
+			@Override
+			public void publish(LogRecord record) {
+				if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+					warnings.add(record);
+				}
+			}
+
+			@Override
+			public void flush() {
+				// Nothing buffered
+			}
+
+			@Override
+			public void close() {
+				// Nothing to release
+			}
+		};
+		Logger logger = Logger.getLogger("org.discovertypes.cdi.extension");
+		logger.addHandler(handler);
+		System.setProperty(DiscoverableTypesCdiExtension.WARMUP_PROPERTY,
+				MetaMethodAnnotation.class.getName() + "," + RequestScopedMethodAnnotation.class.getName());
+		try (WeldContainer container = new Weld().initialize()) {
+			assertThat(MetaAnnotatedApplicationScopedBean.getPostConstructs(), is(1));
+			assertThat(RequestScopedMethodBean.getPostConstructs(), is(0));
+			assertThat(warnings.toString(), warnings.isEmpty(), is(true));
+		} finally {
+			System.clearProperty(DiscoverableTypesCdiExtension.WARMUP_PROPERTY);
+			logger.removeHandler(handler);
+		}
+	}
+
+	@Test
+	public void referencesOfDiscoveredBeansCached() {
+		try (WeldContainer container = new Weld().initialize()) {
+			DiscoveredBeans discoveredBeans = container.select(DiscoveredBeans.class).get();
+			Collection<Object> references = discoveredBeans.referencesAnnotatedWith(MetaMethodAnnotation.class);
+			assertThat(references.size(), is(1));
+			assertThat(references.iterator().next(), is(instanceOf(MetaAnnotatedApplicationScopedBean.class)));
+			assertThat(discoveredBeans.referencesAnnotatedWith(MetaMethodAnnotation.class),
+					is(sameInstance(references)));
+		}
+	}
+
+	@Test
+	public void beansOfDiscoveredTypesResolved() {
+		try (WeldContainer container = new Weld().initialize()) {
+			DiscoveredBeans discoveredBeans = container.select(DiscoveredBeans.class).get();
+			Collection<Class<?>> beanClasses = new ArrayList<>();
+			for (Bean<?> bean : discoveredBeans.beansAnnotatedWith(MetaMethodAnnotation.class)) {
+				beanClasses.add(bean.getBeanClass());
+			}
+			assertThat(beanClasses, hasItem(MetaAnnotatedMethodBean.class));
+			assertThat(beanClasses, hasItem(MetaAnnotatedApplicationScopedBean.class));
+			assertThat(discoveredBeans.beansAnnotatedWith(MetaTypeAnnotation.class).isEmpty(), is(true));
+		}
+	}
+
+	private void checkFailingListenerReportedAsDeploymentProblem() {
+		ExampleDiscoveryListener.failOn(MetaAnnotatedType.class);
+		exception.expect(DeploymentException.class);
+		exception.expectMessage("failed on " + MetaAnnotatedType.class);
+		try (WeldContainer container = new Weld().initialize()) {
+			container.select(DiscoveredTypes.class).get();
+		} finally {
+			ExampleDiscoveryListener.reset();
+		}
+	}
+
+	private void checkObserved(ExampleObserver observer) {
+		assertThat(observer.getMetaTypeAnnotated(), hasItem(MetaAnnotatedType.class));
+		assertThat(observer.getMetaTypeAnnotated(), not(hasItem(MetaAnnotatedMethodBean.class)));
+		assertThat(observer.getMetaMethodAnnotated(), hasItem(MetaAnnotatedMethodBean.class));
+	}
+
 	private void checkTypeAnnotated(ExampleConfiguration configuration) {
 		assertThat(configuration.getOriginalTypeAnnotated(), hasItem(MetaAnnotatedType.class));
 		assertThat(configuration.getMetaTypeAnnotated(), hasItem(MetaAnnotatedType.class));
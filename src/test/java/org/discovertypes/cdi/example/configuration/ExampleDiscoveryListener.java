@@ -0,0 +1,91 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.example.configuration;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.enterprise.inject.Vetoed;
+
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.DiscoveryListener;
+
+/**
+ * Example that collects the discovered types during the container startup
+ * using the {@link DiscoveryListener} registered in
+ * <code>META-INF/services</code>.
+ * <p>
+ * The state is static, since the listeners are created by the
+ * {@link java.util.ServiceLoader} for every container startup.
+ * 
+ * @author Johannes Troppacher
+ */
+@Vetoed
+public class ExampleDiscoveryListener implements DiscoveryListener {
+
+	private static final Set<Class<?>> DISCOVERED = ConcurrentHashMap.newKeySet();
+	private static final AtomicReference<Set<Class<? extends Annotation>>> COMPLETED = new AtomicReference<>();
+	private static final AtomicReference<Class<?>> FAILING = new AtomicReference<>();
+
+	public static Collection<Class<?>> getDiscovered() {
+		return Collections.unmodifiableCollection(DISCOVERED);
+	}
+
+	/**
+	 * Gets the annotation types of the completed {@link DiscoveredTypes} or
+	 * <code>null</code>, if the discovery had not been completed.
+	 */
+	public static Set<Class<? extends Annotation>> getCompletedAnnotationTypes() {
+		return COMPLETED.get();
+	}
+
+	/**
+	 * Lets the notification about the given discovered type fail until
+	 * {@link #reset()}.
+	 */
+	public static void failOn(Class<?> type) {
+		FAILING.set(type);
+	}
+
+	public static void reset() {
+		DISCOVERED.clear();
+		COMPLETED.set(null);
+		FAILING.set(null);
+	}
+
+	@Override
+	public void discovered(DiscoveredType discoveredType) {
+		if (discoveredType.getAnnotatedClass().equals(FAILING.get())) {
+			throw new IllegalStateException("failed on " + discoveredType.getAnnotatedClass());
+		}
+		DISCOVERED.add(discoveredType.getAnnotatedClass());
+	}
+
+	@Override
+	public void completed(DiscoveredTypes discoveredTypes) {
+		// no reference to the bean is kept, since it is only valid until the container is shut down
+		COMPLETED.set(new HashSet<>(discoveredTypes.getAnnotationTypes()));
+	}
+
+	@Override
+	public String toString() {
+		return "ExampleDiscoveryListener [discovered=" + DISCOVERED + ", completedAnnotationTypes=" + COMPLETED + "]";
+	}
+}
@@ -0,0 +1,71 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.example.configuration;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+
+import org.discovertypes.cdi.AnnotationTypeDiscovered;
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredWith;
+import org.discovertypes.cdi.example.method.MetaMethodAnnotation;
+import org.discovertypes.cdi.example.type.MetaTypeAnnotation;
+import org.junit.Ignore;
+
+/**
+ * Example that collects the discovered types using the
+ * {@link AnnotationTypeDiscovered} events instead of injecting them.
+ * 
+ * @author Johannes Troppacher
+ */
+@Ignore
+@ApplicationScoped
+public class ExampleObserver {
+
+	private final Set<Class<?>> metaTypeAnnotated = ConcurrentHashMap.newKeySet();
+	private final Set<Class<?>> metaMethodAnnotated = ConcurrentHashMap.newKeySet();
+
+	public Collection<Class<?>> getMetaTypeAnnotated() {
+		return Collections.unmodifiableCollection(metaTypeAnnotated);
+	}
+
+	public Collection<Class<?>> getMetaMethodAnnotated() {
+		return Collections.unmodifiableCollection(metaMethodAnnotated);
+	}
+
+	void registerMetaTypeAnnotated(
+			@Observes @DiscoveredWith(MetaTypeAnnotation.class) AnnotationTypeDiscovered event) {
+		for (DiscoveredType type : event.getDiscoveredTypes()) {
+			metaTypeAnnotated.add(type.getAnnotatedClass());
+		}
+	}
+
+	void registerMetaMethodAnnotated(
+			@Observes @DiscoveredWith(MetaMethodAnnotation.class) AnnotationTypeDiscovered event) {
+		for (DiscoveredType type : event.getDiscoveredTypes()) {
+			metaMethodAnnotated.add(type.getAnnotatedClass());
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ExampleObserver [metaTypeAnnotated=" + metaTypeAnnotated + ", metaMethodAnnotated="
+				+ metaMethodAnnotated + "]";
+	}
+}
@@ -0,0 +1,46 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.example.method;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.discovertypes.cdi.Discoverable;
+
+/**
+ * Example custom {@link Repeatable} annotation, that is only contained in its
+ * container {@link List}, when it is repeated. The container is also marked as
+ * {@link Discoverable}, since the CDI container only considers the container
+ * (and its meta-annotations) to decide, if a type needs to be discovered.
+ * 
+ * @author Johannes Troppacher
+ */
+@Target({ ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(RepeatedMethodAnnotation.List.class)
+@Discoverable
+public @interface RepeatedMethodAnnotation {
+
+	String value();
+
+	@Target({ ElementType.METHOD })
+	@Retention(RetentionPolicy.RUNTIME)
+	@Discoverable
+	public @interface List {
+		RepeatedMethodAnnotation[] value();
+	}
+}
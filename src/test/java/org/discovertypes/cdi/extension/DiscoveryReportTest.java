@@ -0,0 +1,110 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.extension;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.discovertypes.cdi.AnnotationLocation;
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.example.method.MetaAnnotatedMethodBean;
+import org.discovertypes.cdi.example.method.OriginalAnnotatedMethodBean;
+import org.discovertypes.cdi.example.type.MetaAnnotatedType;
+import org.discovertypes.cdi.example.type.OriginalAnnotatedType;
+import org.discovertypes.cdi.memory.RetainedSize;
+import org.discovertypes.cdi.synthetic.SyntheticTypes;
+import org.junit.Test;
+
+public class DiscoveryReportTest {
+
+	/**
+	 * class under test.
+	 */
+	private DiscoveryReport report = new DiscoveryReport(2);
+
+	private DiscoveredTypes discovered = new DiscoveredTypes();
+
+	@Test
+	public void discoversTypes() {
+		DiscoveredType discoveredType = report.discover(OriginalAnnotatedMethodBean.class);
+		assertEquals(DiscoveredType.of(OriginalAnnotatedMethodBean.class), discoveredType);
+	}
+
+	@Test
+	public void listsSlowestTypesUpToLimit() {
+		discoverAll(OriginalAnnotatedType.class, MetaAnnotatedType.class, OriginalAnnotatedMethodBean.class);
+		List<DiscoveryReport.TypeDiscovery> slowestTypes = report.slowestTypes();
+		assertEquals(2, slowestTypes.size());
+		assertTrue(slowestTypes.get(0).getNanos() >= slowestTypes.get(1).getNanos());
+	}
+
+	@Test
+	public void containsSections() {
+		discoverAll(OriginalAnnotatedType.class, MetaAnnotatedMethodBean.class);
+		String text = report.format(discovered);
+		assertTrue(text, text.contains("discovered types: 2"));
+		assertTrue(text, text.contains(AnnotationLocation.TYPE + ": "));
+		assertTrue(text, text.contains(MetaAnnotatedMethodBean.class.getName() + " (fields="));
+		assertTrue(text, text.contains("index keys: " + discovered.getAnnotationTypes().size() + " annotation types"));
+		assertTrue(text, text.contains("estimated retained size: "));
+	}
+
+	@Test
+	public void estimatesRetainedSizeRoughly() {
+		List<Class<?>> types = new ArrayList<>(SyntheticTypes.ofCount(500).withMembers(2).compile().getTypes());
+		discoverAll(types.toArray(new Class<?>[types.size()]));
+		int indexEntries = 0;
+		for (Class<? extends Annotation> annotationType : discovered.getAnnotationTypes()) {
+			indexEntries += discovered.countAnnotatedWith(annotationType);
+		}
+		long estimated = DiscoveryReport.estimateRetainedSize(discovered, indexEntries);
+		long measured = new RetainedSize().of(discovered);
+		assertTrue("estimated " + estimated + " measured " + measured,
+				estimated > measured / 2 && estimated < measured * 2);
+	}
+
+	@Test
+	public void discoveredTypeSizeMatchesMeasuredShallowSize() throws Exception {
+		DiscoveredType type = DiscoveredType.of(OriginalAnnotatedMethodBean.class);
+		RetainedSize retainedSize = new RetainedSize();
+		long referenced = retainedSize.ofAll(referencesOf(type));
+		assertEquals(retainedSize.of(type) - referenced, DiscoveryReport.shallowSizeOf(DiscoveredType.class));
+	}
+
+	private static List<Object> referencesOf(Object object) throws IllegalAccessException {
+		List<Object> references = new ArrayList<>();
+		for (Field field : object.getClass().getDeclaredFields()) {
+			if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+				field.setAccessible(true);
+				references.add(field.get(object));
+			}
+		}
+		return references;
+	}
+
+	private void discoverAll(Class<?>... types) {
+		List<DiscoveredType> discoveredTypes = new ArrayList<>();
+		for (Class<?> type : types) {
+			discoveredTypes.add(report.discover(type));
+		}
+		report.initialize(discovered, discoveredTypes);
+	}
+}
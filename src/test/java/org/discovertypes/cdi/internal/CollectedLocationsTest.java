@@ -0,0 +1,108 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.EnumSet;
+
+import org.discovertypes.cdi.AnnotationCollectorsTestcases;
+import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestAnnotatedMethodAndParameterWithDiscoverable;
+import org.discovertypes.cdi.AnnotationCollectorsTestcases.TestAnnotatedMethodAndParameterWithMethodsOnly;
+import org.discovertypes.cdi.AnnotationLocation;
+import org.discovertypes.cdi.Discoverable;
+import org.discovertypes.cdi.DiscoveredType;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class CollectedLocationsTest {
+
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+
+	@After
+	public void tearDown() {
+		System.clearProperty(DiscoveredType.COLLECTED_LOCATIONS_PROPERTY);
+		CollectedLocations.reconfigure();
+	}
+
+	@Test
+	public void allLocationsByDefault() {
+		assertEquals(EnumSet.allOf(AnnotationLocation.class), CollectedLocations.configured());
+	}
+
+	@Test
+	public void configuredLocationsAlwaysContainType() {
+		System.setProperty(DiscoveredType.COLLECTED_LOCATIONS_PROPERTY, " method, FIELD");
+		CollectedLocations.reconfigure();
+		assertEquals(EnumSet.of(AnnotationLocation.TYPE, AnnotationLocation.METHOD, AnnotationLocation.FIELD),
+				CollectedLocations.configured());
+	}
+
+	@Test
+	public void unknownConfiguredLocation() {
+		System.setProperty(DiscoveredType.COLLECTED_LOCATIONS_PROPERTY, "METHOD,nowhere");
+		exception.expect(IllegalArgumentException.class);
+		CollectedLocations.reconfigure();
+	}
+
+	@Test
+	public void configuredLocationsReadOnlyOnReconfigure() {
+		CollectedLocations.reconfigure();
+		System.setProperty(DiscoveredType.COLLECTED_LOCATIONS_PROPERTY, "FIELD");
+		assertEquals(EnumSet.allOf(AnnotationLocation.class), CollectedLocations.configured());
+		CollectedLocations.reconfigure();
+		assertEquals(EnumSet.of(AnnotationLocation.TYPE, AnnotationLocation.FIELD), CollectedLocations.configured());
+	}
+
+	@Test
+	public void configuredLocationsOfTypeWithoutDiscoverable() {
+		System.setProperty(DiscoveredType.COLLECTED_LOCATIONS_PROPERTY, "FIELD");
+		CollectedLocations.reconfigure();
+		assertEquals(EnumSet.of(AnnotationLocation.TYPE, AnnotationLocation.FIELD),
+				CollectedLocations.of(String.class));
+	}
+
+	@Test
+	public void configuredLocationsOfDiscoverableWithoutLocations() {
+		System.setProperty(DiscoveredType.COLLECTED_LOCATIONS_PROPERTY, "FIELD");
+		CollectedLocations.reconfigure();
+		assertEquals(EnumSet.of(AnnotationLocation.TYPE, AnnotationLocation.FIELD),
+				CollectedLocations.of(TestAnnotatedMethodAndParameterWithDiscoverable.class));
+	}
+
+	@Test
+	public void locationsOfDiscoverableMetaAnnotation() {
+		System.setProperty(DiscoveredType.COLLECTED_LOCATIONS_PROPERTY, "FIELD");
+		CollectedLocations.reconfigure();
+		assertEquals(EnumSet.of(AnnotationLocation.TYPE, AnnotationLocation.METHOD),
+				CollectedLocations.of(TestAnnotatedMethodAndParameterWithMethodsOnly.class));
+	}
+
+	@Test
+	public void combinedLocationsOfDiscoverableWithAndWithoutLocations() {
+		System.setProperty(DiscoveredType.COLLECTED_LOCATIONS_PROPERTY, "FIELD");
+		CollectedLocations.reconfigure();
+		assertEquals(EnumSet.of(AnnotationLocation.TYPE, AnnotationLocation.METHOD, AnnotationLocation.FIELD),
+				CollectedLocations.of(TestMethodsOnlyAndDiscoverable.class));
+	}
+
+	@Discoverable
+	@AnnotationCollectorsTestcases.TestMethodsOnly
+	private static class TestMethodsOnlyAndDiscoverable {
+
+	}
+}
@@ -0,0 +1,120 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.jfr;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.discovertypes.cdi.Discoverable;
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecorderEventsTest {
+
+	private Recording recording;
+
+	@Before
+	public void startRecording() {
+		assumeTrue("Java Flight Recorder is not available", FlightRecorderEvents.isAvailable());
+		recording = new Recording();
+		recording.enable(ProcessDiscoverableEvent.NAME);
+		recording.enable(InitializeDiscoveredTypesEvent.NAME);
+		recording.enable(QueryEvent.NAME);
+		recording.start();
+	}
+
+	@After
+	public void closeRecording() {
+		if (recording != null) {
+			recording.close();
+		}
+	}
+
+	@Test
+	public void recordsDiscoveryWithCollectorTimings() throws IOException {
+		DiscoveredType discoveredType = FlightRecorderEvents.discover(AnnotatedDiscoverableIgnoredBean.class);
+		List<RecordedEvent> events = recordedEvents(ProcessDiscoverableEvent.NAME);
+		assertEquals(1, events.size());
+		RecordedEvent event = events.get(0);
+		assertEquals(AnnotatedDiscoverableIgnoredBean.class.getName(),
+				event.getClass("discoveredClass").getName());
+		assertEquals(discoveredType.getAnnotations().size(), event.getInt("annotations"));
+		assertTrue(event.getBoolean("ignoredBean"));
+		assertTrue(event.getLong("typeDuration") > 0);
+	}
+
+	@Test
+	public void recordsInitialization() throws IOException {
+		DiscoveredTypes discoveredTypes = new DiscoveredTypes();
+		FlightRecorderEvents.initialize(discoveredTypes, asList(DiscoveredType.ofDiscoverable(String.class)));
+		List<RecordedEvent> events = recordedEvents(InitializeDiscoveredTypesEvent.NAME);
+		assertEquals(1, events.size());
+		assertEquals(1, events.get(0).getInt("discoveredTypes"));
+		assertEquals(discoveredTypes.getAnnotationTypes().size(), events.get(0).getInt("annotationTypes"));
+	}
+
+	@Test
+	public void recordsSampledQueries() throws IOException {
+		DiscoveredTypes discoveredTypes = DiscoveredTypes.of(asList(String.class));
+		discoveredTypes.addQueryObserver(FlightRecorderEvents.sampledQueries(1));
+		discoveredTypes.annotatedWith(Discoverable.class);
+		List<RecordedEvent> events = recordedEvents(QueryEvent.NAME);
+		assertEquals(1, events.size());
+		assertEquals("annotatedWith", events.get(0).getString("method"));
+		assertEquals(Discoverable.class.getName(), events.get(0).getString("annotationTypes"));
+		assertEquals(1, events.get(0).getInt("results"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void sampleRateNeedsToBePositive() {
+		FlightRecorderEvents.sampledQueries(0);
+	}
+
+	private List<RecordedEvent> recordedEvents(String name) throws IOException {
+		recording.stop();
+		Path file = Files.createTempFile("discovertypes", ".jfr");
+		try {
+			recording.dump(file);
+			List<RecordedEvent> events = new ArrayList<>();
+			for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+				if (event.getEventType().getName().equals(name)) {
+					events.add(event);
+				}
+			}
+			return events;
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Discoverable(ignoreBean = true)
+	public static class AnnotatedDiscoverableIgnoredBean {
+
+	}
+}
@@ -0,0 +1,84 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.memory;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.synthetic.SyntheticTypes;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Guards the retained heap of {@link DiscoveredTypes} and
+ * {@link DiscoveredType} against memory regressions, using a large number of
+ * synthetic annotated types.
+ * <p>
+ * The number of types can be changed using the system property
+ * <code>discovertypes.footprint.types</code>, e.g. to reproduce production
+ * scale with <code>-Ddiscovertypes.footprint.types=20000</code>.
+ * 
+ * @author Johannes Troppacher
+ */
+public class MemoryFootprintTest {
+
+	private static final Logger LOGGER = Logger.getLogger(MemoryFootprintTest.class.getName());
+
+	private static final int TYPES = Integer.getInteger("discovertypes.footprint.types", 2000).intValue();
+	private static final int MEMBERS = 2;
+	private static final int META_ANNOTATION_DEPTH = 1;
+
+	// Budgets with some headroom above the measured sizes. Lower them, when the footprint improves.
+	private static final long MAX_BYTES_PER_DISCOVERED_TYPE = 160;
+	private static final long MAX_BYTES_PER_INDEXED_TYPE = 180;
+
+	private static List<Class<?>> types;
+
+	private RetainedSize retainedSize = new RetainedSize();
+
+	@BeforeClass
+	public static void compileSyntheticTypes() {
+		types = new ArrayList<>(SyntheticTypes.ofCount(TYPES)
+				.withMembers(MEMBERS)
+				.withMetaAnnotationDepth(META_ANNOTATION_DEPTH)
+				.compile()
+				.getTypes());
+	}
+
+	@Test
+	public void retainedSizePerDiscoveredType() {
+		List<DiscoveredType> discoveredTypes = new ArrayList<>();
+		for (Class<?> type : types) {
+			discoveredTypes.add(DiscoveredType.of(type));
+		}
+		long bytesPerType = retainedSize.ofAll(discoveredTypes) / TYPES;
+		LOGGER.info("retained bytes per DiscoveredType: " + bytesPerType);
+		assertTrue("retained bytes per DiscoveredType: " + bytesPerType,
+				bytesPerType <= MAX_BYTES_PER_DISCOVERED_TYPE);
+	}
+
+	@Test
+	public void retainedSizeOfDiscoveredTypesPerType() {
+		DiscoveredTypes discoveredTypes = DiscoveredTypes.of(types);
+		long bytesPerType = retainedSize.of(discoveredTypes) / TYPES;
+		LOGGER.info("retained bytes of DiscoveredTypes per type: " + bytesPerType);
+		assertTrue("retained bytes of DiscoveredTypes per type: " + bytesPerType,
+				bytesPerType <= MAX_BYTES_PER_INDEXED_TYPE);
+	}
+}
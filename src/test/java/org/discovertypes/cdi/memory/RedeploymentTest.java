@@ -0,0 +1,105 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.memory;
+
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.discovertypes.cdi.DiscoveredBeans;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.example.configuration.ExampleConfiguration;
+import org.discovertypes.cdi.example.method.MetaMethodAnnotation;
+import org.discovertypes.cdi.extension.DiscoverableTypesCdiExtension;
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.environment.se.WeldContainer;
+import org.junit.Test;
+
+/**
+ * Simulates a redeployment by starting and stopping an embedded CDI container
+ * inside its own {@link ClassLoader}, that contains the whole class path (like
+ * an application packaged with its libraries), and asserts, that the
+ * {@link ClassLoader} can be garbage collected afterwards.
+ * 
+ * @author Johannes Troppacher
+ */
+public class RedeploymentTest {
+
+	private static final int MAX_GARBAGE_COLLECTIONS = 20;
+
+	@Test
+	public void classLoaderCollectableAfterUndeploy() throws Exception {
+		WeakReference<ClassLoader> deployment = deployAndUndeploy();
+		for (int i = 0; i < MAX_GARBAGE_COLLECTIONS && deployment.get() != null; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertNull("ClassLoader of the undeployed application is still reachable", deployment.get());
+	}
+
+	private static WeakReference<ClassLoader> deployAndUndeploy() throws Exception {
+		Thread thread = Thread.currentThread();
+		ClassLoader original = thread.getContextClassLoader();
+		try (URLClassLoader classLoader = new URLClassLoader(classPath(), ClassLoader.getSystemClassLoader().getParent())) {
+			thread.setContextClassLoader(classLoader);
+			Runnable application = (Runnable) classLoader.loadClass(Application.class.getName())
+					.getDeclaredConstructor().newInstance();
+			application.run();
+			return new WeakReference<>(classLoader);
+		} finally {
+			thread.setContextClassLoader(original);
+		}
+	}
+
+	private static URL[] classPath() throws MalformedURLException {
+		List<URL> urls = new ArrayList<>();
+		for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			urls.add(new File(entry).toURI().toURL());
+		}
+		return urls.toArray(new URL[urls.size()]);
+	}
+
+	/**
+	 * Application, that is loaded and run inside the deployment's
+	 * {@link ClassLoader}.
+	 */
+	public static class Application implements Runnable {
+
+		@Override
+		public void run() {
+			System.setProperty(DiscoverableTypesCdiExtension.ASYNC_EVENTS_PROPERTY, "true");
+			System.setProperty(DiscoverableTypesCdiExtension.WARMUP_PROPERTY, MetaMethodAnnotation.class.getName());
+			System.setProperty(DiscoverableTypesCdiExtension.JMX_PROPERTY, "true");
+			// The shutdown hook of the embedded container would keep the ClassLoader until the JVM exits
+			try (WeldContainer container = new Weld().skipShutdownHook().initialize()) {
+				container.select(ExampleConfiguration.class).get().getMetaTypeAnnotated();
+				container.select(DiscoveredTypes.class).get().annotatedWithAnyOf(
+						Collections.<Class<? extends Annotation>>singletonList(MetaMethodAnnotation.class));
+				container.select(DiscoveredBeans.class).get().referencesAnnotatedWith(MetaMethodAnnotation.class);
+			} finally {
+				System.clearProperty(DiscoverableTypesCdiExtension.ASYNC_EVENTS_PROPERTY);
+				System.clearProperty(DiscoverableTypesCdiExtension.WARMUP_PROPERTY);
+				System.clearProperty(DiscoverableTypesCdiExtension.JMX_PROPERTY);
+			}
+		}
+	}
+}
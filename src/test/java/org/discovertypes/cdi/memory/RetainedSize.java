@@ -0,0 +1,202 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.memory;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the retained heap size of an object graph by walking all reachable
+ * objects, similar to the "GraphLayout" of the Java Object Layout (JOL) tool.
+ * <p>
+ * The sizes are estimated for a 64-bit JVM with compressed references and
+ * compressed class pointers (12 byte object header, 16 byte array header, 4
+ * byte references, 8 byte alignment), so that results are comparable across
+ * JVMs and suitable as regression thresholds. Objects, that are shared with
+ * the JVM or with the rest of the application ({@link Class}es,
+ * {@link ClassLoader}s, {@link Annotation}s and {@link Enum} constants), are
+ * neither counted nor walked.
+ * <p>
+ * On Java 9 and above, the packages of walked JDK classes (e.g.
+ * <code>java.util</code>) need to be opened for reflection using
+ * <code>--add-opens</code>.
+ * 
+ * @author Johannes Troppacher
+ */
+public class RetainedSize {
+
+	private static final int OBJECT_HEADER = 12;
+	private static final int ARRAY_HEADER = 16;
+	private static final int REFERENCE = 4;
+	private static final int ALIGNMENT = 8;
+
+	private final Map<Class<?>, List<Field>> referenceFields = new HashMap<>();
+	private final Map<Class<?>, Long> shallowSizes = new HashMap<>();
+
+	/**
+	 * Estimates the retained size of all objects reachable from the given root.
+	 * 
+	 * @param root - {@link Object}
+	 * @return size in bytes
+	 */
+	public long of(Object root) {
+		return ofAll(Collections.singleton(root));
+	}
+
+	/**
+	 * Estimates the retained size of all objects reachable from the given roots.
+	 * Objects reachable from more than one root are only counted once.
+	 * 
+	 * @param roots - {@link Iterable} of {@link Object}s
+	 * @return size in bytes
+	 */
+	public long ofAll(Iterable<?> roots) {
+		Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Object> pending = new ArrayDeque<>();
+		for (Object root : roots) {
+			pending.push(root);
+		}
+		long size = 0;
+		while (!pending.isEmpty()) {
+			Object object = pending.pop();
+			if (isShared(object) || !visited.add(object)) {
+				continue;
+			}
+			size += shallowSizeOf(object);
+			pushReferencesOf(object, pending);
+		}
+		return size;
+	}
+
+	private static boolean isShared(Object object) {
+		return (object instanceof Class) || (object instanceof ClassLoader) || (object instanceof Annotation)
+				|| (object instanceof Enum);
+	}
+
+	private long shallowSizeOf(Object object) {
+		Class<?> type = object.getClass();
+		if (type.isArray()) {
+			long elementSize = sizeOf(type.getComponentType());
+			return align(ARRAY_HEADER + elementSize * Array.getLength(object));
+		}
+		Long shallowSize = shallowSizes.get(type);
+		if (shallowSize == null) {
+			shallowSize = Long.valueOf(align(OBJECT_HEADER + fieldsSizeOf(type)));
+			shallowSizes.put(type, shallowSize);
+		}
+		return shallowSize.longValue();
+	}
+
+	private static long fieldsSizeOf(Class<?> type) {
+		long size = 0;
+		for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+			for (Field field : current.getDeclaredFields()) {
+				if (!Modifier.isStatic(field.getModifiers())) {
+					size += sizeOf(field.getType());
+				}
+			}
+		}
+		return size;
+	}
+
+	private void pushReferencesOf(Object object, Deque<Object> pending) {
+		Class<?> type = object.getClass();
+		if (type.isArray()) {
+			if (!type.getComponentType().isPrimitive()) {
+				for (Object element : (Object[]) object) {
+					pushIfNotNull(element, pending);
+				}
+			}
+			return;
+		}
+		for (Field field : referenceFieldsOf(type)) {
+			pushIfNotNull(valueOf(field, object), pending);
+		}
+	}
+
+	private static void pushIfNotNull(Object object, Deque<Object> pending) {
+		if (object != null) {
+			pending.push(object);
+		}
+	}
+
+	private List<Field> referenceFieldsOf(Class<?> type) {
+		List<Field> fields = referenceFields.get(type);
+		if (fields == null) {
+			fields = new ArrayList<>();
+			for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+				for (Field field : current.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+						fields.add(accessible(field));
+					}
+				}
+			}
+			referenceFields.put(type, fields);
+		}
+		return fields;
+	}
+
+	private static Field accessible(Field field) {
+		try {
+			field.setAccessible(true);
+			return field;
+		} catch (RuntimeException e) {
+			throw new IllegalStateException("Unable to walk " + field + ". Open its package using --add-opens.", e);
+		}
+	}
+
+	private static Object valueOf(Field field, Object object) {
+		try {
+			return field.get(object);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Unable to read " + field, e);
+		}
+	}
+
+	private static long sizeOf(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return REFERENCE;
+		}
+		if (type == long.class || type == double.class) {
+			return 8;
+		}
+		if (type == int.class || type == float.class) {
+			return 4;
+		}
+		if (type == short.class || type == char.class) {
+			return 2;
+		}
+		return 1;
+	}
+
+	private static long align(long size) {
+		return ((size + ALIGNMENT - 1) / ALIGNMENT) * ALIGNMENT;
+	}
+
+	@Override
+	public String toString() {
+		return "RetainedSize [walkedTypes=" + shallowSizes.size() + "]";
+	}
+}
@@ -0,0 +1,65 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.memory;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.annotation.Retention;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class RetainedSizeTest {
+
+	/**
+	 * class under test.
+	 */
+	private RetainedSize retainedSize = new RetainedSize();
+
+	@Test
+	public void objectWithoutFieldsContainsHeaderOnly() {
+		assertEquals(16, retainedSize.of(new Object()));
+	}
+
+	@Test
+	public void primitiveFieldsAreAligned() {
+		assertEquals(24, retainedSize.of(new AtomicLong()));
+	}
+
+	@Test
+	public void primitiveArraysContainArrayHeaderAndElements() {
+		assertEquals(32, retainedSize.of(new int[3]));
+	}
+
+	@Test
+	public void referencedObjectsAreIncluded() {
+		Object[] array = new Object[] { new Object(), new Object() };
+		assertEquals(24 + 2 * 16, retainedSize.of(array));
+	}
+
+	@Test
+	public void sharedObjectsAreCountedOnce() {
+		Object shared = new Object();
+		assertEquals(24 + 16, retainedSize.of(new Object[] { shared, shared }));
+		assertEquals(2 * 24 + 16, retainedSize.ofAll(asList(new Object[] { shared }, new Object[] { shared })));
+	}
+
+	@Test
+	public void classesAnnotationsAndEnumsAreNotCounted() {
+		Object[] array = new Object[] { String.class, Thread.State.NEW,
+				Test.class.getAnnotation(Retention.class) };
+		assertEquals(32, retainedSize.of(array));
+	}
+}
@@ -0,0 +1,99 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.monitoring;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.discovertypes.cdi.Discoverable;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.junit.After;
+import org.junit.Test;
+
+public class DiscoveredTypesMonitorTest {
+
+	private MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+	private DiscoveredTypes discoveredTypes = DiscoveredTypes.of(asList(String.class, Integer.class));
+
+	/**
+	 * class under test.
+	 */
+	private DiscoveredTypesMonitor monitor = DiscoveredTypesMonitor.of(discoveredTypes, "test");
+
+	@After
+	public void tearDown() {
+		monitor.unregister();
+	}
+
+	@Test
+	public void registersMBean() {
+		monitor.register();
+		assertTrue(mbeanServer.isRegistered(monitor.getObjectName()));
+	}
+
+	@Test
+	public void unregistersMBean() {
+		monitor.register();
+		monitor.unregister();
+		assertFalse(mbeanServer.isRegistered(monitor.getObjectName()));
+	}
+
+	@Test
+	public void exposesIndexSizes() throws Exception {
+		monitor.register();
+		TabularData indexSizes = (TabularData) mbeanServer.getAttribute(monitor.getObjectName(), "IndexSizes");
+		CompositeData discoverable = indexSizes.get(new Object[] { Discoverable.class.getName() });
+		assertEquals(Integer.valueOf(2), discoverable.get("value"));
+	}
+
+	@Test
+	public void recordsQueriesWhenRegistered() throws Exception {
+		monitor.register();
+		discoveredTypes.annotatedWith(Discoverable.class);
+		Map<String, Long> queryCounts = monitor.getQueryCounts();
+		assertEquals(Long.valueOf(1), queryCounts.get(QueryMetrics.ANNOTATED_WITH));
+		String[] topQueried = (String[]) mbeanServer.getAttribute(monitor.getObjectName(),
+				"TopQueriedAnnotationTypes");
+		assertArrayEquals(new String[] { Discoverable.class.getName() + "=1" }, topQueried);
+	}
+
+	@Test
+	public void exposesQueryCacheStatistics() throws Exception {
+		monitor.register();
+		discoveredTypes.annotatedWithAnyOf(asList(Discoverable.class, Deprecated.class));
+		discoveredTypes.annotatedWithAnyOf(asList(Discoverable.class, Deprecated.class));
+		CompositeData statistics = (CompositeData) mbeanServer.getAttribute(monitor.getObjectName(),
+				"QueryCacheStatistics");
+		assertEquals(Long.valueOf(1), statistics.get("hits"));
+		assertEquals(Long.valueOf(1), statistics.get("misses"));
+	}
+
+	@Test
+	public void stopsRecordingQueriesWhenUnregistered() {
+		monitor.register();
+		monitor.unregister();
+		discoveredTypes.annotatedWith(Discoverable.class);
+		assertEquals(Long.valueOf(0), monitor.getQueryCounts().get(QueryMetrics.ANNOTATED_WITH));
+	}
+}
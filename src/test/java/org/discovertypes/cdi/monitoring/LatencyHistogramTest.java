@@ -0,0 +1,61 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.monitoring;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	/**
+	 * class under test.
+	 */
+	private LatencyHistogram histogram = new LatencyHistogram();
+
+	@Test
+	public void latencyIsCountedInBucketWithInclusiveUpperBound() {
+		long[] upperBounds = LatencyHistogram.upperBoundsNanos();
+		for (long nanos : new long[] { 0, 1, 2, 3, 4, 5, 1000, 1024, 1025, 123456789 }) {
+			int bucket = LatencyHistogram.bucketOf(nanos);
+			assertEquals(true, nanos <= upperBounds[bucket]);
+			if (bucket > 0) {
+				assertEquals(true, nanos > upperBounds[bucket - 1]);
+			}
+		}
+	}
+
+	@Test
+	public void hugeLatenciesAreCountedInLastBucket() {
+		assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void countsRecordedLatencies() {
+		histogram.record(1);
+		histogram.record(3);
+		histogram.record(4);
+		long[] counts = histogram.counts();
+		assertEquals(1, counts[0]);
+		assertEquals(2, counts[2]);
+	}
+
+	@Test
+	public void resetsCounts() {
+		histogram.record(100);
+		histogram.reset();
+		assertArrayEquals(new long[LatencyHistogram.BUCKETS], histogram.counts());
+	}
+}
@@ -0,0 +1,77 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.monitoring;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Documented;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+public class QueryMetricsTest {
+
+	/**
+	 * class under test.
+	 */
+	private QueryMetrics metrics = new QueryMetrics();
+
+	@Test
+	public void countsQueriesPerMethod() {
+		metrics.annotatedWith(Ignore.class, 1, 10);
+		metrics.annotatedWith(Ignore.class, 1, 10);
+		metrics.annotatedWithAnyOf(asList(Ignore.class, Deprecated.class), 2, 20);
+		metrics.iterated();
+		Map<String, Long> counts = metrics.getQueryCounts();
+		assertEquals(Long.valueOf(2), counts.get(QueryMetrics.ANNOTATED_WITH));
+		assertEquals(Long.valueOf(1), counts.get(QueryMetrics.ANNOTATED_WITH_ANY_OF));
+		assertEquals(Long.valueOf(1), counts.get(QueryMetrics.ITERATOR));
+	}
+
+	@Test
+	public void recordsLatenciesPerMethod() {
+		metrics.annotatedWith(Ignore.class, 1, 1);
+		metrics.annotatedWithAnyOf(asList(Ignore.class), 1, 3);
+		assertEquals(1, metrics.getAnnotatedWithLatencies()[0]);
+		assertEquals(1, metrics.getAnnotatedWithAnyOfLatencies()[2]);
+	}
+
+	@Test
+	public void ordersTopQueriedAnnotationTypesDescending() {
+		metrics.annotatedWith(Documented.class, 0, 1);
+		metrics.annotatedWith(Ignore.class, 1, 1);
+		metrics.annotatedWithAnyOf(asList(Ignore.class, Deprecated.class), 2, 1);
+		metrics.annotatedWith(Deprecated.class, 1, 1);
+		metrics.annotatedWith(Ignore.class, 1, 1);
+		Map<Class<? extends Annotation>, Long> topQueried = metrics.getTopQueriedAnnotationTypes(2);
+		Iterator<Map.Entry<Class<? extends Annotation>, Long>> entries = topQueried.entrySet().iterator();
+		Map.Entry<Class<? extends Annotation>, Long> first = entries.next();
+		assertEquals(Ignore.class, first.getKey());
+		assertEquals(Long.valueOf(3), first.getValue());
+		assertEquals(Deprecated.class, entries.next().getKey());
+		assertEquals(2, topQueried.size());
+	}
+
+	@Test
+	public void resetsAllMetrics() {
+		metrics.annotatedWith(Ignore.class, 1, 1);
+		metrics.reset();
+		assertEquals(Long.valueOf(0), metrics.getQueryCounts().get(QueryMetrics.ANNOTATED_WITH));
+		assertEquals(0, metrics.getTopQueriedAnnotationTypes(10).size());
+	}
+}
@@ -0,0 +1,174 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.scan;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.inject.Vetoed;
+import javax.inject.Named;
+
+import org.discovertypes.cdi.AnnotationLocation;
+import org.junit.Test;
+
+public class ClassFileReaderTest {
+
+	@Test
+	public void readsNameAndSuperClass() throws Exception {
+		ClassFile classFile = read(AnnotatedMembers.class);
+		assertEquals(AnnotatedMembers.class.getName(), classFile.getName());
+		assertEquals(Object.class.getName(), classFile.getSuperClassName());
+		assertFalse(classFile.isAnnotationType());
+	}
+
+	@Test
+	public void readsAnnotationTypes() throws Exception {
+		ClassFile classFile = read(AllValues.class);
+		assertTrue(classFile.isAnnotationType());
+		assertEquals(asList(Retention.class.getName()), typeNamesOf(classFile.getTypeAnnotations()));
+	}
+
+	@Test
+	public void readsAnnotationsOfAllLocations() throws Exception {
+		ClassFile classFile = read(AnnotatedMembers.class);
+		assertEquals(asList(AnnotationLocation.FIELD, AnnotationLocation.CONSTRUCTOR,
+				AnnotationLocation.CONSTRUCTOR_PARAMETER, AnnotationLocation.METHOD, AnnotationLocation.METHOD_PARAMETER,
+				AnnotationLocation.TYPE, AnnotationLocation.TYPE), classFile.getLocations());
+		assertEquals(asList(Vetoed.class.getName(), Named.class.getName()),
+				typeNamesOf(classFile.getTypeAnnotations()));
+	}
+
+	@Test
+	public void readsAllKindsOfElementValues() throws Exception {
+		Map<String, Object> values = read(AnnotatedMembers.class).getAnnotations().get(0).getValues();
+		assertEquals(Byte.valueOf((byte) 1), values.get("byteValue"));
+		assertEquals(Character.valueOf('c'), values.get("charValue"));
+		assertEquals(Short.valueOf((short) 2), values.get("shortValue"));
+		assertEquals(Integer.valueOf(3), values.get("intValue"));
+		assertEquals(Long.valueOf(4L), values.get("longValue"));
+		assertEquals(Float.valueOf(5.5f), values.get("floatValue"));
+		assertEquals(Double.valueOf(6.5), values.get("doubleValue"));
+		assertEquals(Boolean.TRUE, values.get("booleanValue"));
+		assertEquals("text", values.get("stringValue"));
+		assertEquals(ElementType.FIELD.name(), values.get("enumValue"));
+		assertEquals(String.class.getName(), values.get("classValue"));
+		assertEquals("int", values.get("primitiveClassValue"));
+		assertEquals(asList("a", "b"), values.get("arrayValue"));
+		ScannedAnnotation nested = (ScannedAnnotation) values.get("annotationValue");
+		assertEquals(Named.class.getName(), nested.getTypeName());
+		assertEquals("nested", nested.getValues().get("value"));
+	}
+
+	@Test
+	public void omitsDefaultValues() throws Exception {
+		ScannedAnnotation annotation = read(AnnotatedMembers.class).getAnnotations().get(1);
+		assertEquals(AllValues.class.getName(), annotation.getTypeName());
+		assertNull(annotation.getValues().get("stringValue"));
+		assertEquals(asList(), annotation.valuesOf("arrayValue"));
+	}
+
+	@Test(expected = IOException.class)
+	public void failsOnMissingMagicNumber() throws Exception {
+		ClassFileReader.read(new byte[] { 0, 0, 0, 0, 0, 0, 0, 0 });
+	}
+
+	@Test(expected = IOException.class)
+	public void failsOnTruncatedClassFile() throws Exception {
+		byte[] classFile = bytesOf(AnnotatedMembers.class);
+		ClassFileReader.read(Arrays.copyOf(classFile, classFile.length / 2));
+	}
+
+	private static ClassFile read(Class<?> type) throws Exception {
+		return ClassFileReader.read(bytesOf(type));
+	}
+
+	private static byte[] bytesOf(Class<?> type) throws Exception {
+		return Files.readAllBytes(
+				Paths.get(type.getResource("/" + type.getName().replace('.', '/') + ".class").toURI()));
+	}
+
+	private static List<String> typeNamesOf(List<ScannedAnnotation> annotations) {
+		List<String> typeNames = new ArrayList<>();
+		for (ScannedAnnotation annotation : annotations) {
+			typeNames.add(annotation.getTypeName());
+		}
+		return typeNames;
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface AllValues {
+		byte byteValue() default 0;
+
+		char charValue() default ' ';
+
+		short shortValue() default 0;
+
+		int intValue() default 0;
+
+		long longValue() default 0;
+
+		float floatValue() default 0;
+
+		double doubleValue() default 0;
+
+		boolean booleanValue() default false;
+
+		String stringValue() default "";
+
+		ElementType enumValue() default ElementType.TYPE;
+
+		Class<?> classValue() default Object.class;
+
+		Class<?> primitiveClassValue() default void.class;
+
+		String[] arrayValue() default {};
+
+		Named annotationValue() default @Named;
+	}
+
+	@Vetoed
+	@Named
+	static class AnnotatedMembers {
+
+		@AllValues(byteValue = 1, charValue = 'c', shortValue = 2, intValue = 3, longValue = 4, floatValue = 5.5f,
+				doubleValue = 6.5, booleanValue = true, stringValue = "text", enumValue = ElementType.FIELD,
+				classValue = String.class, primitiveClassValue = int.class, arrayValue = { "a",
+						"b" }, annotationValue = @Named("nested"))
+		String field;
+
+		@AllValues
+		AnnotatedMembers(@Named String parameter) {
+			field = parameter;
+		}
+
+		@Named
+		void method(@Named String parameter) {
+			field = parameter;
+		}
+	}
+}
@@ -0,0 +1,231 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.scan;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+
+import org.discovertypes.cdi.Discoverable;
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.discovertypes.cdi.example.method.MetaAnnotatedMethodBean;
+import org.discovertypes.cdi.example.method.MetaMethodAnnotation;
+import org.discovertypes.cdi.example.method.OriginalAnnotatedMethodBean;
+import org.discovertypes.cdi.example.method.RepeatedAnnotatedMethodBean;
+import org.discovertypes.cdi.example.method.RepeatedMethodAnnotation;
+import org.discovertypes.cdi.example.type.MetaTypeAnnotation;
+import org.discovertypes.cdi.synthetic.SyntheticTypes;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ClassFileScannerTest {
+
+	private static final int SYNTHETIC_TYPES = 50;
+
+	private static ScannedTypes testClasses;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Scans the whole class path, since the meta-annotations of annotation types
+	 * (e.g. <code>@ApplicationScoped</code>) are only known, if their class files
+	 * are scanned, too.
+	 */
+	@BeforeClass
+	public static void scanTestClasses() throws Exception {
+		testClasses = ClassFileScanner.scanClassPath();
+	}
+
+	@Test
+	public void collectsAnnotationsLikeDiscoveredType() throws Exception {
+		for (ScannedType scannedType : testClasses) {
+			DiscoveredType discoveredType = DiscoveredType.of(Class.forName(scannedType.getClassName()));
+			Set<String> annotationTypeNames = new HashSet<>();
+			for (Class<? extends Annotation> annotationType : discoveredType.getAnnotationTypes()) {
+				annotationTypeNames.add(annotationType.getName());
+				assertEquals(scannedType + " " + annotationType, discoveredType.getAnnotationLocations(annotationType),
+						scannedType.getAnnotationLocations(annotationType.getName()));
+			}
+			assertEquals(scannedType.toString(), annotationTypeNames, scannedType.getAnnotationTypeNames());
+		}
+	}
+
+	@Test
+	public void discoversTypesLikeTheCdiExtension() throws Exception {
+		assertThat(testClasses.annotatedWith(MetaMethodAnnotation.class),
+				hasItem(scannedTypeOf(MetaAnnotatedMethodBean.class)));
+		assertThat(testClasses.annotatedWith(RepeatedMethodAnnotation.class),
+				hasItem(scannedTypeOf(RepeatedAnnotatedMethodBean.class)));
+		assertThat(classNamesOf(testClasses), not(hasItem(OriginalAnnotatedMethodBean.class.getName())));
+		assertThat(classNamesOf(testClasses), not(hasItem(MetaTypeAnnotation.class.getName())));
+	}
+
+	@Test
+	public void scansJarsWithoutLoadingClasses() throws Exception {
+		SyntheticTypes.Result synthetic = SyntheticTypes.ofCount(SYNTHETIC_TYPES).compile();
+		Path jar = jarOf(synthetic.getClassFiles());
+		ScannedTypes scanned = ClassFileScanner.scan(singletonList(jar));
+		assertEquals(SYNTHETIC_TYPES, scanned.size());
+		assertEquals(SYNTHETIC_TYPES, scanned.annotatedWith(Discoverable.class).size());
+		String typeName = scanned.iterator().next().getClassName();
+		try {
+			Class.forName(typeName);
+			fail("scanned type is not expected to be loadable by the application class loader: " + typeName);
+		} catch (ClassNotFoundException expected) {
+			// the scanner read the type without loading it
+		}
+	}
+
+	@Test
+	public void convertsToDiscoveredTypes() throws Exception {
+		SyntheticTypes.Result synthetic = SyntheticTypes.ofCount(SYNTHETIC_TYPES).compile();
+		ScannedTypes scanned = ClassFileScanner.scan(singletonList(jarOf(synthetic.getClassFiles())));
+		DiscoveredTypes discovered = scanned
+				.toDiscoveredTypes(synthetic.getTypes().get(0).getClassLoader());
+		for (Class<? extends Annotation> annotationType : synthetic.getAnnotationTypes()) {
+			assertEquals(scanned.annotatedWith(annotationType).size(), discovered.countAnnotatedWith(annotationType));
+		}
+		assertEquals(new HashSet<>(synthetic.getTypes()),
+				new HashSet<>(Arrays.asList(discovered.stream().map(DiscoveredType::getAnnotatedClass).toArray())));
+	}
+
+	@Test
+	public void resolvesClassesLazily() throws Exception {
+		SyntheticTypes.Result synthetic = SyntheticTypes.ofCount(SYNTHETIC_TYPES).compile();
+		Path jar = jarOf(synthetic.getClassFiles());
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jar.toUri().toURL() }, null)) {
+			ScannedTypes scanned = ClassFileScanner.scan(singletonList(jar), classLoader);
+			ScannedType first = scanned.iterator().next();
+			assertFalse(first.isResolved());
+			Class<?> annotatedClass = first.getAnnotatedClass();
+			assertEquals(first.getClassName(), annotatedClass.getName());
+			assertSame(classLoader, annotatedClass.getClassLoader());
+			assertSame(annotatedClass, first.getAnnotatedClass());
+			assertEquals(1, scanned.stream().filter(ScannedType::isResolved).count());
+		}
+	}
+
+	@Test
+	public void resolvesClassesOnceWhenCalledConcurrently() throws Exception {
+		SyntheticTypes.Result synthetic = SyntheticTypes.ofCount(SYNTHETIC_TYPES).compile();
+		Path jar = jarOf(synthetic.getClassFiles());
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jar.toUri().toURL() }, null)) {
+			ScannedTypes scanned = ClassFileScanner.scan(singletonList(jar), classLoader);
+			for (ScannedType type : scanned) {
+				Set<Class<?>> resolved = IntStream.range(0, 8).parallel().mapToObj(i -> type.getAnnotatedClass())
+						.collect(Collectors.toSet());
+				assertEquals(type.toString(), 1, resolved.size());
+			}
+		}
+	}
+
+	@Test
+	public void failsLazilyOnMissingClasses() throws Exception {
+		SyntheticTypes.Result synthetic = SyntheticTypes.ofCount(SYNTHETIC_TYPES).compile();
+		ScannedTypes scanned = ClassFileScanner.scan(singletonList(jarOf(synthetic.getClassFiles())));
+		ScannedType type = scanned.iterator().next();
+		try {
+			type.getAnnotatedClass();
+			fail("TypeNotPresentException expected");
+		} catch (TypeNotPresentException expected) {
+			assertEquals(type.getClassName(), expected.typeName());
+			assertFalse(type.isResolved());
+		}
+	}
+
+	@Test
+	public void firstPathContainingAClassWins() throws Exception {
+		ScannedTypes once = ClassFileScanner.scan(singletonList(testClassesDirectory()));
+		ScannedTypes twice = ClassFileScanner.scan(Arrays.asList(testClassesDirectory(), testClassesDirectory()));
+		assertEquals(once.size(), twice.size());
+	}
+
+	@Test
+	public void ignoresMissingPaths() throws Exception {
+		ScannedTypes scanned = ClassFileScanner.scan(singletonList(folder.getRoot().toPath().resolve("missing.jar")));
+		assertEquals(0, scanned.size());
+	}
+
+	@Test
+	public void failsOnMalformedClassFiles() throws Exception {
+		Files.write(folder.newFile("Malformed.class").toPath(), new byte[] { 1, 2, 3 });
+		try {
+			ClassFileScanner.scan(singletonList(folder.getRoot().toPath()));
+			fail("IOException expected");
+		} catch (IOException expected) {
+			assertTrue(expected.getMessage(), expected.getMessage().contains("Malformed.class"));
+		}
+	}
+
+	private Path jarOf(Map<String, byte[]> classFiles) throws IOException {
+		Path jar = folder.newFile().toPath();
+		try (OutputStream file = Files.newOutputStream(jar); JarOutputStream out = new JarOutputStream(file)) {
+			for (Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+				out.putNextEntry(new ZipEntry(classFile.getKey().replace('.', '/') + ".class"));
+				out.write(classFile.getValue());
+				out.closeEntry();
+			}
+		}
+		return jar;
+	}
+
+	private static ScannedType scannedTypeOf(Class<?> type) {
+		for (ScannedType scannedType : testClasses) {
+			if (scannedType.getClassName().equals(type.getName())) {
+				return scannedType;
+			}
+		}
+		throw new AssertionError("not scanned: " + type);
+	}
+
+	private static Set<String> classNamesOf(ScannedTypes scanned) {
+		Set<String> classNames = new HashSet<>();
+		for (ScannedType scannedType : scanned) {
+			classNames.add(scannedType.getClassName());
+		}
+		return classNames;
+	}
+
+	private static Path testClassesDirectory() throws URISyntaxException {
+		return Paths.get(ClassFileScannerTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+	}
+}
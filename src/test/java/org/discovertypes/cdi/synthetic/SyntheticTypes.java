@@ -0,0 +1,400 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.synthetic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.discovertypes.cdi.Discoverable;
+
+/**
+ * Generates and compiles synthetic annotated classes in memory, to get
+ * realistic numbers of discoverable types for benchmarks and tests.
+ * <p>
+ * Every generated class is annotated with one of
+ * {@link #withAnnotationTypes(int)} generated annotation types, which are
+ * meta-annotated with {@link Discoverable}. Each class contains
+ * {@link #withMembers(int)} annotated fields, methods (with an annotated
+ * parameter) and constructors (with an annotated parameter). The annotation
+ * types may themselves be annotated with a chain of
+ * {@link #withMetaAnnotationDepth(int)} generated meta-annotations.
+ * <p>
+ * Requires a JDK (not only a JRE), since the classes are compiled using the
+ * {@link JavaCompiler} of the running platform.
+ *
+ * @author Johannes Troppacher
+ */
+public class SyntheticTypes {
+
+	private static final String PACKAGE_NAME = "org.discovertypes.cdi.synthetic.generated";
+
+	private final int count;
+	private int members = 1;
+	private int annotationTypes = 8;
+	private int metaAnnotationDepth = 0;
+
+	/**
+	 * Creates a new {@link SyntheticTypes} generator for the given number of
+	 * classes.
+	 *
+	 * @param count - number of classes to generate
+	 * @return {@link SyntheticTypes}
+	 */
+	public static SyntheticTypes ofCount(int count) {
+		return new SyntheticTypes(count);
+	}
+
+	private SyntheticTypes(int count) {
+		this.count = requirePositive(count, "count");
+	}
+
+	/**
+	 * Sets the number of annotated fields, methods and constructors of each
+	 * generated class. Default is 1.
+	 *
+	 * @param members - number of members of each kind (may be 0)
+	 * @return {@link SyntheticTypes}
+	 */
+	public SyntheticTypes withMembers(int members) {
+		this.members = requireNotNegative(members, "members");
+		return this;
+	}
+
+	/**
+	 * Sets the number of generated annotation types, that the classes are
+	 * distributed over. Default is 8.
+	 *
+	 * @param annotationTypes - number of distinct annotation types
+	 * @return {@link SyntheticTypes}
+	 */
+	public SyntheticTypes withAnnotationTypes(int annotationTypes) {
+		this.annotationTypes = requirePositive(annotationTypes, "annotationTypes");
+		return this;
+	}
+
+	/**
+	 * Sets the depth of the meta-annotation chain of each generated annotation
+	 * type. With a depth of 2, each annotation type is annotated with a generated
+	 * meta-annotation, which is itself annotated with another one. All of them are
+	 * annotated with {@link Discoverable}. Default is 0 (no meta-annotations).
+	 *
+	 * @param metaAnnotationDepth - length of the meta-annotation chain (may be 0)
+	 * @return {@link SyntheticTypes}
+	 */
+	public SyntheticTypes withMetaAnnotationDepth(int metaAnnotationDepth) {
+		this.metaAnnotationDepth = requireNotNegative(metaAnnotationDepth, "metaAnnotationDepth");
+		return this;
+	}
+
+	/**
+	 * Generates, compiles and loads the classes.
+	 *
+	 * @return {@link Result} containing the loaded classes and annotation types
+	 */
+	public Result compile() {
+		Map<String, String> sources = new HashMap<>();
+		for (int i = 0; i < annotationTypes; i++) {
+			sources.put(annotationTypeName(i), annotationTypeSource(i));
+			for (int depth = 1; depth <= metaAnnotationDepth; depth++) {
+				sources.put(metaAnnotationTypeName(i, depth), metaAnnotationTypeSource(i, depth));
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			sources.put(typeName(i), typeSource(i));
+		}
+		Map<String, byte[]> classFiles = compileSources(sources);
+		Map<String, byte[]> unloadedClassFiles = new HashMap<>(classFiles);
+		InMemoryClassLoader classLoader = new InMemoryClassLoader(classFiles);
+		return new Result(loadAll(classLoader, annotationTypes, SyntheticTypes::annotationTypeName),
+				loadAll(classLoader, count, SyntheticTypes::typeName), unloadedClassFiles);
+	}
+
+	private String annotationTypeSource(int index) {
+		return annotationSource(annotationTypeName(index), index, 1);
+	}
+
+	private String metaAnnotationTypeSource(int index, int depth) {
+		return annotationSource(metaAnnotationTypeName(index, depth), index, depth + 1);
+	}
+
+	private String annotationSource(String name, int index, int nextDepth) {
+		StringBuilder source = new StringBuilder();
+		source.append("package ").append(PACKAGE_NAME).append(";\n");
+		source.append("@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n");
+		source.append("@").append(Discoverable.class.getName()).append("(ignoreBean = true)\n");
+		if (nextDepth <= metaAnnotationDepth) {
+			source.append("@").append(metaAnnotationTypeName(index, nextDepth)).append("\n");
+		}
+		source.append("public @interface ").append(simpleName(name)).append(" {\n");
+		source.append("  String value() default \"").append(index).append("\";\n");
+		source.append("}\n");
+		return source.toString();
+	}
+
+	private String typeSource(int index) {
+		String annotation = "@" + annotationTypeName(index % annotationTypes);
+		String simpleName = simpleName(typeName(index));
+		StringBuilder source = new StringBuilder();
+		source.append("package ").append(PACKAGE_NAME).append(";\n");
+		source.append(annotation).append("(\"type").append(index).append("\")\n");
+		source.append("public class ").append(simpleName).append(" {\n");
+		for (int member = 0; member < members; member++) {
+			source.append("  ").append(annotation).append(" private int field").append(member).append(";\n");
+			source.append("  ").append(annotation).append(" public ").append(simpleName).append("(")
+					.append(annotation).append(" int parameter");
+			for (int parameter = 0; parameter < member; parameter++) {
+				source.append(", long parameter").append(parameter);
+			}
+			source.append(") {}\n");
+			source.append("  ").append(annotation).append(" public void method").append(member).append("(")
+					.append(annotation).append(" String parameter) {}\n");
+		}
+		source.append("}\n");
+		return source.toString();
+	}
+
+	private static String annotationTypeName(int index) {
+		return PACKAGE_NAME + ".SyntheticAnnotation" + index;
+	}
+
+	private static String metaAnnotationTypeName(int index, int depth) {
+		return PACKAGE_NAME + ".SyntheticMetaAnnotation" + index + "Depth" + depth;
+	}
+
+	private static String typeName(int index) {
+		return PACKAGE_NAME + ".SyntheticType" + index;
+	}
+
+	private static String simpleName(String name) {
+		return name.substring(name.lastIndexOf('.') + 1);
+	}
+
+	private static Map<String, byte[]> compileSources(Map<String, String> sources) {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) {
+			throw new IllegalStateException("A JDK is required to compile synthetic types");
+		}
+		List<JavaFileObject> units = new ArrayList<>();
+		for (Map.Entry<String, String> source : sources.entrySet()) {
+			units.add(new SourceFile(source.getKey(), source.getValue()));
+		}
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		Map<String, byte[]> classes = new HashMap<>();
+		StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, null, null);
+		JavaFileManager fileManager = new ClassFileManager(standardFileManager, classes);
+		List<String> options = new ArrayList<>();
+		options.add("-classpath");
+		options.add(classPathOf(Discoverable.class));
+		options.add("-proc:none");
+		if (!compiler.getTask(null, fileManager, diagnostics, options, null, units).call()) {
+			throw new IllegalStateException("Compilation of synthetic types failed: " + errorsOf(diagnostics));
+		}
+		return classes;
+	}
+
+	private static String classPathOf(Class<?> type) {
+		try {
+			return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+		} catch (URISyntaxException e) {
+			throw new IllegalStateException("Unable to locate class path entry of " + type, e);
+		}
+	}
+
+	private static List<String> errorsOf(DiagnosticCollector<JavaFileObject> diagnostics) {
+		List<String> errors = new ArrayList<>();
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+			if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+				errors.add(diagnostic.toString());
+			}
+		}
+		return errors;
+	}
+
+	private static <T> List<Class<? extends T>> loadAll(ClassLoader classLoader, int count, IntFunction<String> name) {
+		List<Class<? extends T>> classes = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			classes.add(load(classLoader, name.apply(i)));
+		}
+		return classes;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Class<? extends T> load(ClassLoader classLoader, String name) {
+		try {
+			return (Class<? extends T>) classLoader.loadClass(name);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException("Synthetic type not compiled: " + name, e);
+		}
+	}
+
+	private static int requirePositive(int value, String name) {
+		if (value <= 0) {
+			throw new IllegalArgumentException(name + " needs to be positive, but was " + value);
+		}
+		return value;
+	}
+
+	private static int requireNotNegative(int value, String name) {
+		if (value < 0) {
+			throw new IllegalArgumentException(name + " may not be negative, but was " + value);
+		}
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return "SyntheticTypes [count=" + count + ", members=" + members + ", annotationTypes=" + annotationTypes
+				+ ", metaAnnotationDepth=" + metaAnnotationDepth + "]";
+	}
+
+	/**
+	 * Contains the compiled and loaded synthetic types.
+	 */
+	public static class Result {
+		private final List<Class<? extends Annotation>> annotationTypes;
+		private final List<Class<?>> types;
+		private final Map<String, byte[]> classFiles;
+
+		private Result(List<Class<? extends Annotation>> annotationTypes, List<Class<?>> types,
+				Map<String, byte[]> classFiles) {
+			this.annotationTypes = Collections.unmodifiableList(annotationTypes);
+			this.types = Collections.unmodifiableList(types);
+			this.classFiles = Collections.unmodifiableMap(classFiles);
+		}
+
+		/**
+		 * Gets the generated annotation types, that are meta-annotated with
+		 * {@link Discoverable}.
+		 *
+		 * @return {@link List} of annotation {@link Class}es
+		 */
+		public List<Class<? extends Annotation>> getAnnotationTypes() {
+			return annotationTypes;
+		}
+
+		/**
+		 * Gets the generated annotated classes.
+		 *
+		 * @return {@link List} of {@link Class}es
+		 */
+		public List<Class<?>> getTypes() {
+			return types;
+		}
+
+		/**
+		 * Gets the compiled class files of all generated types by class name, e.g.
+		 * to package them into a jar.
+		 *
+		 * @return {@link Map} of class file contents by class name
+		 */
+		public Map<String, byte[]> getClassFiles() {
+			return classFiles;
+		}
+
+		@Override
+		public String toString() {
+			return "Result [annotationTypes=" + annotationTypes.size() + ", types=" + types.size() + "]";
+		}
+	}
+
+	private static class SourceFile extends SimpleJavaFileObject {
+		private final String source;
+
+		SourceFile(String className, String source) {
+			super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+			this.source = source;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return source;
+		}
+	}
+
+	private static class ClassFile extends SimpleJavaFileObject {
+		private final String className;
+		private final Map<String, byte[]> classes;
+
+		ClassFile(String className, Map<String, byte[]> classes) {
+			super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+			this.className = className;
+			this.classes = classes;
+		}
+
+		@Override
+		public OutputStream openOutputStream() {
+			return new ByteArrayOutputStream() {
+				@Override
+				public void close() {
+					classes.put(className, toByteArray());
+				}
+			};
+		}
+	}
+
+	private static class ClassFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+		private final Map<String, byte[]> classes;
+
+		ClassFileManager(StandardJavaFileManager fileManager, Map<String, byte[]> classes) {
+			super(fileManager);
+			this.classes = classes;
+		}
+
+		@Override
+		public JavaFileObject getJavaFileForOutput(Location location, String className, Kind kind,
+				FileObject sibling) {
+			return new ClassFile(className, classes);
+		}
+	}
+
+	private static class InMemoryClassLoader extends ClassLoader {
+		private final Map<String, byte[]> classes;
+
+		InMemoryClassLoader(Map<String, byte[]> classes) {
+			super(SyntheticTypes.class.getClassLoader());
+			this.classes = classes;
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			byte[] bytes = classes.remove(name);
+			if (bytes == null) {
+				throw new ClassNotFoundException(name);
+			}
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
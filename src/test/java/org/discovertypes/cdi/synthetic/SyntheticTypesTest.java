@@ -0,0 +1,84 @@
+//Copyright 2018 Johannes Troppacher
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+package org.discovertypes.cdi.synthetic;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.discovertypes.cdi.AnnotationLocation;
+import org.discovertypes.cdi.DiscoveredType;
+import org.discovertypes.cdi.DiscoveredTypes;
+import org.junit.Test;
+
+public class SyntheticTypesTest {
+
+	@Test
+	public void compilesTheGivenNumberOfTypes() {
+		SyntheticTypes.Result result = SyntheticTypes.ofCount(20).withAnnotationTypes(4).compile();
+		assertEquals(20, result.getTypes().size());
+		assertEquals(4, result.getAnnotationTypes().size());
+	}
+
+	@Test
+	public void distributesTypesOverAnnotationTypes() {
+		SyntheticTypes.Result result = SyntheticTypes.ofCount(20).withAnnotationTypes(4).compile();
+		DiscoveredTypes discoveredTypes = DiscoveredTypes.of(new ArrayList<>(result.getTypes()));
+		for (Class<? extends Annotation> annotationType : result.getAnnotationTypes()) {
+			Collection<DiscoveredType> annotated = discoveredTypes.annotatedWith(annotationType);
+			assertEquals(annotationType.getName(), 5, annotated.size());
+		}
+	}
+
+	@Test
+	public void generatesAnnotatedMembers() {
+		SyntheticTypes.Result result = SyntheticTypes.ofCount(1).withMembers(3).compile();
+		Class<?> type = result.getTypes().get(0);
+		assertEquals(3, type.getDeclaredFields().length);
+		assertEquals(3, type.getDeclaredMethods().length);
+		assertEquals(3, type.getDeclaredConstructors().length);
+	}
+
+	@Test
+	public void generatedTypesWithoutMembersAreOnlyTypeAnnotated() {
+		SyntheticTypes.Result result = SyntheticTypes.ofCount(1).withMembers(0).compile();
+		DiscoveredType discoveredType = DiscoveredType.of(result.getTypes().get(0));
+		Class<? extends Annotation> annotationType = result.getAnnotationTypes().get(0);
+		assertEquals(AnnotationLocation.TYPE, discoveredType.getAnnotationLocation(annotationType));
+	}
+
+	@Test
+	public void generatesMetaAnnotationChain() {
+		SyntheticTypes.Result result = SyntheticTypes.ofCount(1).withMetaAnnotationDepth(2).compile();
+		Class<? extends Annotation> annotationType = result.getAnnotationTypes().get(0);
+		Annotation[] metaAnnotations = annotationType.getAnnotations();
+		Class<?> metaAnnotationType = syntheticMetaAnnotationTypeOf(metaAnnotations);
+		assertEquals("SyntheticMetaAnnotation0Depth1", metaAnnotationType.getSimpleName());
+		Annotation[] metaMetaAnnotations = metaAnnotationType.getAnnotations();
+		assertEquals("SyntheticMetaAnnotation0Depth2",
+				syntheticMetaAnnotationTypeOf(metaMetaAnnotations).getSimpleName());
+	}
+
+	private static Class<?> syntheticMetaAnnotationTypeOf(Annotation[] annotations) {
+		for (Annotation annotation : annotations) {
+			if (annotation.annotationType().getSimpleName().startsWith("SyntheticMetaAnnotation")) {
+				return annotation.annotationType();
+			}
+		}
+		throw new AssertionError("No synthetic meta-annotation found in " + asList(annotations));
+	}
+}